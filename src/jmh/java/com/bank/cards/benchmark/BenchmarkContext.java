@@ -0,0 +1,39 @@
+package com.bank.cards.benchmark;
+
+import com.bank.cards.BankCardsApplication;
+import com.bank.cards.entity.User;
+import com.bank.cards.repository.UserRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Boots the application on the in-memory H2 {@code test} profile without a web server, for
+ * benchmarks that go through the real services, repositories and transactions.
+ */
+final class BenchmarkContext {
+    
+    static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+    
+    private BenchmarkContext() {}
+    
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(BankCardsApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run(
+                        // Command-line arguments, so they win over application.yml
+                        "--spring.sql.init.mode=never",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--jwt.secret=" + SECRET,
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.bank.cards=WARN",
+                        "--logging.level.org.springframework.security=WARN",
+                        "--spring.main.banner-mode=off");
+    }
+    
+    static User createUser(ConfigurableApplicationContext context, String username) {
+        User user = new User(username, "not-used", "Benchmark User", username + "@example.com");
+        return context.getBean(UserRepository.class).save(user);
+    }
+}
@@ -0,0 +1,66 @@
+package com.bank.cards.benchmark;
+
+import com.bank.cards.dto.CardDto;
+import com.bank.cards.entity.Card;
+import com.bank.cards.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Entity to DTO mapping as done by CardServiceImpl for a user's card list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardDtoMappingBenchmark {
+
+    @Param({"1", "20"})
+    private int cardCount;
+
+    private List<Card> cards;
+
+    @Setup
+    public void setUp() {
+        User owner = new User("benchmark", "not-used", "Benchmark User", "benchmark@example.com");
+        cards = new ArrayList<>(cardCount);
+        for (int i = 0; i < cardCount; i++) {
+            Card card = new Card();
+            card.setId((long) i);
+            card.setCardNumber(String.format("2200120000%06d", i));
+            card.setCardHolderName("Benchmark User");
+            card.setExpiryDate(YearMonth.of(2029, 1));
+            card.setCvv("123");
+            card.setBalance(new BigDecimal("1234.56"));
+            card.setStatus(Card.CardStatus.ACTIVE);
+            card.setCardType(Card.CardType.DEBIT);
+            card.setOwner(owner);
+            cards.add(card);
+        }
+    }
+
+    @Benchmark
+    public List<CardDto> mapCards() {
+        return cards.stream()
+                .map(CardDto::new)
+                .collect(Collectors.toList());
+    }
+}
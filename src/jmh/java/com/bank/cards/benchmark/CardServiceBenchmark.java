@@ -0,0 +1,93 @@
+package com.bank.cards.benchmark;
+
+import com.bank.cards.dto.CardDto;
+import com.bank.cards.dto.TransferRequest;
+import com.bank.cards.entity.Card;
+import com.bank.cards.entity.Transaction;
+import com.bank.cards.entity.User;
+import com.bank.cards.repository.CardRepository;
+import com.bank.cards.service.CardService;
+import com.bank.cards.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Card issuance and transfers through the Spring services on H2, including transaction
+ * management and Hibernate flushes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CardServiceBenchmark {
+
+    private static final BigDecimal TRANSFER_AMOUNT = new BigDecimal("0.01");
+
+    private ConfigurableApplicationContext context;
+    private CardService cardService;
+    private TransactionService transactionService;
+    private User owner;
+    private CardDto newCard;
+    private TransferRequest forward;
+    private TransferRequest backward;
+    private boolean flip;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        cardService = context.getBean(CardService.class);
+        transactionService = context.getBean(TransactionService.class);
+        owner = BenchmarkContext.createUser(context, "benchmark");
+
+        newCard = new CardDto();
+        newCard.setCardHolderName("Benchmark User");
+        newCard.setExpiryDate(YearMonth.now().plusYears(3));
+        newCard.setCardType(Card.CardType.DEBIT);
+
+        CardRepository cardRepository = context.getBean(CardRepository.class);
+        Long fromId = fundedCard(cardRepository);
+        Long toId = fundedCard(cardRepository);
+        forward = new TransferRequest(fromId, toId, TRANSFER_AMOUNT, "benchmark");
+        backward = new TransferRequest(toId, fromId, TRANSFER_AMOUNT, "benchmark");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CardDto createCard() {
+        return cardService.createCard(newCard, owner);
+    }
+
+    @Benchmark
+    public Transaction transferBetweenOwnCards() {
+        flip = !flip;
+        return transactionService.transferBetweenOwnCards(flip ? forward : backward, owner);
+    }
+
+    private Long fundedCard(CardRepository cardRepository) {
+        Long id = cardService.createCard(newCard, owner).getId();
+        Card card = cardRepository.findById(id).orElseThrow();
+        card.setBalance(new BigDecimal("1000000000.00"));
+        return cardRepository.save(card).getId();
+    }
+}
@@ -0,0 +1,79 @@
+package com.bank.cards.benchmark;
+
+import com.bank.cards.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of issuing a token at login and of authenticating one request in JwtAuthenticationFilter.
+ * <p>
+ * {@code legacyFilterPath} reproduces the previous behaviour: the signing key and parser were
+ * rebuilt for every claim lookup and the filter looked claims up three times per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = BenchmarkContext.SECRET;
+
+    private JwtUtil cached;
+    private JwtUtil uncached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cached = new JwtUtil(SECRET, 3_600_000L, 10_000, 30);
+        uncached = new JwtUtil(SECRET, 3_600_000L, 0, 30);
+        token = cached.generateToken("benchmark-user");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cached.generateToken("benchmark-user");
+    }
+    
+    @Benchmark
+    public boolean legacyFilterPath() {
+        String username = legacyClaims(token).getSubject();
+        Date expiration = legacyClaims(token).getExpiration();
+        return legacyClaims(token).getSubject().equals(username) && !expiration.before(new Date());
+    }
+
+    @Benchmark
+    public String singleParse() {
+        return uncached.verifyToken(token).getSubject();
+    }
+
+    @Benchmark
+    public String cachedClaims() {
+        return cached.verifyToken(token).getSubject();
+    }
+
+    private static Claims legacyClaims(String token) {
+        Key key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
@@ -0,0 +1,137 @@
+package com.bank.cards.benchmark;
+
+import com.bank.cards.dto.CardDto;
+import com.bank.cards.dto.TransferRequest;
+import com.bank.cards.entity.Card;
+import com.bank.cards.entity.Transaction;
+import com.bank.cards.entity.User;
+import com.bank.cards.repository.CardRepository;
+import com.bank.cards.service.CardService;
+import com.bank.cards.service.TransactionService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One page of a user's transaction history, read and serialized to JSON: the former
+ * fetch-join entity query against the {@code TransactionView} projection. Bytes per page are
+ * printed during setup; run with {@code -prof gc} for allocation per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionHistoryBenchmark {
+
+    private static final int HISTORY_SIZE = 500;
+
+    // The query the history endpoints ran before the projection
+    private static final String ENTITY_QUERY = "SELECT t FROM Transaction t LEFT JOIN FETCH t.fromCard LEFT JOIN FETCH t.toCard " +
+            "WHERE (t.fromCard IS NOT NULL AND t.fromCard.owner.id = :userId) OR (t.toCard IS NOT NULL AND t.toCard.owner.id = :userId) " +
+            "ORDER BY t.createdAt DESC";
+    private static final String ENTITY_COUNT_QUERY = "SELECT count(t) FROM Transaction t " +
+            "WHERE (t.fromCard IS NOT NULL AND t.fromCard.owner.id = :userId) OR (t.toCard IS NOT NULL AND t.toCard.owner.id = :userId)";
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnly;
+    private ObjectMapper objectMapper;
+    private User owner;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        transactionService = context.getBean(TransactionService.class);
+        entityManager = context.getBean(EntityManager.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        owner = BenchmarkContext.createUser(context, "history");
+
+        Long fromId = fundedCard();
+        Long toId = fundedCard();
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            TransferRequest request = i % 2 == 0
+                    ? new TransferRequest(fromId, toId, BigDecimal.ONE, "benchmark " + i)
+                    : new TransferRequest(toId, fromId, BigDecimal.ONE, "benchmark " + i);
+            transactionService.transferBetweenOwnCards(request, owner);
+        }
+
+        System.out.printf("%nBytes per page of %d: entity=%d view=%d%n",
+                pageSize, entityPage().length, viewPage().length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] entityPage() {
+        // Serialized inside the session, as open-in-view did for the entity responses
+        return readOnly.execute(status -> {
+            List<Transaction> content = entityManager.createQuery(ENTITY_QUERY, Transaction.class)
+                    .setParameter("userId", owner.getId())
+                    .setMaxResults(pageSize)
+                    .getResultList();
+            Long total = entityManager.createQuery(ENTITY_COUNT_QUERY, Long.class)
+                    .setParameter("userId", owner.getId())
+                    .getSingleResult();
+            return write(new PageImpl<>(content, PageRequest.of(0, pageSize), total));
+        });
+    }
+
+    @Benchmark
+    public byte[] viewPage() {
+        return write(transactionService.getUserTransactions(owner, PageRequest.of(0, pageSize)));
+    }
+
+    private byte[] write(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Long fundedCard() {
+        CardDto newCard = new CardDto();
+        newCard.setCardHolderName("Benchmark User");
+        newCard.setExpiryDate(YearMonth.now().plusYears(3));
+        newCard.setCardType(Card.CardType.DEBIT);
+        Long id = context.getBean(CardService.class).createCard(newCard, owner).getId();
+        CardRepository cardRepository = context.getBean(CardRepository.class);
+        Card card = cardRepository.findById(id).orElseThrow();
+        card.setBalance(new BigDecimal("1000000.00"));
+        return cardRepository.save(card).getId();
+    }
+}
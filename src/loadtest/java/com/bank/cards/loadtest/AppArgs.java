@@ -0,0 +1,28 @@
+package com.bank.cards.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Command-line arguments for an application booted by a load generator. Spring joins repeated
+ * {@code --key=value} arguments into one comma-separated value, so an extra argument replaces
+ * the default with the same key instead of being passed after it.
+ */
+final class AppArgs {
+    
+    private AppArgs() {
+    }
+    
+    static String[] merge(List<String> defaults, String[] extraArgs) {
+        Map<String, String> args = new LinkedHashMap<>();
+        Stream.concat(defaults.stream(), Stream.of(extraArgs)).forEach(arg -> args.put(key(arg), arg));
+        return args.values().toArray(String[]::new);
+    }
+    
+    private static String key(String arg) {
+        int separator = arg.indexOf('=');
+        return separator < 0 ? arg : arg.substring(0, separator);
+    }
+}
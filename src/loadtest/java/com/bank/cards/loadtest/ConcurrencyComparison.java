@@ -0,0 +1,153 @@
+package com.bank.cards.loadtest;
+
+import com.bank.cards.BankCardsApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares request throughput of the default platform-thread mode against the
+ * {@code virtual-threads} profile. Each mode boots the application in this JVM on a random
+ * port, seeds one user with two cards, then keeps 1k and 10k requests in flight against
+ * {@code GET /cards} and {@code GET /transactions/scroll}.
+ * <p>
+ * Run with {@code mvn -Ploadtest verify -Dloadtest.main=com.bank.cards.loadtest.ConcurrencyComparison}. Extra {@code --key=value} arguments are passed to
+ * the application, e.g. a PostgreSQL datasource URL and driver class name to include real
+ * database latency. On Java 17 the virtual-threads run only differs in pool and connector sizes.
+ * Client and server share this process, so 10k clients need over 20k file descriptors;
+ * raise {@code ulimit -n} first or the 10k runs report accept errors.
+ */
+public class ConcurrencyComparison {
+    
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+    private static final int[] CONCURRENCY = {1_000, 10_000};
+    private static final int REQUESTS_PER_CLIENT = 5;
+    
+    public static void main(String[] args) throws Exception {
+        System.out.printf("Java %s, %d CPUs%n", Runtime.version(), Runtime.getRuntime().availableProcessors());
+        if (Runtime.version().feature() < 21) {
+            System.out.println("WARNING: virtual threads need Java 21; the virtual-threads run will use platform threads");
+        }
+        List<String> results = new ArrayList<>();
+        for (String mode : new String[]{"platform", "virtual-threads"}) {
+            try (ConfigurableApplicationContext context = start(mode, args)) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                String base = "http://localhost:" + port + "/api";
+                HttpClient client = HttpClient.newBuilder()
+                        .connectTimeout(Duration.ofSeconds(30))
+                        .build();
+                String token = seed(client, base);
+                for (int concurrency : CONCURRENCY) {
+                    run(client, base, token, concurrency / 10);
+                    results.add(run(client, base, token, concurrency).format(mode));
+                }
+            }
+        }
+        System.out.println();
+        System.out.printf("%-16s %8s %10s %8s %10s%n", "mode", "clients", "req/s", "errors", "seconds");
+        results.forEach(System.out::println);
+    }
+    
+    private static ConfigurableApplicationContext start(String mode, String[] extraArgs) {
+        List<String> defaults = List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest-" + mode + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.sql.init.mode=never",
+                "--jwt.secret=" + SECRET,
+                "--rate-limit.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.bank.cards=WARN",
+                "--logging.level.org.springframework.security=WARN",
+                "--server.tomcat.max-connections=20000",
+                "--server.tomcat.accept-count=1000");
+        String profiles = mode.equals("platform") ? "test" : "test," + mode;
+        return new SpringApplicationBuilder(BankCardsApplication.class)
+                .profiles(profiles.split(","))
+                .run(AppArgs.merge(defaults, extraArgs));
+    }
+    
+    private static String seed(HttpClient client, String base) throws Exception {
+        String register = "{\"username\":\"load\",\"password\":\"secret1\",\"fullName\":\"Load Test\",\"email\":\"load@example.com\"}";
+        HttpResponse<String> response = client.send(post(base + "/auth/register", register, null),
+                HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"").matcher(response.body());
+        if (!matcher.find()) {
+            throw new IllegalStateException("Registration failed: " + response.statusCode() + " " + response.body());
+        }
+        String token = matcher.group(1);
+        String card = "{\"cardHolderName\":\"Load Test\",\"expiryDate\":\"2030-01\",\"cardType\":\"DEBIT\"}";
+        for (int i = 0; i < 2; i++) {
+            client.send(post(base + "/cards", card, token), HttpResponse.BodyHandlers.discarding());
+        }
+        return token;
+    }
+    
+    private static Result run(HttpClient client, String base, String token, int concurrency) throws Exception {
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicLong errors = new AtomicLong();
+        int total = concurrency * REQUESTS_PER_CLIENT;
+        List<CompletableFuture<?>> pending = new ArrayList<>(total);
+        long started = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            inFlight.acquire();
+            String path = i % 2 == 0 ? "/cards" : "/transactions/scroll?size=20";
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + path))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(60))
+                    .build();
+            pending.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        if (failure != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                        inFlight.release();
+                    }));
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+        return new Result(concurrency, total, errors.get(), System.nanoTime() - started);
+    }
+    
+    private static HttpRequest post(String url, String json, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+    
+    private static class Result {
+        
+        private final int concurrency;
+        private final int requests;
+        private final long errors;
+        private final long elapsedNanos;
+        
+        Result(int concurrency, int requests, long errors, long elapsedNanos) {
+            this.concurrency = concurrency;
+            this.requests = requests;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+        }
+        
+        String format(String mode) {
+            double seconds = elapsedNanos / 1e9;
+            return String.format("%-16s %8d %10.0f %8d %10.1f", mode, concurrency, requests / seconds, errors, seconds);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.bank.cards.loadtest;
+
+import com.bank.cards.BankCardsApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures transfer throughput into one hot card with the balance on the card row and with
+ * the card striped over 4 and 16 balance shards. The application boots in this JVM on a random
+ * port; one user gets a source card per client and the hot card, then every client sends
+ * {@code POST /transactions/transfer} from its own source card to the hot card. Conflicts are
+ * the {@code transfers.conflicts} counter (optimistic version conflicts and lock failures,
+ * each followed by a retry); errors are transfers that still failed. After each run the hot
+ * card's balance must have grown by exactly the amount transferred. The daily stats are split
+ * over {@code card-stats.shards} rows per card and day, 16 by default; with
+ * {@code --card-stats.shards=1} every transfer into the hot card waits for its single stats row.
+ * The owner's feed version is split the same way over {@code transaction-feed.version-shards}.
+ * <p>
+ * Run with {@code mvn -Ploadtest verify -Dloadtest.main=com.bank.cards.loadtest.HotCardBenchmark}.
+ * Extra {@code --key=value} arguments replace the defaults, e.g. a PostgreSQL datasource URL
+ * together with {@code --spring.datasource.driver-class-name=org.postgresql.Driver}; on H2 the
+ * numbers show contention, not production throughput.
+ */
+public class HotCardBenchmark {
+    
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+    private static final int CLIENTS = 32;
+    private static final int TRANSFERS = 4_000;
+    private static final int[] SHARDS = {0, 4, 16};
+    private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final Pattern BALANCE = Pattern.compile("\"balance\"\\s*:\\s*([0-9.]+)");
+    private static final Pattern VALUE = Pattern.compile("\"value\"\\s*:\\s*([0-9.E]+)");
+    
+    public static void main(String[] args) throws Exception {
+        System.out.printf("Java %s, %d CPUs%n", Runtime.version(), Runtime.getRuntime().availableProcessors());
+        List<String> results = new ArrayList<>();
+        try (ConfigurableApplicationContext context = start(args)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String base = "http://localhost:" + port + "/api";
+            HttpClient client = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            String token = register(client, base);
+            List<Long> sources = new ArrayList<>(CLIENTS);
+            for (int i = 0; i < CLIENTS; i++) {
+                sources.add(createCard(client, base, token));
+            }
+            long hotCard = createCard(client, base, token);
+    
+            run(client, base, token, sources, hotCard, TRANSFERS / 4);
+            for (int shards : SHARDS) {
+                send(client, HttpRequest.newBuilder(URI.create(base + "/cards/" + hotCard + "/balance-shards?shards=" + shards))
+                        .header("Authorization", "Bearer " + token)
+                        .PUT(HttpRequest.BodyPublishers.noBody())
+                        .build());
+                results.add(run(client, base, token, sources, hotCard, TRANSFERS).format(shards));
+            }
+        }
+        System.out.println();
+        System.out.printf("%-8s %8s %12s %10s %8s %10s%n", "shards", "clients", "transfers/s", "conflicts", "errors", "seconds");
+        results.forEach(System.out::println);
+    }
+    
+    private static ConfigurableApplicationContext start(String[] extraArgs) {
+        List<String> defaults = List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:hotcard;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;" +
+                        "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                "--spring.datasource.hikari.maximum-pool-size=" + CLIENTS,
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+                "--spring.sql.init.mode=never",
+                "--jwt.secret=" + SECRET,
+                "--rate-limit.enabled=false",
+                "--card-stats.shards=16",
+                "--transaction-feed.version-shards=16",
+                "--logging.level.root=WARN",
+                "--logging.level.com.bank.cards=WARN",
+                "--logging.level.org.springframework.security=WARN");
+        return new SpringApplicationBuilder(BankCardsApplication.class)
+                .profiles("test")
+                .run(AppArgs.merge(defaults, extraArgs));
+    }
+    
+    private static String register(HttpClient client, String base) throws Exception {
+        String register = "{\"username\":\"hot\",\"password\":\"secret1\",\"fullName\":\"Hot Card\",\"email\":\"hot@example.com\"}";
+        String body = send(client, post(base + "/auth/register", register, null));
+        Matcher matcher = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"").matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Registration failed: " + body);
+        }
+        return matcher.group(1);
+    }
+    
+    private static long createCard(HttpClient client, String base, String token) throws Exception {
+        String card = "{\"cardHolderName\":\"Hot Card\",\"expiryDate\":\"2030-01\",\"cardType\":\"DEBIT\"}";
+        return Long.parseLong(find(ID, send(client, post(base + "/cards", card, token))));
+    }
+    
+    private static Result run(HttpClient client, String base, String token, List<Long> sources, long hotCard,
+                              int transfers) throws Exception {
+        BigDecimal balanceBefore = new BigDecimal(find(BALANCE, get(client, base + "/cards/" + hotCard, token)));
+        double conflictsBefore = conflicts(client, base, token);
+    
+        // One client per source card, so the hot card is the only row the transfers share
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(sources.size());
+        long started = System.nanoTime();
+        for (Long source : sources) {
+            String transfer = "{\"fromCardId\":" + source + ",\"toCardId\":" + hotCard + ",\"amount\":" + AMOUNT + "}";
+            executor.execute(() -> {
+                for (int i = 0; i < transfers / sources.size(); i++) {
+                    try {
+                        HttpResponse<Void> response = client.send(post(base + "/transactions/transfer", transfer, token),
+                                HttpResponse.BodyHandlers.discarding());
+                        (response.statusCode() == 201 ? succeeded : errors).incrementAndGet();
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.HOURS);
+        long elapsed = System.nanoTime() - started;
+    
+        BigDecimal balanceAfter = new BigDecimal(find(BALANCE, get(client, base + "/cards/" + hotCard, token)));
+        BigDecimal expected = balanceBefore.add(AMOUNT.multiply(BigDecimal.valueOf(succeeded.get())));
+        if (balanceAfter.compareTo(expected) != 0) {
+            throw new IllegalStateException("Hot card balance is " + balanceAfter + ", expected " + expected);
+        }
+        long conflicts = Math.round(conflicts(client, base, token) - conflictsBefore);
+        return new Result(succeeded.get(), conflicts, errors.get(), elapsed);
+    }
+    
+    private static double conflicts(HttpClient client, String base, String token) throws Exception {
+        return Double.parseDouble(find(VALUE, get(client, base + "/actuator/metrics/transfers.conflicts", token)));
+    }
+    
+    private static String get(HttpClient client, String url, String token) throws Exception {
+        return send(client, HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .build());
+    }
+    
+    private static String send(HttpClient client, HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException(request.uri() + " returned " + response.statusCode() + " " + response.body());
+        }
+        return response.body();
+    }
+    
+    private static String find(Pattern pattern, String body) {
+        Matcher matcher = pattern.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("No " + pattern + " in " + body);
+        }
+        return matcher.group(1);
+    }
+    
+    private static HttpRequest post(String url, String json, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+    
+    private static class Result {
+    
+        private final long succeeded;
+        private final long conflicts;
+        private final long errors;
+        private final long elapsedNanos;
+    
+        Result(long succeeded, long conflicts, long errors, long elapsedNanos) {
+            this.succeeded = succeeded;
+            this.conflicts = conflicts;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+        }
+    
+        String format(int shards) {
+            double seconds = elapsedNanos / 1e9;
+            return String.format("%-8d %8d %12.0f %10d %8d %10.1f", shards, CLIENTS, succeeded / seconds, conflicts,
+                    errors, seconds);
+        }
+    }
+}
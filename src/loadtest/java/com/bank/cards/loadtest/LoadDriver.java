@@ -0,0 +1,478 @@
+package com.bank.cards.loadtest;
+
+import com.bank.cards.BankCardsApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Drives a mix of logins, card lists, transfers and history paging against the application
+ * and reports throughput and p50/p99/p999 latency per operation.
+ * <p>
+ * The application boots in this JVM on a random port with an in-memory H2 database in
+ * PostgreSQL mode and the PostgreSQL dialect, so Hibernate issues the same SQL as in
+ * production. Users and their cards are created through the API; every card then gets a large
+ * balance so transfers do not run dry. Each client is a thread that sends one request at a
+ * time as one of the users, picking the next operation at random by the weights of the mix.
+ * <p>
+ * Run with {@code mvn -Ploadtest verify -Dloadtest.args="--clients=64 --duration=60"}.
+ * Driver options (defaults in {@link Options}):
+ * <pre>
+ *   --users=20 --cards-per-user=3 --clients=32 --warmup=10 --duration=30
+ *   --mix=login:5,cards:40,transfer:25,history:30 --out=target/loadtest-result.json
+ * </pre>
+ * Any other {@code --key=value} argument is passed to the application and replaces the
+ * driver's default for that key, e.g. {@code --rate-limit.enabled=true} or
+ * {@code --ledger.enabled=true}. Results are also written as JSON, so two runs can be compared.
+ */
+public class LoadDriver {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+    private static final String PASSWORD = "secret1";
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    enum Operation { LOGIN, CARDS, TRANSFER, HISTORY }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        System.out.printf("Java %s, %d CPUs; %d users x %d cards, %d clients, mix %s%n",
+                Runtime.version(), Runtime.getRuntime().availableProcessors(),
+                options.users, options.cardsPerUser, options.clients, options.mix);
+
+        try (ConfigurableApplicationContext context = start(options.appArgs)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String base = "http://localhost:" + port + "/api";
+            HttpClient client = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+
+            long seedStarted = System.nanoTime();
+            List<SeededUser> users = seed(client, base, options);
+            context.getBean(JdbcTemplate.class).update("UPDATE cards SET balance = 1000000000");
+            System.out.printf("Seeded %d users in %d ms%n", users.size(), (System.nanoTime() - seedStarted) / 1_000_000);
+
+            System.out.printf("Warming up for %d s%n", options.warmupSeconds);
+            drive(client, base, users, options, options.warmupSeconds);
+            System.out.printf("Measuring for %d s%n", options.durationSeconds);
+            Report report = drive(client, base, users, options, options.durationSeconds);
+
+            report.print();
+            Path out = Path.of(options.out);
+            if (out.getParent() != null) {
+                Files.createDirectories(out.getParent());
+            }
+            Files.writeString(out, JSON.writerWithDefaultPrettyPrinter().writeValueAsString(report.toJson(options)));
+            System.out.println("Results written to " + out.toAbsolutePath());
+        }
+    }
+
+    private static ConfigurableApplicationContext start(Map<String, String> overrides) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("spring.datasource.url",
+                "jdbc:h2:mem:loaddriver;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1");
+        properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
+        properties.put("spring.sql.init.mode", "never");
+        properties.put("jwt.secret", SECRET);
+        // Few users send many requests each, which the per-user limits would mostly reject
+        properties.put("rate-limit.enabled", "false");
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.com.bank.cards", "WARN");
+        properties.put("logging.level.org.springframework.security", "WARN");
+        properties.putAll(overrides);
+
+        String[] args = properties.entrySet().stream()
+                .map(e -> "--" + e.getKey() + "=" + e.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(BankCardsApplication.class)
+                .profiles("test")
+                .run(args);
+    }
+
+    private static List<SeededUser> seed(HttpClient client, String base, Options options) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(options.users, 16));
+        try {
+            List<Future<SeededUser>> futures = new ArrayList<>();
+            for (int i = 0; i < options.users; i++) {
+                String username = "load" + i;
+                futures.add(executor.submit(() -> seedUser(client, base, username, options.cardsPerUser)));
+            }
+            List<SeededUser> users = new ArrayList<>();
+            for (Future<SeededUser> future : futures) {
+                users.add(future.get());
+            }
+            return users;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static SeededUser seedUser(HttpClient client, String base, String username, int cards) throws Exception {
+        String register = "{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD + "\",\"fullName\":\"Load Test\"," +
+                "\"email\":\"" + username + "@example.com\"}";
+        HttpResponse<String> response = client.send(post(base + "/auth/register", register, null),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Registration failed: " + response.statusCode() + " " + response.body());
+        }
+        SeededUser user = new SeededUser(username, JSON.readTree(response.body()).get("token").asText());
+
+        String card = "{\"cardHolderName\":\"Load Test\",\"expiryDate\":\"2030-01\",\"cardType\":\"DEBIT\"}";
+        for (int i = 0; i < cards; i++) {
+            HttpResponse<String> created = client.send(post(base + "/cards", card, user.token),
+                    HttpResponse.BodyHandlers.ofString());
+            if (created.statusCode() / 100 != 2) {
+                throw new IllegalStateException("Card creation failed: " + created.statusCode() + " " + created.body());
+            }
+            user.cardIds.add(JSON.readTree(created.body()).get("id").asLong());
+        }
+        return user;
+    }
+
+    private static Report drive(HttpClient client, String base, List<SeededUser> users,
+                                Options options, int seconds) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(options.clients);
+        long started = System.nanoTime();
+        long deadline = started + Duration.ofSeconds(seconds).toNanos();
+        try {
+            List<Future<Recorder>> futures = new ArrayList<>();
+            for (int i = 0; i < options.clients; i++) {
+                SeededUser user = users.get(i % users.size());
+                futures.add(executor.submit(() -> new Client(client, base, user, options.mix).runUntil(deadline)));
+            }
+            Recorder total = new Recorder();
+            for (Future<Recorder> future : futures) {
+                total.addAll(future.get());
+            }
+            return new Report(total, System.nanoTime() - started);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static HttpRequest post(String url, String json, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private static HttpRequest get(String url, String token) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60))
+                .build();
+    }
+
+    /**
+     * One simulated client: sends a request, waits for the response, picks the next operation.
+     */
+    private static class Client {
+
+        private final HttpClient client;
+        private final String base;
+        private final SeededUser user;
+        private final Mix mix;
+        private final Recorder recorder = new Recorder();
+        private String historyCursor;
+
+        Client(HttpClient client, String base, SeededUser user, Mix mix) {
+            this.client = client;
+            this.base = base;
+            this.user = user;
+            this.mix = mix;
+        }
+
+        Recorder runUntil(long deadline) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (System.nanoTime() < deadline) {
+                Operation operation = mix.pick(random);
+                long started = System.nanoTime();
+                boolean ok;
+                try {
+                    ok = send(operation, random);
+                } catch (IOException e) {
+                    ok = false;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                recorder.record(operation, System.nanoTime() - started, ok);
+            }
+            return recorder;
+        }
+
+        private boolean send(Operation operation, ThreadLocalRandom random) throws IOException, InterruptedException {
+            switch (operation) {
+                case LOGIN -> {
+                    String login = "{\"username\":\"" + user.username + "\",\"password\":\"" + PASSWORD + "\"}";
+                    return isSuccess(client.send(post(base + "/auth/login", login, null), HttpResponse.BodyHandlers.discarding()));
+                }
+                case CARDS -> {
+                    return isSuccess(client.send(get(base + "/cards", user.token), HttpResponse.BodyHandlers.discarding()));
+                }
+                case TRANSFER -> {
+                    int from = random.nextInt(user.cardIds.size());
+                    int to = (from + 1 + random.nextInt(user.cardIds.size() - 1)) % user.cardIds.size();
+                    String transfer = "{\"fromCardId\":" + user.cardIds.get(from) + ",\"toCardId\":" + user.cardIds.get(to) +
+                            ",\"amount\":0.01,\"description\":\"load\"}";
+                    return isSuccess(client.send(post(base + "/transactions/transfer", transfer, user.token),
+                            HttpResponse.BodyHandlers.discarding()));
+                }
+                case HISTORY -> {
+                    // Pages through the user's history; starts over after the last page
+                    String url = base + "/transactions/scroll?size=20" + (historyCursor == null ? ""
+                            : "&cursor=" + URLEncoder.encode(historyCursor, StandardCharsets.UTF_8));
+                    HttpResponse<String> response = client.send(get(url, user.token), HttpResponse.BodyHandlers.ofString());
+                    if (!isSuccess(response)) {
+                        historyCursor = null;
+                        return false;
+                    }
+                    JsonNode next = JSON.readTree(response.body()).get("nextCursor");
+                    historyCursor = next == null || next.isNull() ? null : next.asText();
+                    return true;
+                }
+                default -> throw new IllegalStateException("Unknown operation " + operation);
+            }
+        }
+
+        private static boolean isSuccess(HttpResponse<?> response) {
+            return response.statusCode() / 100 == 2;
+        }
+    }
+
+    private static class SeededUser {
+
+        private final String username;
+        private final String token;
+        private final List<Long> cardIds = new ArrayList<>();
+
+        SeededUser(String username, String token) {
+            this.username = username;
+            this.token = token;
+        }
+    }
+
+    /**
+     * Operation weights, e.g. {@code login:5,cards:40,transfer:25,history:30}.
+     */
+    static class Mix {
+
+        private final Operation[] operations;
+        private final int[] cumulativeWeights;
+        private final String text;
+
+        Mix(String text) {
+            String[] parts = text.split(",");
+            this.operations = new Operation[parts.length];
+            this.cumulativeWeights = new int[parts.length];
+            int sum = 0;
+            for (int i = 0; i < parts.length; i++) {
+                String[] pair = parts[i].trim().split(":");
+                operations[i] = Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT));
+                sum += Integer.parseInt(pair[1].trim());
+                cumulativeWeights[i] = sum;
+            }
+            if (sum <= 0) {
+                throw new IllegalArgumentException("Mix weights must add up to more than 0: " + text);
+            }
+            this.text = text;
+        }
+
+        Operation pick(ThreadLocalRandom random) {
+            int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                if (value < cumulativeWeights[i]) {
+                    return operations[i];
+                }
+            }
+            throw new IllegalStateException();
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    /**
+     * Latencies of one client, or of all clients once merged. Kept in full so that
+     * percentiles are exact rather than bucketed.
+     */
+    private static class Recorder {
+
+        private final Map<Operation, long[]> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, Integer> counts = new EnumMap<>(Operation.class);
+        private final Map<Operation, Integer> errors = new EnumMap<>(Operation.class);
+
+        void record(Operation operation, long nanos, boolean ok) {
+            int count = counts.getOrDefault(operation, 0);
+            long[] values = latencies.computeIfAbsent(operation, o -> new long[1024]);
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+                latencies.put(operation, values);
+            }
+            values[count] = nanos;
+            counts.put(operation, count + 1);
+            if (!ok) {
+                errors.merge(operation, 1, Integer::sum);
+            }
+        }
+
+        void addAll(Recorder other) {
+            for (Operation operation : other.counts.keySet()) {
+                long[] values = other.latencies.get(operation);
+                for (int i = 0; i < other.counts.get(operation); i++) {
+                    record(operation, values[i], true);
+                }
+                errors.merge(operation, other.errors.getOrDefault(operation, 0), Integer::sum);
+            }
+        }
+
+        long[] sorted(Operation operation) {
+            long[] values = Arrays.copyOf(latencies.getOrDefault(operation, new long[0]), counts.getOrDefault(operation, 0));
+            Arrays.sort(values);
+            return values;
+        }
+    }
+
+    private static class Report {
+
+        private final Recorder recorder;
+        private final long elapsedNanos;
+
+        Report(Recorder recorder, long elapsedNanos) {
+            this.recorder = recorder;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        void print() {
+            System.out.println();
+            System.out.printf("%-10s %9s %7s %9s %9s %9s %9s %9s%n",
+                    "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+            long totalRequests = 0;
+            for (Operation operation : Operation.values()) {
+                long[] values = recorder.sorted(operation);
+                if (values.length == 0) {
+                    continue;
+                }
+                totalRequests += values.length;
+                System.out.printf("%-10s %9d %7d %9.0f %9.2f %9.2f %9.2f %9.2f%n",
+                        operation.name().toLowerCase(Locale.ROOT), values.length,
+                        recorder.errors.getOrDefault(operation, 0), values.length / seconds(),
+                        millis(percentile(values, 0.50)), millis(percentile(values, 0.99)),
+                        millis(percentile(values, 0.999)), millis(values[values.length - 1]));
+            }
+            System.out.printf("%-10s %9d %7s %9.0f%n", "total", totalRequests, "", totalRequests / seconds());
+        }
+
+        Map<String, Object> toJson(Options options) {
+            Map<String, Object> operations = new LinkedHashMap<>();
+            for (Operation operation : Operation.values()) {
+                long[] values = recorder.sorted(operation);
+                if (values.length == 0) {
+                    continue;
+                }
+                Map<String, Object> stats = new LinkedHashMap<>();
+                stats.put("requests", values.length);
+                stats.put("errors", recorder.errors.getOrDefault(operation, 0));
+                stats.put("throughput", values.length / seconds());
+                stats.put("p50Ms", millis(percentile(values, 0.50)));
+                stats.put("p99Ms", millis(percentile(values, 0.99)));
+                stats.put("p999Ms", millis(percentile(values, 0.999)));
+                stats.put("maxMs", millis(values[values.length - 1]));
+                operations.put(operation.name().toLowerCase(Locale.ROOT), stats);
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("finishedAt", Instant.now().toString());
+            result.put("users", options.users);
+            result.put("cardsPerUser", options.cardsPerUser);
+            result.put("clients", options.clients);
+            result.put("durationSeconds", seconds());
+            result.put("mix", options.mix.toString());
+            result.put("applicationArgs", options.appArgs);
+            result.put("operations", operations);
+            return result;
+        }
+
+        private double seconds() {
+            return elapsedNanos / 1e9;
+        }
+
+        private static long percentile(long[] sorted, double quantile) {
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1e6;
+        }
+    }
+
+    static class Options {
+
+        int users = 20;
+        int cardsPerUser = 3;
+        int clients = 32;
+        int warmupSeconds = 10;
+        int durationSeconds = 30;
+        Mix mix = new Mix("login:5,cards:40,transfer:25,history:30");
+        String out = "target/loadtest-result.json";
+        final Map<String, String> appArgs = new LinkedHashMap<>();
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    throw new IllegalArgumentException("Expected --key=value, got " + arg);
+                }
+                String key = arg.substring(2, arg.indexOf('='));
+                String value = arg.substring(arg.indexOf('=') + 1);
+                switch (key) {
+                    case "users" -> options.users = Integer.parseInt(value);
+                    case "cards-per-user" -> options.cardsPerUser = Integer.parseInt(value);
+                    case "clients" -> options.clients = Integer.parseInt(value);
+                    case "warmup" -> options.warmupSeconds = Integer.parseInt(value);
+                    case "duration" -> options.durationSeconds = Integer.parseInt(value);
+                    case "mix" -> options.mix = new Mix(value);
+                    case "out" -> options.out = value;
+                    default -> options.appArgs.put(key, value);
+                }
+            }
+            if (options.cardsPerUser < 2) {
+                throw new IllegalArgumentException("Transfers need at least 2 cards per user");
+            }
+            return options;
+        }
+    }
+}
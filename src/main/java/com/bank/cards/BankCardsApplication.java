@@ -2,12 +2,21 @@ package com.bank.cards;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class BankCardsApplication {
 
+    // Enough for every bean of the context; later steps are dropped
+    private static final int STARTUP_STEPS = 8192;
+
     public static void main(String[] args) {
-        SpringApplication.run(BankCardsApplication.class, args);
+        SpringApplication application = new SpringApplication(BankCardsApplication.class);
+        // Keeps the startup timeline for /actuator/startup and StartupTimelineReport
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+        application.run(args);
     }
 
 }
\ No newline at end of file
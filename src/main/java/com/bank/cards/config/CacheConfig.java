@@ -0,0 +1,25 @@
+package com.bank.cards.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    
+    // CardDto lists per user id, evicted by every card or balance change of that user
+    public static final String USER_CARDS = "userCards";
+    
+    @Bean
+    public CacheManager cacheManager(@Value("${cache.user-cards.spec:maximumSize=10000,expireAfterWrite=60s,recordStats}") String userCardsSpec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(USER_CARDS);
+        cacheManager.setCacheSpecification(userCardsSpec);
+        // Evictions run after commit, so a concurrent read cannot re-cache the old state
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,55 @@
+package com.bank.cards.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.MethodMetadata;
+
+import java.util.List;
+
+/**
+ * Creates beans that no request path needs at startup, such as the OpenAPI document and
+ * Swagger UI, on first use instead of during context refresh. Enabled by the
+ * {@code fast-startup} profile through {@code fast-startup.enabled}; which beans are
+ * deferred is set by {@code fast-startup.lazy-bean-prefixes}, matched against the bean class
+ * or, for {@code @Bean} methods, the declaring configuration class.
+ */
+@Configuration
+@ConditionalOnProperty(name = "fast-startup.enabled", havingValue = "true")
+public class FastStartupConfig {
+    
+    private static final Logger log = LoggerFactory.getLogger(FastStartupConfig.class);
+    
+    @Bean
+    public static BeanFactoryPostProcessor lazyBeansPostProcessor(Environment environment) {
+        List<String> prefixes = List.of(environment.getProperty("fast-startup.lazy-bean-prefixes", String[].class, new String[0]));
+        return beanFactory -> {
+            int deferred = 0;
+            for (String beanName : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+                String className = declaringClassName(definition);
+                if (className != null && prefixes.stream().anyMatch(className::startsWith)) {
+                    definition.setLazyInit(true);
+                    deferred++;
+                }
+            }
+            log.info("Deferred {} beans matching {} to first use", deferred, prefixes);
+        };
+    }
+    
+    static String declaringClassName(BeanDefinition definition) {
+        if (definition instanceof AnnotatedBeanDefinition annotated) {
+            MethodMetadata factoryMethod = annotated.getFactoryMethodMetadata();
+            if (factoryMethod != null) {
+                return factoryMethod.getDeclaringClassName();
+            }
+        }
+        return definition.getBeanClassName();
+    }
+}
@@ -0,0 +1,351 @@
+package com.bank.cards.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzips response bodies of the configured media types once they reach a minimum size.
+ * <p>
+ * The first {@code min-response-bytes} of a body are buffered; a body that ends below the
+ * threshold, e.g. a single card, is sent as is, and a larger one, e.g. a page of transactions,
+ * is compressed from there on without buffering the rest. Compressed responses carry a weak
+ * ETag, since the bytes differ from the identity representation; Spring compares ETags weakly
+ * on GET, so conditional requests still get 304. Streamed exports and other async responses
+ * are passed through, and non-blocking writes go to the container's stream with their write
+ * listener. Bytes saved are counted in {@code http.server.compression.bytes.saved}.
+ */
+@Component
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+    
+    private static final String GZIP = "gzip";
+    
+    private final boolean enabled;
+    private final int minResponseBytes;
+    private final int level;
+    private final List<MediaType> mediaTypes;
+    private final Counter compressedResponses;
+    private final Counter bytesSaved;
+    
+    @Autowired
+    public ResponseCompressionFilter(MeterRegistry meterRegistry,
+                                     @Value("${compression.enabled:true}") boolean enabled,
+                                     @Value("${compression.min-response-bytes:1024}") int minResponseBytes,
+                                     @Value("${compression.level:5}") int level,
+                                     @Value("${compression.mime-types:application/json}") List<String> mimeTypes) {
+        this.enabled = enabled;
+        this.minResponseBytes = minResponseBytes;
+        this.level = level;
+        this.mediaTypes = mimeTypes.stream().map(MediaType::parseMediaType).toList();
+        this.compressedResponses = Counter.builder("http.server.compression.responses")
+                .description("Responses sent gzip-compressed")
+                .register(meterRegistry);
+        this.bytesSaved = Counter.builder("http.server.compression.bytes.saved")
+                .description("Body bytes not sent thanks to compression")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        CompressingResponse compressingResponse = new CompressingResponse(request, response);
+        filterChain.doFilter(request, compressingResponse);
+        compressingResponse.finish();
+    }
+    
+    static boolean acceptsGzip(HttpServletRequest request) {
+        for (String value : Collections.list(request.getHeaders(HttpHeaders.ACCEPT_ENCODING))) {
+            for (String coding : value.split(",")) {
+                String[] parts = coding.trim().split(";");
+                if (parts[0].trim().equalsIgnoreCase(GZIP) && !(parts.length > 1 && parts[1].trim().matches("q=0(\\.0*)?"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    private final class CompressingResponse extends HttpServletResponseWrapper {
+    
+        private final HttpServletRequest request;
+        // Holds the start of the body until the compression decision; null afterwards
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private OutputStream target;
+        private GZIPOutputStream gzip;
+        private CountingOutputStream compressed;
+        private long uncompressed;
+        private Long contentLength;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+        // The container's stream once a write listener is registered
+        private ServletOutputStream nonBlocking;
+    
+        CompressingResponse(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+    
+        // Only known to be right if the body is sent as is, so it is held back until then
+        @Override
+        public void setContentLength(int length) {
+            setContentLengthLong(length);
+        }
+    
+        @Override
+        public void setContentLengthLong(long length) {
+            if (buffer != null) {
+                contentLength = length;
+            } else if (gzip == null) {
+                super.setContentLengthLong(length);
+            }
+        }
+    
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+    
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+    
+        @Override
+        public void setIntHeader(String name, int value) {
+            setHeader(name, String.valueOf(value));
+        }
+    
+        @Override
+        public void addIntHeader(String name, int value) {
+            addHeader(name, String.valueOf(value));
+        }
+    
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called");
+            }
+            if (outputStream == null) {
+                outputStream = new BodyOutputStream();
+            }
+            return outputStream;
+        }
+    
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (outputStream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called");
+                }
+                outputStream = new BodyOutputStream();
+                writer = new PrintWriter(new OutputStreamWriter(outputStream, getCharacterEncoding()));
+            }
+            return writer;
+        }
+    
+        // While undecided a flush would commit the headers too early, so it only takes effect afterwards
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (buffer == null) {
+                target.flush();
+                super.flushBuffer();
+            }
+        }
+    
+        @Override
+        public void resetBuffer() {
+            if (buffer != null) {
+                buffer.reset();
+            }
+            super.resetBuffer();
+        }
+    
+        @Override
+        public void reset() {
+            if (buffer != null) {
+                buffer.reset();
+                contentLength = null;
+            }
+            super.reset();
+        }
+    
+        private void write(byte[] bytes, int offset, int length) throws IOException {
+            if (buffer == null) {
+                target.write(bytes, offset, length);
+                uncompressed += length;
+                return;
+            }
+            buffer.write(bytes, offset, length);
+            if (buffer.size() >= minResponseBytes) {
+                start(true);
+            }
+        }
+    
+        private void start(boolean largeEnough) throws IOException {
+            ByteArrayOutputStream buffered = buffer;
+            buffer = null;
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            boolean compressible = isCompressible(response);
+            if (compressible) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+    
+            if (compressible && largeEnough && acceptsGzip(request)) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+                String etag = response.getHeader(HttpHeaders.ETAG);
+                if (etag != null && !etag.startsWith("W/")) {
+                    response.setHeader(HttpHeaders.ETAG, "W/" + etag);
+                }
+                compressed = new CountingOutputStream(response.getOutputStream());
+                gzip = new GZIPOutputStream(compressed, 8192) {
+                    {
+                        def.setLevel(level);
+                    }
+                };
+                target = gzip;
+            } else {
+                if (contentLength != null) {
+                    response.setContentLengthLong(contentLength);
+                }
+                target = response.getOutputStream();
+            }
+            uncompressed = buffered.size();
+            buffered.writeTo(target);
+        }
+    
+        private boolean isCompressible(HttpServletResponse response) {
+            int status = response.getStatus();
+            if (status < 200 || status == HttpStatus.NO_CONTENT.value() || status == HttpStatus.NOT_MODIFIED.value()
+                    || response.getHeader(HttpHeaders.CONTENT_ENCODING) != null
+                    || request.isAsyncStarted() || response.getContentType() == null) {
+                return false;
+            }
+            MediaType contentType = MediaType.parseMediaType(response.getContentType());
+            return mediaTypes.stream().anyMatch(mediaType -> mediaType.includes(contentType));
+        }
+    
+        // Non-blocking writes need async mode, whose bodies are sent as is, so the listener can write straight through
+        private void setWriteListener(WriteListener writeListener) throws IOException {
+            if (buffer != null) {
+                start(false);
+            }
+            if (gzip != null) {
+                throw new IllegalStateException("A write listener cannot be set after compression has started");
+            }
+            nonBlocking = (ServletOutputStream) target;
+            nonBlocking.setWriteListener(writeListener);
+        }
+    
+        // An async response keeps writing after the filter returns; deciding now passes its body through
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (buffer != null) {
+                start(false);
+            }
+            if (gzip != null) {
+                gzip.finish();
+                compressedResponses.increment();
+                bytesSaved.increment(uncompressed - compressed.count);
+            }
+        }
+    
+        private final class BodyOutputStream extends ServletOutputStream {
+    
+            @Override
+            public void write(int b) throws IOException {
+                CompressingResponse.this.write(new byte[]{(byte) b}, 0, 1);
+            }
+    
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                CompressingResponse.this.write(bytes, offset, length);
+            }
+    
+            @Override
+            public void flush() throws IOException {
+                if (buffer == null) {
+                    target.flush();
+                }
+            }
+    
+            @Override
+            public boolean isReady() {
+                return nonBlocking == null || nonBlocking.isReady();
+            }
+    
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                try {
+                    CompressingResponse.this.setWriteListener(writeListener);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+    
+    private static final class CountingOutputStream extends FilterOutputStream {
+    
+        private long count;
+    
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+    
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+    
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            count += length;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.bank.cards.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Times every CardService and TransactionService call as {@code bank.service.calls}, tagged
+ * with the service, the method and an outcome derived from the failure message.
+ */
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+    
+    static final String METRIC = "bank.service.calls";
+    
+    // Business failures are plain RuntimeExceptions; map their fixed messages to bounded tags
+    private static final Map<String, String> OUTCOMES = Map.ofEntries(
+            Map.entry("Insufficient balance", "insufficient_balance"),
+            Map.entry("From card is not active", "card_not_active"),
+            Map.entry("To card is not active", "card_not_active"),
+            Map.entry("Card not found", "card_not_found"),
+            Map.entry("From card not found", "card_not_found"),
+            Map.entry("To card not found", "card_not_found"),
+            Map.entry("Transfer amount must be positive", "invalid_amount"),
+            Map.entry("Card number already exists", "duplicate_card_number"),
+            Map.entry("Invalid cursor", "invalid_request")
+    );
+    
+    private final MeterRegistry meterRegistry;
+    
+    @Autowired
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Around("execution(public * com.bank.cards.service.CardService+.*(..)) || "
+            + "execution(public * com.bank.cards.service.TransactionService+.*(..))")
+    public Object timeServiceCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = outcome(e);
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(METRIC)
+                    .tag("service", joinPoint.getTarget().getClass().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+    
+    static String outcome(Throwable e) {
+        if (e instanceof ConcurrencyFailureException) {
+            return "conflict";
+        }
+        String mapped = e.getMessage() != null ? OUTCOMES.get(e.getMessage()) : null;
+        return mapped != null ? mapped : "error";
+    }
+}
@@ -0,0 +1,68 @@
+package com.bank.cards.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Logs the slowest steps of the startup timeline once the application is ready, e.g. which
+ * beans took longest to create. Only {@link BufferingApplicationStartup} records a timeline,
+ * as set up in {@code BankCardsApplication.main}; the full timeline is served by
+ * {@code /actuator/startup} where that endpoint is exposed.
+ */
+@Component
+public class StartupTimelineReport {
+    
+    private static final Logger log = LoggerFactory.getLogger(StartupTimelineReport.class);
+    
+    private final int reportSteps;
+    
+    @Autowired
+    public StartupTimelineReport(@Value("${startup-timeline.report-steps:0}") int reportSteps) {
+        this.reportSteps = reportSteps;
+    }
+    
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        ApplicationStartup applicationStartup = event.getApplicationContext().getApplicationStartup();
+        if (reportSteps <= 0 || !(applicationStartup instanceof BufferingApplicationStartup buffering)) {
+            return;
+        }
+        log.info("Ready in {} ms; slowest startup steps:\n{}", event.getTimeTaken().toMillis(),
+                format(slowest(buffering.getBufferedTimeline(), reportSteps)));
+    }
+    
+    // Steps nest, so a bean's time includes the beans it created; sorted by that inclusive time
+    static List<StartupTimeline.TimelineEvent> slowest(StartupTimeline timeline, int limit) {
+        return timeline.getEvents().stream()
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(limit)
+                .toList();
+    }
+    
+    private static String format(List<StartupTimeline.TimelineEvent> events) {
+        return events.stream()
+                .map(event -> String.format("%8d ms  %s %s", event.getDuration().toMillis(),
+                        event.getStartupStep().getName(), tags(event.getStartupStep())))
+                .collect(Collectors.joining("\n"));
+    }
+    
+    private static String tags(StartupStep step) {
+        return StreamSupport.stream(step.getTags().spliterator(), false)
+                .map(tag -> tag.getKey() + "=" + tag.getValue())
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+}
@@ -6,10 +6,13 @@ import com.bank.cards.dto.UserRegistrationDto;
 import com.bank.cards.entity.User;
 import com.bank.cards.repository.UserRepository;
 import com.bank.cards.security.JwtUtil;
+import com.bank.cards.security.PasswordHashingExecutor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -17,6 +20,10 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
 @RestController
 @RequestMapping("/auth")
 @Tag(name = "Authentication", description = "Authentication and user registration endpoints")
@@ -26,34 +33,54 @@ public class AuthController {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final PasswordHashingExecutor passwordHashingExecutor;
     
     @Autowired
     public AuthController(AuthenticationManager authenticationManager,
                          UserRepository userRepository,
                          PasswordEncoder passwordEncoder,
-                         JwtUtil jwtUtil) {
+                         JwtUtil jwtUtil,
+                         PasswordHashingExecutor passwordHashingExecutor) {
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
+        this.passwordHashingExecutor = passwordHashingExecutor;
     }
     
     @PostMapping("/login")
     @Operation(summary = "User login", description = "Authenticate user and return JWT token")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody AuthRequest request) {
-        Authentication authentication = authenticationManager
-                .authenticate(new UsernamePasswordAuthenticationToken(
-                        request.getUsername(), request.getPassword()));
-        
-        User user = (User) authentication.getPrincipal();
-        String token = jwtUtil.generateToken(user.getUsername());
-        
-        return ResponseEntity.ok(new AuthResponse(token, user.getUsername(), user.getFullName()));
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@Valid @RequestBody AuthRequest request) {
+        return offload(() -> {
+            Authentication authentication = authenticationManager
+                    .authenticate(new UsernamePasswordAuthenticationToken(
+                            request.getUsername(), request.getPassword()));
+            
+            User user = (User) authentication.getPrincipal();
+            String token = jwtUtil.generateToken(user.getUsername());
+            
+            return ResponseEntity.ok(new AuthResponse(token, user.getUsername(), user.getFullName()));
+        });
     }
     
     @PostMapping("/register")
     @Operation(summary = "User registration", description = "Register a new user")
-    public ResponseEntity<AuthResponse> register(@Valid @RequestBody UserRegistrationDto registrationDto) {
+    public CompletableFuture<ResponseEntity<AuthResponse>> register(@Valid @RequestBody UserRegistrationDto registrationDto) {
+        return offload(() -> registerUser(registrationDto));
+    }
+    
+    // Hashing runs on its own bounded pool; the request thread is released until it is done
+    private CompletableFuture<ResponseEntity<AuthResponse>> offload(Supplier<ResponseEntity<AuthResponse>> action) {
+        try {
+            return passwordHashingExecutor.submit(action);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build());
+        }
+    }
+    
+    private ResponseEntity<AuthResponse> registerUser(UserRegistrationDto registrationDto) {
         if (userRepository.existsByUsername(registrationDto.getUsername())) {
             throw new RuntimeException("Username already exists");
         }
@@ -1,18 +1,24 @@
 package com.bank.cards.controller;
 
 import com.bank.cards.dto.CardDto;
+import com.bank.cards.dto.CardStatsDto;
 import com.bank.cards.entity.Card;
 import com.bank.cards.entity.User;
 import com.bank.cards.service.CardService;
+import com.bank.cards.service.CardStatsService;
+import com.bank.cards.service.impl.TransferRetryExecutor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -21,10 +27,17 @@ import java.util.List;
 public class CardController {
     
     private final CardService cardService;
+    private final CardStatsService cardStatsService;
+    private final UserDataETags userDataETags;
+    private final TransferRetryExecutor transferRetryExecutor;
     
     @Autowired
-    public CardController(CardService cardService) {
+    public CardController(CardService cardService, CardStatsService cardStatsService, UserDataETags userDataETags,
+                          TransferRetryExecutor transferRetryExecutor) {
         this.cardService = cardService;
+        this.cardStatsService = cardStatsService;
+        this.userDataETags = userDataETags;
+        this.transferRetryExecutor = transferRetryExecutor;
     }
     
     @PostMapping
@@ -37,7 +50,11 @@ public class CardController {
     
     @GetMapping
     @Operation(summary = "Get user cards", description = "Get all cards for the authenticated user")
-    public ResponseEntity<List<CardDto>> getUserCards(@AuthenticationPrincipal User user) {
+    public ResponseEntity<List<CardDto>> getUserCards(@AuthenticationPrincipal User user,
+                                                      ServletWebRequest webRequest) {
+        if (userDataETags.checkNotModified(user, webRequest)) {
+            return null;
+        }
         List<CardDto> cards = cardService.getUserCards(user);
         return ResponseEntity.ok(cards);
     }
@@ -45,17 +62,42 @@ public class CardController {
     @GetMapping("/{cardId}")
     @Operation(summary = "Get card by ID", description = "Get a specific card by its ID")
     public ResponseEntity<CardDto> getCardById(@PathVariable Long cardId,
-                                              @AuthenticationPrincipal User user) {
+                                              @AuthenticationPrincipal User user,
+                                              ServletWebRequest webRequest) {
+        if (userDataETags.checkNotModified(user, webRequest)) {
+            return null;
+        }
         CardDto card = cardService.getCardById(cardId, user);
         return ResponseEntity.ok(card);
     }
     
+    @GetMapping("/{cardId}/stats")
+    @Operation(summary = "Get card statistics", description = "Get income and outcome totals and daily balances of a card; defaults to the last 30 days")
+    public ResponseEntity<CardStatsDto> getCardStats(@PathVariable Long cardId,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                     @AuthenticationPrincipal User user) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        return ResponseEntity.ok(cardStatsService.getCardStats(cardId, user, start, end));
+    }
+    
     @PutMapping("/{cardId}/status")
     @Operation(summary = "Update card status", description = "Update the status of a card (ACTIVE, BLOCKED, EXPIRED)")
     public ResponseEntity<CardDto> updateCardStatus(@PathVariable Long cardId,
                                                    @RequestParam Card.CardStatus status,
                                                    @AuthenticationPrincipal User user) {
-        CardDto updatedCard = cardService.updateCardStatus(cardId, status, user);
+        CardDto updatedCard = transferRetryExecutor.execute(() -> cardService.updateCardStatus(cardId, status, user));
+        return ResponseEntity.ok(updatedCard);
+    }
+    
+    @PutMapping("/{cardId}/balance-shards")
+    @Operation(summary = "Set balance shards", description = "Spread the balance of a card that receives many concurrent " +
+            "transfers over this many shard rows; 0 keeps it on the card. The reported balance is unchanged")
+    public ResponseEntity<CardDto> updateBalanceShards(@PathVariable Long cardId,
+                                                      @RequestParam int shards,
+                                                      @AuthenticationPrincipal User user) {
+        CardDto updatedCard = transferRetryExecutor.execute(() -> cardService.updateBalanceShards(cardId, shards, user));
         return ResponseEntity.ok(updatedCard);
     }
     
@@ -63,7 +105,7 @@ public class CardController {
     @Operation(summary = "Delete card", description = "Delete a card")
     public ResponseEntity<Void> deleteCard(@PathVariable Long cardId,
                                           @AuthenticationPrincipal User user) {
-        cardService.deleteCard(cardId, user);
+        transferRetryExecutor.execute(() -> cardService.deleteCard(cardId, user));
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
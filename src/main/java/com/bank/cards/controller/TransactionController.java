@@ -1,59 +1,173 @@
 package com.bank.cards.controller;
 
+import com.bank.cards.dto.BatchTransferResult;
+import com.bank.cards.dto.CursorPage;
+import com.bank.cards.dto.TransactionView;
 import com.bank.cards.dto.TransferRequest;
-import com.bank.cards.entity.Transaction;
 import com.bank.cards.entity.User;
+import com.bank.cards.service.TransactionExportService;
 import com.bank.cards.service.TransactionService;
+import com.bank.cards.service.idempotency.IdempotencyStore;
+import com.bank.cards.service.impl.TransferRetryExecutor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.concurrent.Callable;
 
 @RestController
 @RequestMapping("/transactions")
 @Tag(name = "Transactions", description = "Transaction management endpoints")
 public class TransactionController {
     
+    private static final String EXPORT_TIMEOUT = TransactionController.class.getName() + ".EXPORT_TIMEOUT";
+    
     private final TransactionService transactionService;
+    private final TransactionExportService transactionExportService;
+    private final TransferRetryExecutor transferRetryExecutor;
+    private final IdempotencyStore idempotencyStore;
+    private final UserDataETags userDataETags;
+    private final long exportTimeoutMs;
     
     @Autowired
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService,
+                                 TransactionExportService transactionExportService,
+                                 TransferRetryExecutor transferRetryExecutor,
+                                 IdempotencyStore idempotencyStore,
+                                 UserDataETags userDataETags,
+                                 @Value("${transactions.export.timeout-ms:1800000}") long exportTimeoutMs) {
         this.transactionService = transactionService;
+        this.transactionExportService = transactionExportService;
+        this.transferRetryExecutor = transferRetryExecutor;
+        this.idempotencyStore = idempotencyStore;
+        this.userDataETags = userDataETags;
+        this.exportTimeoutMs = exportTimeoutMs;
     }
     
     @PostMapping("/transfer")
-    @Operation(summary = "Transfer between own cards", description = "Transfer money between user's own cards")
-    public ResponseEntity<Transaction> transferBetweenOwnCards(@Valid @RequestBody TransferRequest transferRequest,
-                                                              @AuthenticationPrincipal User user) {
-        Transaction transaction = transactionService.transferBetweenOwnCards(transferRequest, user);
-        return ResponseEntity.status(HttpStatus.CREATED).body(transaction);
+    @Operation(summary = "Transfer between own cards", description = "Transfer money between user's own cards. " +
+            "A repeat with the same Idempotency-Key returns the first response without transferring again")
+    public ResponseEntity<?> transferBetweenOwnCards(@Valid @RequestBody TransferRequest transferRequest,
+                                                     @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                                     @AuthenticationPrincipal User user) {
+        if (idempotencyKey == null) {
+            TransactionView transaction = transferRetryExecutor.execute(
+                    () -> TransactionView.of(transactionService.transferBetweenOwnCards(transferRequest, user)));
+            return ResponseEntity.status(HttpStatus.CREATED).body(transaction);
+        }
+        
+        // The stored body is kept for the key's lifetime, so it is the masked view, not the entity
+        IdempotencyStore.StoredResponse response = transferRetryExecutor.execute(
+                () -> idempotencyStore.execute(user.getId(), idempotencyKey, transferRequest, HttpStatus.CREATED,
+                        () -> TransactionView.of(transactionService.transferBetweenOwnCards(transferRequest, user))));
+        return ResponseEntity.status(response.getStatus())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotent-Replayed", String.valueOf(response.isReplayed()))
+                .body(response.getBody());
+    }
+    
+    @PostMapping("/transfer/batch")
+    @Operation(summary = "Batch transfer between own cards", description = "Apply transfers in order in one database transaction and return a result for each item")
+    public ResponseEntity<List<BatchTransferResult>> transferBatch(@RequestBody List<TransferRequest> transferRequests,
+                                                                   @AuthenticationPrincipal User user) {
+        List<BatchTransferResult> results = transferRetryExecutor.execute(
+                () -> transactionService.transferBatch(transferRequests, user));
+        return ResponseEntity.ok(results);
     }
     
     @GetMapping
     @Operation(summary = "Get user transactions", description = "Get all transactions for the authenticated user")
-    public ResponseEntity<Page<Transaction>> getUserTransactions(@RequestParam(defaultValue = "0") int page,
+    public ResponseEntity<Page<TransactionView>> getUserTransactions(@RequestParam(defaultValue = "0") int page,
                                                                 @RequestParam(defaultValue = "20") int size,
-                                                                @AuthenticationPrincipal User user) {
+                                                                @AuthenticationPrincipal User user,
+                                                                ServletWebRequest webRequest) {
+        if (userDataETags.checkNotModified(user, webRequest)) {
+            return null;
+        }
         Pageable pageable = PageRequest.of(page, size);
-        Page<Transaction> transactions = transactionService.getUserTransactions(user, pageable);
+        Page<TransactionView> transactions = transactionService.getUserTransactions(user, pageable);
         return ResponseEntity.ok(transactions);
     }
     
     @GetMapping("/card/{cardId}")
     @Operation(summary = "Get card transactions", description = "Get all transactions for a specific card")
-    public ResponseEntity<Page<Transaction>> getCardTransactions(@PathVariable Long cardId,
+    public ResponseEntity<Page<TransactionView>> getCardTransactions(@PathVariable Long cardId,
                                                                 @RequestParam(defaultValue = "0") int page,
                                                                 @RequestParam(defaultValue = "20") int size,
-                                                                @AuthenticationPrincipal User user) {
+                                                                @AuthenticationPrincipal User user,
+                                                                ServletWebRequest webRequest) {
+        if (userDataETags.checkNotModified(user, webRequest)) {
+            return null;
+        }
         Pageable pageable = PageRequest.of(page, size);
-        Page<Transaction> transactions = transactionService.getCardTransactions(cardId, user, pageable);
+        Page<TransactionView> transactions = transactionService.getCardTransactions(cardId, user, pageable);
         return ResponseEntity.ok(transactions);
     }
+    
+    @GetMapping("/scroll")
+    @Operation(summary = "Scroll user transactions", description = "Get the authenticated user's transactions newest first, one page per cursor")
+    public ResponseEntity<CursorPage<TransactionView>> scrollUserTransactions(@RequestParam(required = false) String cursor,
+                                                                         @RequestParam(defaultValue = "20") int size,
+                                                                         @AuthenticationPrincipal User user,
+                                                                         ServletWebRequest webRequest) {
+        if (userDataETags.checkNotModified(user, webRequest)) {
+            return null;
+        }
+        return ResponseEntity.ok(transactionService.scrollUserTransactions(user, cursor, size));
+    }
+    
+    @GetMapping("/card/{cardId}/scroll")
+    @Operation(summary = "Scroll card transactions", description = "Get a card's transactions newest first, one page per cursor")
+    public ResponseEntity<CursorPage<TransactionView>> scrollCardTransactions(@PathVariable Long cardId,
+                                                                         @RequestParam(required = false) String cursor,
+                                                                         @RequestParam(defaultValue = "20") int size,
+                                                                         @AuthenticationPrincipal User user,
+                                                                         ServletWebRequest webRequest) {
+        if (userDataETags.checkNotModified(user, webRequest)) {
+            return null;
+        }
+        return ResponseEntity.ok(transactionService.scrollCardTransactions(cardId, user, cursor, size));
+    }
+    
+    @GetMapping("/card/{cardId}/export")
+    @Operation(summary = "Export card transactions", description = "Stream the full history of a card as NDJSON or CSV, oldest first")
+    public ResponseEntity<StreamingResponseBody> exportCardTransactions(@PathVariable Long cardId,
+                                                                        @RequestParam(defaultValue = "ndjson") String format,
+                                                                        @AuthenticationPrincipal User user,
+                                                                        HttpServletRequest request) {
+        // A long history streams for minutes; other async requests keep the default timeout
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(EXPORT_TIMEOUT,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void beforeConcurrentHandling(NativeWebRequest asyncRequest, Callable<T> task) {
+                        ((AsyncWebRequest) asyncRequest).setTimeout(exportTimeoutMs);
+                    }
+                });
+        TransactionExportService.ExportFormat exportFormat = TransactionExportService.ExportFormat.fromParameter(format);
+        StreamingResponseBody body = transactionExportService.exportCardTransactions(cardId, user, exportFormat);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"card-" + cardId + "-transactions." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
 }
\ No newline at end of file
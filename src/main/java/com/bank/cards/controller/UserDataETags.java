@@ -0,0 +1,71 @@
+package com.bank.cards.controller;
+
+import com.bank.cards.entity.User;
+import com.bank.cards.repository.UserDataVersionRepository;
+import com.bank.cards.service.ledger.CardLedger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Conditional GETs for the card and transaction listings the UI polls. The ETag is a hash of
+ * the user's {@link UserDataVersionRepository data version}, so it is computed with one
+ * aggregate query and an unchanged listing is answered with 304 before anything is loaded
+ * or serialized. Responses are marked {@code private, no-cache}: browsers keep them and
+ * revalidate on every fetch instead of downloading the same JSON again.
+ * <p>
+ * With the write-behind ledger, balances change in memory before the database does, so the
+ * ledger's transfer count is part of the version too; any transfer then changes every ETag.
+ */
+@Component
+public class UserDataETags {
+    
+    private final UserDataVersionRepository versionRepository;
+    private final Counter notModified;
+    private final Counter modified;
+    private CardLedger cardLedger;
+    
+    @Autowired
+    public UserDataETags(UserDataVersionRepository versionRepository, MeterRegistry meterRegistry) {
+        this.versionRepository = versionRepository;
+        this.notModified = counter(meterRegistry, "not_modified");
+        this.modified = counter(meterRegistry, "modified");
+    }
+    
+    @Autowired(required = false)
+    public void setCardLedger(CardLedger cardLedger) {
+        this.cardLedger = cardLedger;
+    }
+    
+    // Computed before the data is read, so a concurrent change can only make the ETag older than the body
+    public boolean checkNotModified(User user, ServletWebRequest request) {
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        if (request.checkNotModified(etag(user))) {
+            notModified.increment();
+            return true;
+        }
+        modified.increment();
+        return false;
+    }
+    
+    public String etag(User user) {
+        String version = user.getId() + ":" + versionRepository.findVersion(user.getId());
+        if (cardLedger != null) {
+            version += ":" + cardLedger.appliedTransferCount();
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(version.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+    
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("http.server.requests.conditional")
+                .description("ETag-checked GETs of card and transaction listings; not_modified over all is the 304 hit rate")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
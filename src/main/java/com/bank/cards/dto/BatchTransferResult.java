@@ -0,0 +1,89 @@
+package com.bank.cards.dto;
+
+import java.math.BigDecimal;
+
+public class BatchTransferResult {
+    
+    private int index;
+    private Status status;
+    private Long fromCardId;
+    private Long toCardId;
+    private BigDecimal amount;
+    private String message;
+    
+    // Constructors
+    public BatchTransferResult() {}
+    
+    public BatchTransferResult(int index, Status status, TransferRequest request, String message) {
+        this.index = index;
+        this.status = status;
+        // A null item in the request body is reported by its index alone
+        if (request != null) {
+            this.fromCardId = request.getFromCardId();
+            this.toCardId = request.getToCardId();
+            this.amount = request.getAmount();
+        }
+        this.message = message;
+    }
+    
+    public static BatchTransferResult success(int index, TransferRequest request) {
+        return new BatchTransferResult(index, Status.SUCCESS, request, null);
+    }
+    
+    public static BatchTransferResult failed(int index, TransferRequest request, String message) {
+        return new BatchTransferResult(index, Status.FAILED, request, message);
+    }
+    
+    // Getters and setters
+    public int getIndex() {
+        return index;
+    }
+    
+    public void setIndex(int index) {
+        this.index = index;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+    
+    public Long getFromCardId() {
+        return fromCardId;
+    }
+    
+    public void setFromCardId(Long fromCardId) {
+        this.fromCardId = fromCardId;
+    }
+    
+    public Long getToCardId() {
+        return toCardId;
+    }
+    
+    public void setToCardId(Long toCardId) {
+        this.toCardId = toCardId;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+    
+    public enum Status {
+        SUCCESS, FAILED
+    }
+}
@@ -10,7 +10,7 @@ public class CardDto {
     
     private Long id;
     
-    @NotNull(message = "Card number is required")
+    // Optional on create: a Luhn-valid number is allocated when omitted
     @Pattern(regexp = "\\d{16}", message = "Card number must be 16 digits")
     private String cardNumber;
     
@@ -0,0 +1,113 @@
+package com.bank.cards.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Income and outcome totals of a card over a date range, with one entry per day for charts.
+ */
+public class CardStatsDto {
+    
+    private Long cardId;
+    private LocalDate from;
+    private LocalDate to;
+    private BigDecimal openingBalance;
+    private BigDecimal closingBalance;
+    private BigDecimal totalDebits;
+    private BigDecimal totalCredits;
+    private int transactionCount;
+    private List<DailyCardStatsDto> days;
+    
+    // Constructors
+    public CardStatsDto() {}
+    
+    public CardStatsDto(Long cardId, LocalDate from, LocalDate to, List<DailyCardStatsDto> days) {
+        this.cardId = cardId;
+        this.from = from;
+        this.to = to;
+        this.days = days;
+        this.openingBalance = days.get(0).getOpeningBalance();
+        this.closingBalance = days.get(days.size() - 1).getClosingBalance();
+        this.totalDebits = BigDecimal.ZERO;
+        this.totalCredits = BigDecimal.ZERO;
+        for (DailyCardStatsDto day : days) {
+            this.totalDebits = this.totalDebits.add(day.getDebits());
+            this.totalCredits = this.totalCredits.add(day.getCredits());
+            this.transactionCount += day.getTransactionCount();
+        }
+    }
+    
+    // Getters and setters
+    public Long getCardId() {
+        return cardId;
+    }
+    
+    public void setCardId(Long cardId) {
+        this.cardId = cardId;
+    }
+    
+    public LocalDate getFrom() {
+        return from;
+    }
+    
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+    
+    public LocalDate getTo() {
+        return to;
+    }
+    
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+    
+    public BigDecimal getOpeningBalance() {
+        return openingBalance;
+    }
+    
+    public void setOpeningBalance(BigDecimal openingBalance) {
+        this.openingBalance = openingBalance;
+    }
+    
+    public BigDecimal getClosingBalance() {
+        return closingBalance;
+    }
+    
+    public void setClosingBalance(BigDecimal closingBalance) {
+        this.closingBalance = closingBalance;
+    }
+    
+    public BigDecimal getTotalDebits() {
+        return totalDebits;
+    }
+    
+    public void setTotalDebits(BigDecimal totalDebits) {
+        this.totalDebits = totalDebits;
+    }
+    
+    public BigDecimal getTotalCredits() {
+        return totalCredits;
+    }
+    
+    public void setTotalCredits(BigDecimal totalCredits) {
+        this.totalCredits = totalCredits;
+    }
+    
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+    
+    public void setTransactionCount(int transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+    
+    public List<DailyCardStatsDto> getDays() {
+        return days;
+    }
+    
+    public void setDays(List<DailyCardStatsDto> days) {
+        this.days = days;
+    }
+}
@@ -0,0 +1,79 @@
+package com.bank.cards.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Balance and transfer totals of a card for one day of a statistics range.
+ */
+public class DailyCardStatsDto {
+    
+    private LocalDate date;
+    private BigDecimal openingBalance;
+    private BigDecimal closingBalance;
+    private BigDecimal debits;
+    private BigDecimal credits;
+    private int transactionCount;
+    
+    // Constructors
+    public DailyCardStatsDto() {}
+    
+    public DailyCardStatsDto(LocalDate date, BigDecimal openingBalance, BigDecimal debits,
+                             BigDecimal credits, int transactionCount) {
+        this.date = date;
+        this.openingBalance = openingBalance;
+        this.closingBalance = openingBalance.add(credits).subtract(debits);
+        this.debits = debits;
+        this.credits = credits;
+        this.transactionCount = transactionCount;
+    }
+    
+    // Getters and setters
+    public LocalDate getDate() {
+        return date;
+    }
+    
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+    
+    public BigDecimal getOpeningBalance() {
+        return openingBalance;
+    }
+    
+    public void setOpeningBalance(BigDecimal openingBalance) {
+        this.openingBalance = openingBalance;
+    }
+    
+    public BigDecimal getClosingBalance() {
+        return closingBalance;
+    }
+    
+    public void setClosingBalance(BigDecimal closingBalance) {
+        this.closingBalance = closingBalance;
+    }
+    
+    public BigDecimal getDebits() {
+        return debits;
+    }
+    
+    public void setDebits(BigDecimal debits) {
+        this.debits = debits;
+    }
+    
+    public BigDecimal getCredits() {
+        return credits;
+    }
+    
+    public void setCredits(BigDecimal credits) {
+        this.credits = credits;
+    }
+    
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+    
+    public void setTransactionCount(int transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+}
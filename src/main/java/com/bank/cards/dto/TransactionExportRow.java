@@ -0,0 +1,121 @@
+package com.bank.cards.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat transaction row read for exports. Card numbers are already masked.
+ */
+public class TransactionExportRow {
+    
+    private Long id;
+    private LocalDateTime createdAt;
+    private String type;
+    private String status;
+    private BigDecimal amount;
+    private String description;
+    private Long fromCardId;
+    private String fromCardNumber;
+    private Long toCardId;
+    private String toCardNumber;
+    
+    // Constructors
+    public TransactionExportRow() {}
+    
+    public TransactionExportRow(Long id, LocalDateTime createdAt, String type, String status,
+                                BigDecimal amount, String description,
+                                Long fromCardId, String fromCardNumber,
+                                Long toCardId, String toCardNumber) {
+        this.id = id;
+        this.createdAt = createdAt;
+        this.type = type;
+        this.status = status;
+        this.amount = amount;
+        this.description = description;
+        this.fromCardId = fromCardId;
+        this.fromCardNumber = fromCardNumber;
+        this.toCardId = toCardId;
+        this.toCardNumber = toCardNumber;
+    }
+    
+    // Getters and setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    public void setType(String type) {
+        this.type = type;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public Long getFromCardId() {
+        return fromCardId;
+    }
+    
+    public void setFromCardId(Long fromCardId) {
+        this.fromCardId = fromCardId;
+    }
+    
+    public String getFromCardNumber() {
+        return fromCardNumber;
+    }
+    
+    public void setFromCardNumber(String fromCardNumber) {
+        this.fromCardNumber = fromCardNumber;
+    }
+    
+    public Long getToCardId() {
+        return toCardId;
+    }
+    
+    public void setToCardId(Long toCardId) {
+        this.toCardId = toCardId;
+    }
+    
+    public String getToCardNumber() {
+        return toCardNumber;
+    }
+    
+    public void setToCardNumber(String toCardNumber) {
+        this.toCardNumber = toCardNumber;
+    }
+}
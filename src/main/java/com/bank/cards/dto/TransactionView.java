@@ -0,0 +1,139 @@
+package com.bank.cards.dto;
+
+import com.bank.cards.entity.Card;
+import com.bank.cards.entity.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read model for transaction history listings and the response of a transfer. Listings build
+ * it from plain SQL rows, in the row mappers of {@code TransactionHistoryRepository} and
+ * {@code TransactionFeedRepository}, so no {@code Transaction} or {@code Card} entities are
+ * hydrated. Card numbers are masked.
+ */
+public class TransactionView {
+    
+    private Long id;
+    private LocalDateTime createdAt;
+    private Transaction.TransactionType type;
+    private Transaction.TransactionStatus status;
+    private BigDecimal amount;
+    private String description;
+    private Long fromCardId;
+    private String fromCardNumber;
+    private Long toCardId;
+    private String toCardNumber;
+    
+    // Constructors
+    public TransactionView() {}
+    
+    public TransactionView(Long id, LocalDateTime createdAt,
+                           Transaction.TransactionType type, Transaction.TransactionStatus status,
+                           BigDecimal amount, String description,
+                           Long fromCardId, String fromCardNumber,
+                           Long toCardId, String toCardNumber) {
+        this.id = id;
+        this.createdAt = createdAt;
+        this.type = type;
+        this.status = status;
+        this.amount = amount;
+        this.description = description;
+        this.fromCardId = fromCardId;
+        this.fromCardNumber = Card.maskCardNumber(fromCardNumber);
+        this.toCardId = toCardId;
+        this.toCardNumber = Card.maskCardNumber(toCardNumber);
+    }
+    
+    // For a transfer just made; the response must not carry full card numbers or CVVs
+    public static TransactionView of(Transaction transaction) {
+        Card fromCard = transaction.getFromCard();
+        Card toCard = transaction.getToCard();
+        return new TransactionView(transaction.getId(), transaction.getCreatedAt(),
+                transaction.getType(), transaction.getStatus(),
+                transaction.getAmount(), transaction.getDescription(),
+                fromCard != null ? fromCard.getId() : null, fromCard != null ? fromCard.getCardNumber() : null,
+                toCard != null ? toCard.getId() : null, toCard != null ? toCard.getCardNumber() : null);
+    }
+    
+    // Getters and setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public Transaction.TransactionType getType() {
+        return type;
+    }
+    
+    public void setType(Transaction.TransactionType type) {
+        this.type = type;
+    }
+    
+    public Transaction.TransactionStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Transaction.TransactionStatus status) {
+        this.status = status;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public Long getFromCardId() {
+        return fromCardId;
+    }
+    
+    public void setFromCardId(Long fromCardId) {
+        this.fromCardId = fromCardId;
+    }
+    
+    public String getFromCardNumber() {
+        return fromCardNumber;
+    }
+    
+    public void setFromCardNumber(String fromCardNumber) {
+        this.fromCardNumber = fromCardNumber;
+    }
+    
+    public Long getToCardId() {
+        return toCardId;
+    }
+    
+    public void setToCardId(Long toCardId) {
+        this.toCardId = toCardId;
+    }
+    
+    public String getToCardNumber() {
+        return toCardNumber;
+    }
+    
+    public void setToCardNumber(String toCardNumber) {
+        this.toCardNumber = toCardNumber;
+    }
+}
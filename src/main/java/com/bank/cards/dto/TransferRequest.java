@@ -1,6 +1,7 @@
 package com.bank.cards.dto;
 
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
 
@@ -14,6 +15,7 @@ public class TransferRequest {
     
     @NotNull(message = "Amount is required")
     @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    @Digits(integer = 13, fraction = 2, message = "Amount must not have more than 2 decimal places")
     private BigDecimal amount;
     
     private String description;
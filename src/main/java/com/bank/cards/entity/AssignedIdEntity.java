@@ -0,0 +1,30 @@
+package com.bank.cards.entity;
+
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Base for entities whose key is assigned before they are saved. Spring Data would otherwise
+ * take a non-null id for an existing row and merge, which costs a lookup first; new instances
+ * report themselves as new until they are persisted or loaded.
+ */
+@MappedSuperclass
+public abstract class AssignedIdEntity<ID> implements Persistable<ID> {
+    
+    @Transient
+    private boolean isNew = true;
+    
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+    
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+}
@@ -1,16 +1,19 @@
 package com.bank.cards.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 
 @Entity
 @Table(name = "cards")
+@DynamicUpdate // status changes must not rewrite a balance updated concurrently by the ledger
 public class Card {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cards_seq")
+    @SequenceGenerator(name = "cards_seq", sequenceName = "cards_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "card_number", nullable = false, unique = true)
@@ -20,14 +23,20 @@ public class Card {
     private String cardHolderName;
     
     @Column(name = "expiry_date", nullable = false)
+    @Convert(converter = YearMonthDateConverter.class)
     private YearMonth expiryDate;
     
     @Column(name = "cvv", nullable = false)
     private String cvv;
     
+    // With balance shards, only the part of the balance not held in card_balance_shards
     @Column(nullable = false)
     private BigDecimal balance = BigDecimal.ZERO;
     
+    // Striped balance mode: transfers credit one of this many card_balance_shards rows
+    @Column(name = "balance_shards", nullable = false)
+    private Integer balanceShards = 0;
+    
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private CardStatus status = CardStatus.ACTIVE;
@@ -42,6 +51,10 @@ public class Card {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id", nullable = false)
     private User owner;
@@ -72,6 +85,10 @@ public class Card {
     
     // Method to get masked card number
     public String getMaskedCardNumber() {
+        return maskCardNumber(cardNumber);
+    }
+    
+    public static String maskCardNumber(String cardNumber) {
         if (cardNumber == null || cardNumber.length() < 4) {
             return cardNumber;
         }
@@ -79,6 +96,10 @@ public class Card {
         return "** ** " + lastFour;
     }
     
+    public boolean isBalanceStriped() {
+        return balanceShards != null && balanceShards > 0;
+    }
+    
     // Getters and setters
     public Long getId() {
         return id;
@@ -160,6 +181,22 @@ public class Card {
         this.updatedAt = updatedAt;
     }
     
+    public Integer getBalanceShards() {
+        return balanceShards;
+    }
+    
+    public void setBalanceShards(Integer balanceShards) {
+        this.balanceShards = balanceShards;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public User getOwner() {
         return owner;
     }
@@ -0,0 +1,61 @@
+package com.bank.cards.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+
+/**
+ * One part of a striped card's balance. Credits to the card go to a random shard, so
+ * concurrent credits update different rows instead of queueing on the card row.
+ * Rows are read and written with plain SQL by {@code CardBalanceShardRepository}.
+ */
+@Entity
+@Table(name = "card_balance_shards")
+@IdClass(CardBalanceShardId.class)
+public class CardBalanceShard {
+    
+    @Id
+    @Column(name = "card_id")
+    private Long cardId;
+    
+    @Id
+    @Column(name = "shard")
+    private Integer shard;
+    
+    @Column(nullable = false)
+    private BigDecimal balance = BigDecimal.ZERO;
+    
+    // Constructors
+    public CardBalanceShard() {}
+    
+    public CardBalanceShard(Long cardId, Integer shard, BigDecimal balance) {
+        this.cardId = cardId;
+        this.shard = shard;
+        this.balance = balance;
+    }
+    
+    // Getters and setters
+    public Long getCardId() {
+        return cardId;
+    }
+    
+    public void setCardId(Long cardId) {
+        this.cardId = cardId;
+    }
+    
+    public Integer getShard() {
+        return shard;
+    }
+    
+    public void setShard(Integer shard) {
+        this.shard = shard;
+    }
+    
+    public BigDecimal getBalance() {
+        return balance;
+    }
+    
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+}
@@ -0,0 +1,54 @@
+package com.bank.cards.entity;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Primary key of {@link CardBalanceShard}: one row per card and shard number.
+ */
+public class CardBalanceShardId implements Serializable {
+    
+    private Long cardId;
+    private Integer shard;
+    
+    // Constructors
+    public CardBalanceShardId() {}
+    
+    public CardBalanceShardId(Long cardId, Integer shard) {
+        this.cardId = cardId;
+        this.shard = shard;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CardBalanceShardId other)) {
+            return false;
+        }
+        return Objects.equals(cardId, other.cardId) && Objects.equals(shard, other.shard);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(cardId, shard);
+    }
+    
+    // Getters and setters
+    public Long getCardId() {
+        return cardId;
+    }
+    
+    public void setCardId(Long cardId) {
+        this.cardId = cardId;
+    }
+    
+    public Integer getShard() {
+        return shard;
+    }
+    
+    public void setShard(Integer shard) {
+        this.shard = shard;
+    }
+}
@@ -0,0 +1,127 @@
+package com.bank.cards.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Transfer activity of one card on one day, or the part of it written to one shard. Rows
+ * exist only for days with activity; a day's figures are the sums over its shards, of which
+ * only the first one written carries the opening balance. The closing balance of a day is the
+ * opening balance of the next one.
+ */
+@Entity
+@Table(name = "card_daily_stats")
+@IdClass(CardDailyStatsId.class)
+public class CardDailyStats extends AssignedIdEntity<CardDailyStatsId> {
+    
+    @Id
+    @Column(name = "card_id")
+    private Long cardId;
+    
+    @Id
+    @Column(name = "stat_date")
+    private LocalDate statDate;
+    
+    @Id
+    @Column(name = "shard")
+    private Integer shard = 0;
+    
+    @Column(name = "opening_balance", nullable = false)
+    private BigDecimal openingBalance;
+    
+    @Column(nullable = false)
+    private BigDecimal debits = BigDecimal.ZERO;
+    
+    @Column(nullable = false)
+    private BigDecimal credits = BigDecimal.ZERO;
+    
+    @Column(name = "transaction_count", nullable = false)
+    private Integer transactionCount = 0;
+    
+    // Constructors
+    public CardDailyStats() {}
+    
+    public CardDailyStats(Long cardId, LocalDate statDate, BigDecimal openingBalance,
+                          BigDecimal debits, BigDecimal credits, Integer transactionCount) {
+        this(cardId, statDate, 0, openingBalance, debits, credits, transactionCount);
+    }
+    
+    public CardDailyStats(Long cardId, LocalDate statDate, Integer shard, BigDecimal openingBalance,
+                          BigDecimal debits, BigDecimal credits, Integer transactionCount) {
+        this.cardId = cardId;
+        this.statDate = statDate;
+        this.shard = shard;
+        this.openingBalance = openingBalance;
+        this.debits = debits;
+        this.credits = credits;
+        this.transactionCount = transactionCount;
+    }
+    
+    @Override
+    public CardDailyStatsId getId() {
+        return new CardDailyStatsId(cardId, statDate, shard);
+    }
+    
+    public BigDecimal getClosingBalance() {
+        return openingBalance.add(credits).subtract(debits);
+    }
+    
+    // Getters and setters
+    public Long getCardId() {
+        return cardId;
+    }
+    
+    public void setCardId(Long cardId) {
+        this.cardId = cardId;
+    }
+    
+    public LocalDate getStatDate() {
+        return statDate;
+    }
+    
+    public void setStatDate(LocalDate statDate) {
+        this.statDate = statDate;
+    }
+    
+    public Integer getShard() {
+        return shard;
+    }
+    
+    public void setShard(Integer shard) {
+        this.shard = shard;
+    }
+    
+    public BigDecimal getOpeningBalance() {
+        return openingBalance;
+    }
+    
+    public void setOpeningBalance(BigDecimal openingBalance) {
+        this.openingBalance = openingBalance;
+    }
+    
+    public BigDecimal getDebits() {
+        return debits;
+    }
+    
+    public void setDebits(BigDecimal debits) {
+        this.debits = debits;
+    }
+    
+    public BigDecimal getCredits() {
+        return credits;
+    }
+    
+    public void setCredits(BigDecimal credits) {
+        this.credits = credits;
+    }
+    
+    public Integer getTransactionCount() {
+        return transactionCount;
+    }
+    
+    public void setTransactionCount(Integer transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+}
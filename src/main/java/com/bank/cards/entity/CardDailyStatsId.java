@@ -0,0 +1,66 @@
+package com.bank.cards.entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Primary key of {@link CardDailyStats}: one row per card, calendar day and shard.
+ */
+public class CardDailyStatsId implements Serializable {
+    
+    private Long cardId;
+    private LocalDate statDate;
+    private Integer shard;
+    
+    // Constructors
+    public CardDailyStatsId() {}
+    
+    public CardDailyStatsId(Long cardId, LocalDate statDate, Integer shard) {
+        this.cardId = cardId;
+        this.statDate = statDate;
+        this.shard = shard;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CardDailyStatsId other)) {
+            return false;
+        }
+        return Objects.equals(cardId, other.cardId) && Objects.equals(statDate, other.statDate)
+                && Objects.equals(shard, other.shard);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(cardId, statDate, shard);
+    }
+    
+    // Getters and setters
+    public Long getCardId() {
+        return cardId;
+    }
+    
+    public void setCardId(Long cardId) {
+        this.cardId = cardId;
+    }
+    
+    public LocalDate getStatDate() {
+        return statDate;
+    }
+    
+    public void setStatDate(LocalDate statDate) {
+        this.statDate = statDate;
+    }
+    
+    public Integer getShard() {
+        return shard;
+    }
+    
+    public void setShard(Integer shard) {
+        this.shard = shard;
+    }
+}
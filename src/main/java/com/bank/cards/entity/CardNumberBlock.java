@@ -0,0 +1,44 @@
+package com.bank.cards.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Next unreserved account serial for a BIN. Application nodes reserve serials from here in
+ * blocks and issue card numbers from their block without further queries.
+ */
+@Entity
+@Table(name = "card_number_blocks")
+public class CardNumberBlock {
+    
+    @Id
+    @Column(length = 6)
+    private String bin;
+    
+    @Column(name = "next_serial", nullable = false)
+    private Long nextSerial;
+    
+    // Constructors
+    public CardNumberBlock() {}
+    
+    public CardNumberBlock(String bin, Long nextSerial) {
+        this.bin = bin;
+        this.nextSerial = nextSerial;
+    }
+    
+    // Getters and setters
+    public String getBin() {
+        return bin;
+    }
+    
+    public void setBin(String bin) {
+        this.bin = bin;
+    }
+    
+    public Long getNextSerial() {
+        return nextSerial;
+    }
+    
+    public void setNextSerial(Long nextSerial) {
+        this.nextSerial = nextSerial;
+    }
+}
@@ -0,0 +1,184 @@
+package com.bank.cards.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One transaction as seen by one user whose card took part in it, written in the same
+ * database transaction as the transfer. A user's history is a single range of the
+ * (user_id, created_at, transaction_id) index, with no join to transactions or cards.
+ * Card numbers are stored masked.
+ */
+@Entity
+@Table(name = "user_transaction_feed", indexes = {
+    @Index(name = "idx_user_transaction_feed_user_created", columnList = "user_id, created_at DESC, transaction_id DESC")
+})
+@IdClass(TransactionFeedEntryId.class)
+public class TransactionFeedEntry {
+    
+    @Id
+    @Column(name = "transaction_id")
+    private Long transactionId;
+    
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    // The user's own card; a transfer between two of the user's cards is seen from the sending one
+    @Column(name = "card_id", nullable = false)
+    private Long cardId;
+    
+    @Column(name = "card_number", nullable = false, length = 10)
+    private String cardNumber;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 3)
+    private Direction direction;
+    
+    @Column(nullable = false)
+    private BigDecimal amount;
+    
+    @Column(name = "counterpart_card_id")
+    private Long counterpartCardId;
+    
+    @Column(name = "counterpart_card_number", length = 10)
+    private String counterpartCardNumber;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Transaction.TransactionType type;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Transaction.TransactionStatus status;
+    
+    private String description;
+    
+    // Constructors
+    public TransactionFeedEntry() {}
+    
+    public TransactionFeedEntry(Long userId, Long transactionId, LocalDateTime createdAt,
+                                Long cardId, String cardNumber, Direction direction, BigDecimal amount,
+                                Long counterpartCardId, String counterpartCardNumber,
+                                Transaction.TransactionType type, Transaction.TransactionStatus status,
+                                String description) {
+        this.userId = userId;
+        this.transactionId = transactionId;
+        this.createdAt = createdAt;
+        this.cardId = cardId;
+        this.cardNumber = Card.maskCardNumber(cardNumber);
+        this.direction = direction;
+        this.amount = amount;
+        this.counterpartCardId = counterpartCardId;
+        this.counterpartCardNumber = Card.maskCardNumber(counterpartCardNumber);
+        this.type = type;
+        this.status = status;
+        this.description = description;
+    }
+    
+    // Getters and setters
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public Long getTransactionId() {
+        return transactionId;
+    }
+    
+    public void setTransactionId(Long transactionId) {
+        this.transactionId = transactionId;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public Long getCardId() {
+        return cardId;
+    }
+    
+    public void setCardId(Long cardId) {
+        this.cardId = cardId;
+    }
+    
+    public String getCardNumber() {
+        return cardNumber;
+    }
+    
+    public void setCardNumber(String cardNumber) {
+        this.cardNumber = cardNumber;
+    }
+    
+    public Direction getDirection() {
+        return direction;
+    }
+    
+    public void setDirection(Direction direction) {
+        this.direction = direction;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+    
+    public Long getCounterpartCardId() {
+        return counterpartCardId;
+    }
+    
+    public void setCounterpartCardId(Long counterpartCardId) {
+        this.counterpartCardId = counterpartCardId;
+    }
+    
+    public String getCounterpartCardNumber() {
+        return counterpartCardNumber;
+    }
+    
+    public void setCounterpartCardNumber(String counterpartCardNumber) {
+        this.counterpartCardNumber = counterpartCardNumber;
+    }
+    
+    public Transaction.TransactionType getType() {
+        return type;
+    }
+    
+    public void setType(Transaction.TransactionType type) {
+        this.type = type;
+    }
+    
+    public Transaction.TransactionStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Transaction.TransactionStatus status) {
+        this.status = status;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public enum Direction {
+        OUT, IN
+    }
+}
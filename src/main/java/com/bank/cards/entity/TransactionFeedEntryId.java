@@ -0,0 +1,54 @@
+package com.bank.cards.entity;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Primary key of {@link TransactionFeedEntry}: one row per transaction and user involved.
+ */
+public class TransactionFeedEntryId implements Serializable {
+    
+    private Long transactionId;
+    private Long userId;
+    
+    // Constructors
+    public TransactionFeedEntryId() {}
+    
+    public TransactionFeedEntryId(Long transactionId, Long userId) {
+        this.transactionId = transactionId;
+        this.userId = userId;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TransactionFeedEntryId other)) {
+            return false;
+        }
+        return Objects.equals(transactionId, other.transactionId) && Objects.equals(userId, other.userId);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(transactionId, userId);
+    }
+    
+    // Getters and setters
+    public Long getTransactionId() {
+        return transactionId;
+    }
+    
+    public void setTransactionId(Long transactionId) {
+        this.transactionId = transactionId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+}
@@ -0,0 +1,61 @@
+package com.bank.cards.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * One part of a user's feed version, a counter bumped in every database transaction that
+ * changes the user's {@code user_transaction_feed} rows. The version is the sum over the
+ * user's shards, so it only grows however the transactions commit; each write bumps one
+ * shard, so transfers into a hot card do not all wait for the same row.
+ * Rows are read and written with plain SQL by {@code UserDataVersionRepository}.
+ */
+@Entity
+@Table(name = "user_feed_versions")
+@IdClass(UserFeedVersionId.class)
+public class UserFeedVersion {
+    
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Id
+    @Column(name = "shard")
+    private Integer shard;
+    
+    @Column(nullable = false)
+    private Long version = 0L;
+    
+    // Constructors
+    public UserFeedVersion() {}
+    
+    public UserFeedVersion(Long userId, Integer shard, Long version) {
+        this.userId = userId;
+        this.shard = shard;
+        this.version = version;
+    }
+    
+    // Getters and setters
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public Integer getShard() {
+        return shard;
+    }
+    
+    public void setShard(Integer shard) {
+        this.shard = shard;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,54 @@
+package com.bank.cards.entity;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Primary key of {@link UserFeedVersion}: one row per user and shard number.
+ */
+public class UserFeedVersionId implements Serializable {
+    
+    private Long userId;
+    private Integer shard;
+    
+    // Constructors
+    public UserFeedVersionId() {}
+    
+    public UserFeedVersionId(Long userId, Integer shard) {
+        this.userId = userId;
+        this.shard = shard;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UserFeedVersionId other)) {
+            return false;
+        }
+        return Objects.equals(userId, other.userId) && Objects.equals(shard, other.shard);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, shard);
+    }
+    
+    // Getters and setters
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public Integer getShard() {
+        return shard;
+    }
+    
+    public void setShard(Integer shard) {
+        this.shard = shard;
+    }
+}
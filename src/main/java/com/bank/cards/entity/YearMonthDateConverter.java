@@ -0,0 +1,27 @@
+package com.bank.cards.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.sql.Date;
+import java.time.YearMonth;
+
+/**
+ * Stores a {@link YearMonth} in a DATE column as the last day of the month, as the sample data
+ * does. Without it Hibernate serializes the value to bytes, which neither matches the column
+ * nor compares by month. Query parameters compared with a converted attribute are converted
+ * too, so {@code expiryDate < :month} compares dates.
+ */
+@Converter
+public class YearMonthDateConverter implements AttributeConverter<YearMonth, Date> {
+    
+    @Override
+    public Date convertToDatabaseColumn(YearMonth month) {
+        return month != null ? Date.valueOf(month.atEndOfMonth()) : null;
+    }
+    
+    @Override
+    public YearMonth convertToEntityAttribute(Date date) {
+        return date != null ? YearMonth.from(date.toLocalDate()) : null;
+    }
+}
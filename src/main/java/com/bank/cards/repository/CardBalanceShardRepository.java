@@ -0,0 +1,76 @@
+package com.bank.cards.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Balance shards of striped cards. Credits and debits are relative updates of a single row,
+ * so concurrent transfers on one card only wait for each other when they pick the same shard.
+ */
+@Repository
+public class CardBalanceShardRepository {
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    public CardBalanceShardRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    // Returns 0 when the shard does not exist, e.g. because the card was re-sharded meanwhile
+    public int credit(Long cardId, int shard, BigDecimal amount) {
+        return jdbcTemplate.update("UPDATE card_balance_shards SET balance = balance + ? WHERE card_id = ? AND shard = ?",
+                amount, cardId, shard);
+    }
+    
+    // Takes the amount only if the shard alone covers it
+    public boolean tryDebit(Long cardId, int shard, BigDecimal amount) {
+        return jdbcTemplate.update("UPDATE card_balance_shards SET balance = balance - ? " +
+                "WHERE card_id = ? AND shard = ? AND balance >= ?", amount, cardId, shard, amount) == 1;
+    }
+    
+    public BigDecimal sum(Long cardId) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(balance), 0) FROM card_balance_shards WHERE card_id = ?",
+                BigDecimal.class, cardId);
+    }
+    
+    // Locks every shard of the card, in shard order, until commit and returns their sum
+    public BigDecimal lockAndSum(Long cardId) {
+        List<BigDecimal> balances = jdbcTemplate.queryForList(
+                "SELECT balance FROM card_balance_shards WHERE card_id = ? ORDER BY shard FOR UPDATE",
+                BigDecimal.class, cardId);
+        BigDecimal sum = BigDecimal.ZERO;
+        for (BigDecimal balance : balances) {
+            sum = sum.add(balance);
+        }
+        return sum;
+    }
+    
+    // Empties every shard of the card and returns what they held; the caller adds it to the card row
+    public BigDecimal drain(Long cardId) {
+        BigDecimal sum = lockAndSum(cardId);
+        if (sum.signum() != 0) {
+            jdbcTemplate.update("UPDATE card_balance_shards SET balance = 0 WHERE card_id = ? AND balance <> 0", cardId);
+        }
+        return sum;
+    }
+    
+    public void create(Long cardId, int shards) {
+        List<Object[]> args = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            args.add(new Object[]{cardId, shard});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO card_balance_shards (card_id, shard, balance) VALUES (?, ?, 0)",
+                args, new int[]{Types.BIGINT, Types.INTEGER});
+    }
+    
+    public int deleteByCardId(Long cardId) {
+        return jdbcTemplate.update("DELETE FROM card_balance_shards WHERE card_id = ?", cardId);
+    }
+}
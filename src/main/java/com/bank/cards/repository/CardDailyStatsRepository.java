@@ -0,0 +1,67 @@
+package com.bank.cards.repository;
+
+import com.bank.cards.entity.CardDailyStats;
+import com.bank.cards.entity.CardDailyStatsId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CardDailyStatsRepository extends JpaRepository<CardDailyStats, CardDailyStatsId> {
+    
+    String DAY_TOTALS = "SELECT s.statDate AS statDate, SUM(s.openingBalance) AS openingBalance, SUM(s.debits) AS debits, " +
+            "SUM(s.credits) AS credits, SUM(s.transactionCount) AS transactionCount FROM CardDailyStats s ";
+    
+    @Modifying
+    @Query("UPDATE CardDailyStats s SET s.debits = s.debits + :debits, s.credits = s.credits + :credits, " +
+           "s.transactionCount = s.transactionCount + :count " +
+           "WHERE s.cardId = :cardId AND s.statDate = :statDate AND s.shard = :shard")
+    int addActivity(@Param("cardId") Long cardId,
+                    @Param("statDate") LocalDate statDate,
+                    @Param("shard") int shard,
+                    @Param("debits") BigDecimal debits,
+                    @Param("credits") BigDecimal credits,
+                    @Param("count") int count);
+    
+    boolean existsByCardIdAndStatDate(Long cardId, LocalDate statDate);
+    
+    // Per-day totals over all shards, oldest day first
+    @Query(DAY_TOTALS + "WHERE s.cardId = :cardId AND s.statDate BETWEEN :from AND :to " +
+           "GROUP BY s.statDate ORDER BY s.statDate")
+    List<DayTotals> sumDaysBetween(@Param("cardId") Long cardId,
+                                   @Param("from") LocalDate from,
+                                   @Param("to") LocalDate to);
+    
+    @Query(DAY_TOTALS + "WHERE s.cardId = :cardId AND s.statDate = " +
+           "(SELECT MAX(p.statDate) FROM CardDailyStats p WHERE p.cardId = :cardId AND p.statDate < :before) " +
+           "GROUP BY s.statDate")
+    Optional<DayTotals> sumLastDayBefore(@Param("cardId") Long cardId, @Param("before") LocalDate before);
+    
+    @Query(DAY_TOTALS + "WHERE s.cardId = :cardId AND s.statDate = " +
+           "(SELECT MIN(p.statDate) FROM CardDailyStats p WHERE p.cardId = :cardId AND p.statDate > :after) " +
+           "GROUP BY s.statDate")
+    Optional<DayTotals> sumFirstDayAfter(@Param("cardId") Long cardId, @Param("after") LocalDate after);
+    
+    @Modifying
+    @Query("DELETE FROM CardDailyStats s WHERE s.cardId = :cardId")
+    int deleteByCardId(@Param("cardId") Long cardId);
+    
+    interface DayTotals {
+        LocalDate getStatDate();
+        BigDecimal getOpeningBalance();
+        BigDecimal getDebits();
+        BigDecimal getCredits();
+        Long getTransactionCount();
+        
+        default BigDecimal getClosingBalance() {
+            return getOpeningBalance().add(getCredits()).subtract(getDebits());
+        }
+    }
+}
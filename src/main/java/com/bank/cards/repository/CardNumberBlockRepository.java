@@ -0,0 +1,17 @@
+package com.bank.cards.repository;
+
+import com.bank.cards.entity.CardNumberBlock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CardNumberBlockRepository extends JpaRepository<CardNumberBlock, String> {
+    
+    // Row lock is held until commit, so concurrent reservations for a BIN never overlap
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE CardNumberBlock b SET b.nextSerial = b.nextSerial + :blockSize WHERE b.bin = :bin")
+    int advance(@Param("bin") String bin, @Param("blockSize") long blockSize);
+}
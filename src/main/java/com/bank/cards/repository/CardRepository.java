@@ -2,13 +2,19 @@ package com.bank.cards.repository;
 
 import com.bank.cards.entity.Card;
 import com.bank.cards.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CardRepository extends JpaRepository<Card, Long> {
@@ -21,8 +27,58 @@ public interface CardRepository extends JpaRepository<Card, Long> {
     
     Optional<Card> findByIdAndOwner(Long id, User owner);
     
+    boolean existsByIdAndOwner(Long id, User owner);
+    
+    List<Card> findByIdInAndOwner(Collection<Long> ids, User owner);
+    
     @Query("SELECT c FROM Card c WHERE c.owner.id = :userId AND c.status = 'ACTIVE'")
     List<Card> findActiveCardsByUserId(@Param("userId") Long userId);
     
+    @Query("SELECT c.id FROM Card c WHERE c.owner = :owner")
+    List<Long> findIdsByOwner(@Param("owner") User owner);
+    
+    @Query("SELECT c.cardNumber FROM Card c")
+    Stream<String> streamAllCardNumbers();
+    
+    @Query("SELECT c.id FROM Card c ORDER BY c.id")
+    List<Long> findAllIds();
+    
+    @Query("SELECT c.balance FROM Card c WHERE c.id = :id")
+    Optional<BigDecimal> findBalanceById(@Param("id") Long id);
+    
+    // Takes the card's row lock without changing the row; held until commit
+    @Modifying
+    @Query("UPDATE Card c SET c.version = c.version WHERE c.id = :id")
+    int lockById(@Param("id") Long id);
+    
     boolean existsByCardNumber(String cardNumber);
+    
+    // Reads without locking; markExpired re-checks the condition, so a row changed meanwhile is left alone.
+    // Ordered like the partial (expiry_date, id) index, so a chunk reads only due cards.
+    @Query("SELECT c.id AS id, c.owner.id AS ownerId, c.expiryDate AS expiryDate FROM Card c " +
+           "WHERE c.status = 'ACTIVE' AND c.expiryDate < :month ORDER BY c.expiryDate, c.id")
+    List<ExpiredCard> findExpiredActiveCards(@Param("month") YearMonth month, Pageable pageable);
+    
+    // Next chunk: due cards strictly after (afterExpiryDate, afterId)
+    @Query("SELECT c.id AS id, c.owner.id AS ownerId, c.expiryDate AS expiryDate FROM Card c " +
+           "WHERE c.status = 'ACTIVE' AND c.expiryDate < :month " +
+           "AND (c.expiryDate > :afterExpiryDate OR (c.expiryDate = :afterExpiryDate AND c.id > :afterId)) " +
+           "ORDER BY c.expiryDate, c.id")
+    List<ExpiredCard> findExpiredActiveCardsAfter(@Param("month") YearMonth month,
+                                                  @Param("afterExpiryDate") YearMonth afterExpiryDate,
+                                                  @Param("afterId") Long afterId,
+                                                  Pageable pageable);
+    
+    @Modifying
+    @Query("UPDATE Card c SET c.status = 'EXPIRED', c.version = c.version + 1 " +
+           "WHERE c.id IN :ids AND c.status = 'ACTIVE' AND c.expiryDate < :month")
+    int markExpired(@Param("ids") Collection<Long> ids, @Param("month") YearMonth month);
+    
+    interface ExpiredCard {
+        Long getId();
+        
+        Long getOwnerId();
+        
+        YearMonth getExpiryDate();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.bank.cards.repository;
+
+import com.bank.cards.dto.TransactionExportRow;
+import com.bank.cards.entity.Card;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.function.Consumer;
+
+@Repository
+public class TransactionExportRepository {
+    
+    private static final String CARD_HISTORY_SQL =
+            "SELECT t.id, t.created_at, t.type, t.status, t.amount, t.description, " +
+            "t.from_card_id, fc.card_number AS from_card_number, t.to_card_id, tc.card_number AS to_card_number " +
+            "FROM transactions t " +
+            "LEFT JOIN cards fc ON fc.id = t.from_card_id " +
+            "LEFT JOIN cards tc ON tc.id = t.to_card_id " +
+            "WHERE t.from_card_id = ? OR t.to_card_id = ? " +
+            "ORDER BY t.created_at, t.id";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+    
+    @Autowired
+    public TransactionExportRepository(JdbcTemplate jdbcTemplate,
+                                       @Value("${transactions.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+    
+    // Rows are handed over one at a time from a forward-only cursor. PostgreSQL only honours
+    // the fetch size inside a transaction, so call this from a read-only transaction.
+    public void streamCardHistory(Long cardId, Consumer<TransactionExportRow> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(CARD_HISTORY_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, cardId);
+            statement.setLong(2, cardId);
+            return statement;
+        }, (ResultSet rs) -> consumer.accept(mapRow(rs)));
+    }
+    
+    private static TransactionExportRow mapRow(ResultSet rs) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return new TransactionExportRow(
+            rs.getLong("id"),
+            createdAt != null ? createdAt.toLocalDateTime() : null,
+            rs.getString("type"),
+            rs.getString("status"),
+            rs.getBigDecimal("amount"),
+            rs.getString("description"),
+            rs.getObject("from_card_id", Long.class),
+            Card.maskCardNumber(rs.getString("from_card_number")),
+            rs.getObject("to_card_id", Long.class),
+            Card.maskCardNumber(rs.getString("to_card_number"))
+        );
+    }
+}
@@ -0,0 +1,190 @@
+package com.bank.cards.repository;
+
+import com.bank.cards.dto.TransactionView;
+import com.bank.cards.entity.Card;
+import com.bank.cards.entity.Transaction;
+import com.bank.cards.entity.TransactionFeedEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads and writes {@code user_transaction_feed}, and derives its rows from {@code transactions}
+ * so the write path, the rebuild and the consistency check all agree on what a row holds.
+ */
+@Repository
+public class TransactionFeedRepository {
+    
+    private static final String FEED_COLUMNS = "transaction_id, user_id, created_at, card_id, card_number, direction, " +
+            "amount, counterpart_card_id, counterpart_card_number, type, status, description";
+    
+    private static final String INSERT_SQL = "INSERT INTO user_transaction_feed (" + FEED_COLUMNS + ") " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private static final String SOURCE_SQL = "SELECT t.id, t.created_at, t.type, t.status, t.amount, t.description, " +
+            "t.from_card_id, fc.owner_id AS from_owner_id, fc.card_number AS from_card_number, " +
+            "t.to_card_id, tc.owner_id AS to_owner_id, tc.card_number AS to_card_number " +
+            "FROM transactions t " +
+            "LEFT JOIN cards fc ON fc.id = t.from_card_id " +
+            "LEFT JOIN cards tc ON tc.id = t.to_card_id ";
+    
+    private static final String PAGE_SQL = "SELECT " + FEED_COLUMNS + " FROM user_transaction_feed WHERE user_id = ?";
+    
+    private static final String PAGE_ORDER = " ORDER BY created_at DESC, transaction_id DESC LIMIT ?";
+    
+    // A row-value comparison bounds the user index range at the cursor instead of filtering the rows above it
+    static final String PAGE_AFTER_SQL = PAGE_SQL + " AND (created_at, transaction_id) < (?, ?)" + PAGE_ORDER;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    public TransactionFeedRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    public List<TransactionView> findPage(Long userId, long offset, int limit) {
+        return jdbcTemplate.query(PAGE_SQL + PAGE_ORDER + " OFFSET ?",
+                (rs, rowNum) -> toView(mapEntry(rs)), userId, limit, offset);
+    }
+    
+    // Keyset page: rows strictly older than (createdAt, transactionId)
+    public List<TransactionView> findPageAfter(Long userId, LocalDateTime createdAt, Long transactionId, int limit) {
+        return jdbcTemplate.query(PAGE_AFTER_SQL,
+                (rs, rowNum) -> toView(mapEntry(rs)), userId, Timestamp.valueOf(createdAt), transactionId, limit);
+    }
+    
+    public long count(Long userId) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM user_transaction_feed WHERE user_id = ?", Long.class, userId);
+        return count != null ? count : 0;
+    }
+    
+    public List<TransactionFeedEntry> findEntries(Collection<Long> transactionIds) {
+        if (transactionIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.query("SELECT " + FEED_COLUMNS + " FROM user_transaction_feed WHERE transaction_id IN (" +
+                placeholders(transactionIds.size()) + ")", (rs, rowNum) -> mapEntry(rs), transactionIds.toArray());
+    }
+    
+    // The rows the feed should hold for these transactions, as of the current cards table
+    public List<TransactionFeedEntry> deriveEntries(Collection<Long> transactionIds) {
+        if (transactionIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<TransactionFeedEntry> entries = new ArrayList<>();
+        jdbcTemplate.query(SOURCE_SQL + "WHERE t.id IN (" + placeholders(transactionIds.size()) + ")",
+                (RowCallbackHandler) rs -> addDerivedEntries(rs, entries), transactionIds.toArray());
+        return entries;
+    }
+    
+    public List<Long> findTransactionIdsAfter(long afterId, int limit) {
+        return jdbcTemplate.queryForList("SELECT id FROM transactions WHERE id > ? ORDER BY id LIMIT ?",
+                Long.class, afterId, limit);
+    }
+    
+    public List<Long> findTransactionIdsByCard(Long cardId) {
+        return jdbcTemplate.queryForList("SELECT id FROM transactions WHERE from_card_id = ? " +
+                "UNION SELECT id FROM transactions WHERE to_card_id = ?", Long.class, cardId, cardId);
+    }
+    
+    // Card numbers are masked again here so a full number can never reach this table
+    public void insert(List<TransactionFeedEntry> entries) {
+        List<Object[]> args = new ArrayList<>(entries.size());
+        for (TransactionFeedEntry entry : entries) {
+            args.add(new Object[]{
+                entry.getTransactionId(), entry.getUserId(), Timestamp.valueOf(entry.getCreatedAt()),
+                entry.getCardId(), Card.maskCardNumber(entry.getCardNumber()), entry.getDirection().name(),
+                entry.getAmount(), entry.getCounterpartCardId(), Card.maskCardNumber(entry.getCounterpartCardNumber()),
+                entry.getType().name(), entry.getStatus().name(), entry.getDescription()
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, args, new int[]{
+            Types.BIGINT, Types.BIGINT, Types.TIMESTAMP, Types.BIGINT, Types.VARCHAR, Types.VARCHAR,
+            Types.DECIMAL, Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR
+        });
+    }
+    
+    public int deleteByTransactionIds(Collection<Long> transactionIds) {
+        if (transactionIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update("DELETE FROM user_transaction_feed WHERE transaction_id IN (" +
+                placeholders(transactionIds.size()) + ")", transactionIds.toArray());
+    }
+    
+    // The sender's owner sees the transaction going out; the recipient's owner sees it coming in,
+    // unless that is the same user. A side whose card was deleted has no owner and no row.
+    // Card numbers are masked as soon as they are read; the feed only ever holds the last four digits.
+    private static void addDerivedEntries(ResultSet rs, List<TransactionFeedEntry> entries) throws SQLException {
+        Long id = rs.getLong("id");
+        LocalDateTime createdAt = rs.getTimestamp("created_at").toLocalDateTime();
+        Transaction.TransactionType type = Transaction.TransactionType.valueOf(rs.getString("type"));
+        Transaction.TransactionStatus status = Transaction.TransactionStatus.valueOf(rs.getString("status"));
+        Long fromCardId = rs.getObject("from_card_id", Long.class);
+        Long fromOwnerId = rs.getObject("from_owner_id", Long.class);
+        String fromCardNumber = Card.maskCardNumber(rs.getString("from_card_number"));
+        Long toCardId = rs.getObject("to_card_id", Long.class);
+        Long toOwnerId = rs.getObject("to_owner_id", Long.class);
+        String toCardNumber = Card.maskCardNumber(rs.getString("to_card_number"));
+    
+        if (fromOwnerId != null) {
+            entries.add(new TransactionFeedEntry(fromOwnerId, id, createdAt, fromCardId, fromCardNumber,
+                    TransactionFeedEntry.Direction.OUT, rs.getBigDecimal("amount"), toCardId, toCardNumber,
+                    type, status, rs.getString("description")));
+        }
+        if (toOwnerId != null && !toOwnerId.equals(fromOwnerId)) {
+            entries.add(new TransactionFeedEntry(toOwnerId, id, createdAt, toCardId, toCardNumber,
+                    TransactionFeedEntry.Direction.IN, rs.getBigDecimal("amount"), fromCardId, fromCardNumber,
+                    type, status, rs.getString("description")));
+        }
+    }
+    
+    private static TransactionFeedEntry mapEntry(ResultSet rs) throws SQLException {
+        return new TransactionFeedEntry(
+            rs.getLong("user_id"),
+            rs.getLong("transaction_id"),
+            rs.getTimestamp("created_at").toLocalDateTime(),
+            rs.getLong("card_id"),
+            rs.getString("card_number"),
+            TransactionFeedEntry.Direction.valueOf(rs.getString("direction")),
+            rs.getBigDecimal("amount"),
+            rs.getObject("counterpart_card_id", Long.class),
+            rs.getString("counterpart_card_number"),
+            Transaction.TransactionType.valueOf(rs.getString("type")),
+            Transaction.TransactionStatus.valueOf(rs.getString("status")),
+            rs.getString("description")
+        );
+    }
+    
+    private static TransactionView toView(TransactionFeedEntry entry) {
+        boolean out = entry.getDirection() == TransactionFeedEntry.Direction.OUT;
+        return new TransactionView(
+            entry.getTransactionId(),
+            entry.getCreatedAt(),
+            entry.getType(),
+            entry.getStatus(),
+            entry.getAmount(),
+            entry.getDescription(),
+            out ? entry.getCardId() : entry.getCounterpartCardId(),
+            out ? entry.getCardNumber() : entry.getCounterpartCardNumber(),
+            out ? entry.getCounterpartCardId() : entry.getCardId(),
+            out ? entry.getCounterpartCardNumber() : entry.getCardNumber()
+        );
+    }
+    
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,140 @@
+package com.bank.cards.repository;
+
+import com.bank.cards.dto.TransactionView;
+import com.bank.cards.entity.Transaction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Transaction history of a set of cards, newest first.
+ * <p>
+ * An {@code OR} over from_card_id and to_card_id cannot be answered from one index in order, so
+ * each card contributes two branches to a UNION ALL: its outgoing and its incoming transactions.
+ * Every branch is an ordered, limited range scan of the composite (card, created_at DESC, id DESC)
+ * index and reads at most one page of rows; the outer query merges the branches and joins cards
+ * only for the rows returned. A transaction between two cards of the set is taken from the
+ * outgoing branch only.
+ */
+@Repository
+public class TransactionHistoryRepository {
+    
+    private static final String COLUMNS =
+            "t.id, t.created_at, t.type, t.status, t.amount, t.description, t.from_card_id, t.to_card_id";
+    
+    // A row-value comparison is a range bound on the (card, created_at DESC, id DESC) index; the equivalent
+    // "created_at < ? OR (created_at = ? AND id < ?)" is only a filter over every row newer than the cursor
+    private static final String KEYSET = " AND (t.created_at, t.id) < (?, ?)";
+    
+    private static final String BRANCH_ORDER = " ORDER BY t.created_at DESC, t.id DESC LIMIT ";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    public TransactionHistoryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    public List<TransactionView> findPage(Collection<Long> cardIds, long offset, int limit) {
+        if (cardIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Object> args = new ArrayList<>();
+        String sql = historySql(cardIds, offset + limit, null, null, args) + " LIMIT ? OFFSET ?";
+        args.add(limit);
+        args.add(offset);
+        return jdbcTemplate.query(sql, TransactionHistoryRepository::mapRow, args.toArray());
+    }
+    
+    // Keyset page: rows strictly older than (createdAt, id)
+    public List<TransactionView> findPageAfter(Collection<Long> cardIds, LocalDateTime createdAt, Long id, int limit) {
+        if (cardIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Object> args = new ArrayList<>();
+        String sql = historySql(cardIds, limit, Timestamp.valueOf(createdAt), id, args) + " LIMIT ?";
+        args.add(limit);
+        return jdbcTemplate.query(sql, TransactionHistoryRepository::mapRow, args.toArray());
+    }
+    
+    public long count(Collection<Long> cardIds) {
+        if (cardIds.isEmpty()) {
+            return 0;
+        }
+        String in = placeholders(cardIds.size());
+        String sql = "SELECT (SELECT COUNT(*) FROM transactions t WHERE t.from_card_id IN (" + in + ")) + " +
+                "(SELECT COUNT(*) FROM transactions t WHERE t.to_card_id IN (" + in + ") " +
+                "AND (t.from_card_id IS NULL OR t.from_card_id NOT IN (" + in + ")))";
+        List<Object> args = new ArrayList<>(cardIds);
+        args.addAll(cardIds);
+        args.addAll(cardIds);
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, args.toArray());
+        return count != null ? count : 0;
+    }
+    
+    // Appends the bind values to args in statement order; the caller adds the outer LIMIT.
+    // With afterCreatedAt set, every branch starts below that keyset position. The branch limit is
+    // inlined rather than bound: H2 reuses a derived table's rows across executions of one statement
+    // when only a LIMIT parameter inside it changes.
+    static String historySql(Collection<Long> cardIds, long branchLimit, Timestamp afterCreatedAt, Long afterId,
+                             List<Object> args) {
+        String in = placeholders(cardIds.size());
+        String keyset = afterCreatedAt != null ? KEYSET : "";
+        List<String> branches = new ArrayList<>();
+        for (Long cardId : cardIds) {
+            branches.add("(SELECT " + COLUMNS + " FROM transactions t WHERE t.from_card_id = ?" +
+                    keyset + BRANCH_ORDER + branchLimit + ")");
+            args.add(cardId);
+            addKeyset(args, afterCreatedAt, afterId);
+    
+            branches.add("(SELECT " + COLUMNS + " FROM transactions t WHERE t.to_card_id = ?" +
+                    " AND (t.from_card_id IS NULL OR t.from_card_id NOT IN (" + in + "))" +
+                    keyset + BRANCH_ORDER + branchLimit + ")");
+            args.add(cardId);
+            args.addAll(cardIds);
+            addKeyset(args, afterCreatedAt, afterId);
+        }
+        return "SELECT h.id, h.created_at, h.type, h.status, h.amount, h.description, " +
+                "h.from_card_id, fc.card_number AS from_card_number, h.to_card_id, tc.card_number AS to_card_number " +
+                "FROM (" + String.join(" UNION ALL ", branches) + ") h " +
+                "LEFT JOIN cards fc ON fc.id = h.from_card_id " +
+                "LEFT JOIN cards tc ON tc.id = h.to_card_id " +
+                "ORDER BY h.created_at DESC, h.id DESC";
+    }
+    
+    private static void addKeyset(List<Object> args, Timestamp afterCreatedAt, Long afterId) {
+        if (afterCreatedAt != null) {
+            args.add(afterCreatedAt);
+            args.add(afterId);
+        }
+    }
+    
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+    
+    private static TransactionView mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return new TransactionView(
+            rs.getLong("id"),
+            createdAt != null ? createdAt.toLocalDateTime() : null,
+            Transaction.TransactionType.valueOf(rs.getString("type")),
+            Transaction.TransactionStatus.valueOf(rs.getString("status")),
+            rs.getBigDecimal("amount"),
+            rs.getString("description"),
+            rs.getObject("from_card_id", Long.class),
+            rs.getString("from_card_number"),
+            rs.getObject("to_card_id", Long.class),
+            rs.getString("to_card_number")
+        );
+    }
+}
@@ -2,13 +2,13 @@ package com.bank.cards.repository;
 
 import com.bank.cards.entity.Card;
 import com.bank.cards.entity.Transaction;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 @Repository
@@ -16,9 +16,19 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     
     List<Transaction> findByFromCardOrToCardOrderByCreatedAtDesc(Card fromCard, Card toCard);
     
-    @Query("SELECT t FROM Transaction t LEFT JOIN FETCH t.fromCard LEFT JOIN FETCH t.toCard WHERE (t.fromCard IS NOT NULL AND t.fromCard.id = :cardId) OR (t.toCard IS NOT NULL AND t.toCard.id = :cardId) ORDER BY t.createdAt DESC")
-    Page<Transaction> findByCardId(@Param("cardId") Long cardId, Pageable pageable);
+    // Per-day totals of one card's history, newest day first, for rebuilding card_daily_stats
+    @Query("SELECT CAST(t.createdAt AS LocalDate) AS statDate, " +
+           "SUM(CASE WHEN t.fromCard.id = :cardId THEN t.amount ELSE 0 END) AS debits, " +
+           "SUM(CASE WHEN t.toCard.id = :cardId THEN t.amount ELSE 0 END) AS credits, " +
+           "COUNT(t) AS transactionCount " +
+           "FROM Transaction t WHERE (t.fromCard.id = :cardId OR t.toCard.id = :cardId) AND t.status = 'COMPLETED' " +
+           "GROUP BY CAST(t.createdAt AS LocalDate) ORDER BY CAST(t.createdAt AS LocalDate) DESC")
+    List<DailyActivity> findDailyActivity(@Param("cardId") Long cardId);
     
-    @Query("SELECT t FROM Transaction t LEFT JOIN FETCH t.fromCard LEFT JOIN FETCH t.toCard WHERE (t.fromCard IS NOT NULL AND t.fromCard.owner.id = :userId) OR (t.toCard IS NOT NULL AND t.toCard.owner.id = :userId) ORDER BY t.createdAt DESC")
-    Page<Transaction> findByUserId(@Param("userId") Long userId, Pageable pageable);
-}
\ No newline at end of file
+    interface DailyActivity {
+        LocalDate getStatDate();
+        BigDecimal getDebits();
+        BigDecimal getCredits();
+        Long getTransactionCount();
+    }
+}
@@ -0,0 +1,38 @@
+package com.bank.cards.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class TransferBatchRepository {
+    
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE cards SET balance = balance + ?, updated_at = ?, version = version + 1 WHERE id = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    public TransferBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    // Deltas are applied relative to the stored balance, in the map's iteration order.
+    // Pass a sorted map so concurrent writers always lock card rows in the same order.
+    // The version bump makes JPA writers holding an older copy of the card fail and retry.
+    public void applyBalanceDeltas(Map<Long, BigDecimal> deltas) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((cardId, delta) -> args.add(new Object[]{delta, now, cardId}));
+        jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, args,
+                new int[]{Types.DECIMAL, Types.TIMESTAMP, Types.BIGINT});
+    }
+}
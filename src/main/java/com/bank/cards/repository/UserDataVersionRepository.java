@@ -0,0 +1,48 @@
+package com.bank.cards.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * A cheap fingerprint of everything a user's card and transaction listings are rendered from.
+ * It changes whenever a card is created, deleted or updated (every update bumps the card's
+ * version) and whenever the user's feed rows change, including credits to striped cards that
+ * leave the card row alone: every feed write bumps one of the user's {@code user_feed_versions}
+ * rows. Reading it touches the user's cards and a few counter rows, never the feed itself.
+ */
+@Repository
+public class UserDataVersionRepository {
+    
+    // The feed part is a sum of counters, so it grows with every commit whatever the order of transaction ids
+    private static final String VERSION_SQL = "SELECT c.cards, c.max_id, c.versions, c.updated, f.feed FROM " +
+            "(SELECT COUNT(*) AS cards, MAX(id) AS max_id, COALESCE(SUM(version), 0) AS versions, MAX(updated_at) AS updated " +
+            "FROM cards WHERE owner_id = ?) c, " +
+            "(SELECT COALESCE(SUM(version), 0) AS feed FROM user_feed_versions WHERE user_id = ?) f";
+    
+    private static final String BUMP_SQL = "UPDATE user_feed_versions SET version = version + 1 WHERE user_id = ? AND shard = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    public UserDataVersionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    public String findVersion(Long userId) {
+        return jdbcTemplate.queryForObject(VERSION_SQL, (rs, rowNum) -> rs.getLong("cards") + ":" + rs.getLong("max_id") + ":" +
+                rs.getLong("versions") + ":" + rs.getTimestamp("updated") + ":" + rs.getLong("feed"), userId, userId);
+    }
+    
+    // Callers bump a set of users in ascending id order, so two writers cannot wait on each other's rows
+    public void bumpFeedVersion(Long userId, int shard) {
+        if (jdbcTemplate.update(BUMP_SQL, userId, shard) > 0) {
+            return;
+        }
+        // First bump of this shard: the user's row lock lets only one writer create it
+        jdbcTemplate.queryForList("SELECT id FROM users WHERE id = ? FOR UPDATE", Long.class, userId);
+        if (jdbcTemplate.update(BUMP_SQL, userId, shard) == 0) {
+            jdbcTemplate.update("INSERT INTO user_feed_versions (user_id, shard, version) VALUES (?, ?, 1)", userId, shard);
+        }
+    }
+}
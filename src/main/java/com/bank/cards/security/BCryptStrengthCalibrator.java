@@ -0,0 +1,40 @@
+package com.bank.cards.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+/**
+ * Picks the highest BCrypt strength whose hash time on this machine stays within a target.
+ * Each strength step doubles the work, so one timed hash at the minimum strength is enough
+ * to extrapolate the rest.
+ */
+public final class BCryptStrengthCalibrator {
+    
+    private static final Logger log = LoggerFactory.getLogger(BCryptStrengthCalibrator.class);
+    
+    private BCryptStrengthCalibrator() {}
+    
+    public static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        String salt = BCrypt.gensalt(minStrength);
+        BCrypt.hashpw("calibration", salt); // warm up
+        long start = System.nanoTime();
+        BCrypt.hashpw("calibration", salt);
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+        
+        int strength = strengthFor(millis, minStrength, targetMillis, maxStrength);
+        log.info("BCrypt strength {}: {} ms per hash at strength {}, target {} ms",
+                strength, Math.round(millis), minStrength, targetMillis);
+        return strength;
+    }
+    
+    static int strengthFor(double millisAtMin, int minStrength, long targetMillis, int maxStrength) {
+        int strength = minStrength;
+        double millis = millisAtMin;
+        while (strength < maxStrength && millis * 2 <= targetMillis) {
+            millis *= 2;
+            strength++;
+        }
+        return strength;
+    }
+}
@@ -0,0 +1,154 @@
+package com.bank.cards.security;
+
+import com.bank.cards.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control in front of the controllers. Runs after {@link JwtAuthenticationFilter}
+ * and keeps a token bucket per caller and endpoint group: per user id once authenticated,
+ * per client IP for {@code /auth/**} and anonymous requests. A request without a token gets
+ * 429 with Retry-After. Buckets unused for the idle time are evicted.
+ * <p>
+ * A batch transfer is admitted before its body is read and can carry up to
+ * {@code transfer.batch.max-size} transfers, so batches have a group of their own with a much
+ * lower rate instead of costing one transfer token.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    
+    enum Group { AUTH, TRANSFERS, BATCH_TRANSFERS, DEFAULT }
+    
+    private final boolean enabled;
+    private final Limit authLimit;
+    private final Limit transfersLimit;
+    private final Limit batchTransfersLimit;
+    private final Limit defaultLimit;
+    private final Cache<String, TokenBucket> buckets;
+    private final MeterRegistry meterRegistry;
+    
+    @Autowired
+    public RateLimitFilter(MeterRegistry meterRegistry,
+                           @Value("${rate-limit.enabled:true}") boolean enabled,
+                           @Value("${rate-limit.idle-seconds:600}") long idleSeconds,
+                           @Value("${rate-limit.max-buckets:100000}") long maxBuckets,
+                           @Value("${rate-limit.auth.capacity:10}") int authCapacity,
+                           @Value("${rate-limit.auth.per-second:1}") double authPerSecond,
+                           @Value("${rate-limit.transfers.capacity:20}") int transfersCapacity,
+                           @Value("${rate-limit.transfers.per-second:10}") double transfersPerSecond,
+                           @Value("${rate-limit.batch-transfers.capacity:2}") int batchTransfersCapacity,
+                           @Value("${rate-limit.batch-transfers.per-second:0.02}") double batchTransfersPerSecond,
+                           @Value("${rate-limit.default.capacity:100}") int defaultCapacity,
+                           @Value("${rate-limit.default.per-second:50}") double defaultPerSecond) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.authLimit = new Limit(authCapacity, authPerSecond);
+        this.transfersLimit = new Limit(transfersCapacity, transfersPerSecond);
+        this.batchTransfersLimit = new Limit(batchTransfersCapacity, batchTransfersPerSecond);
+        this.defaultLimit = new Limit(defaultCapacity, defaultPerSecond);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(Duration.ofSeconds(idleSeconds))
+                .build();
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Group group = groupOf(request.getRequestURI().substring(request.getContextPath().length()));
+        Limit limit = limitOf(group);
+        String key = group + ":" + callerOf(request, group);
+        long now = System.nanoTime();
+        
+        long waitNanos = buckets.get(key, k -> new TokenBucket(limit.capacity, limit.perSecond, now)).tryAcquire(now);
+        if (waitNanos > 0) {
+            reject(response, group, waitNanos);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+    
+    static Group groupOf(String path) {
+        if (path.startsWith("/auth/")) {
+            return Group.AUTH;
+        }
+        if (path.startsWith("/transactions/transfer/batch")) {
+            return Group.BATCH_TRANSFERS;
+        }
+        if (path.startsWith("/transactions/transfer")) {
+            return Group.TRANSFERS;
+        }
+        return Group.DEFAULT;
+    }
+    
+    private Limit limitOf(Group group) {
+        return switch (group) {
+            case AUTH -> authLimit;
+            case TRANSFERS -> transfersLimit;
+            case BATCH_TRANSFERS -> batchTransfersLimit;
+            case DEFAULT -> defaultLimit;
+        };
+    }
+    
+    // Login and registration are keyed by address so that guessing passwords for many users still counts as one caller.
+    // Behind a proxy, set server.forward-headers-strategy so getRemoteAddr() is the client.
+    private String callerOf(HttpServletRequest request, Group group) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (group != Group.AUTH && authentication != null && authentication.getPrincipal() instanceof User user) {
+            return "u" + user.getId();
+        }
+        return "ip" + request.getRemoteAddr();
+    }
+    
+    private void reject(HttpServletResponse response, Group group, long waitNanos) throws IOException {
+        Counter.builder("http.server.requests.rate_limited")
+                .description("Requests rejected with 429 by the rate limiter")
+                .tag("group", group.name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+        
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Too Many Requests\",\"message\":\"Rate limit exceeded, retry in "
+                + retryAfterSeconds + " s\",\"timestamp\":\"" + Instant.now() + "\"}");
+    }
+    
+    private static final class Limit {
+        
+        private final int capacity;
+        private final double perSecond;
+        
+        Limit(int capacity, double perSecond) {
+            this.capacity = capacity;
+            this.perSecond = perSecond;
+        }
+    }
+}
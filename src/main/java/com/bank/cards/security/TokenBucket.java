@@ -0,0 +1,45 @@
+package com.bank.cards.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket holding up to {@code capacity} requests and refilled at a fixed rate.
+ * <p>
+ * The whole state is one timestamp: the time at which the bucket would be full again
+ * (the generic cell rate algorithm). Taking a token moves it one refill interval forward
+ * with a compare-and-set, so concurrent requests never block each other.
+ */
+public final class TokenBucket {
+    
+    private final long refillIntervalNanos;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+    
+    public TokenBucket(int capacity, double tokensPerSecond, long nowNanos) {
+        if (capacity < 1 || tokensPerSecond <= 0) {
+            throw new IllegalArgumentException("Capacity and refill rate must be positive");
+        }
+        this.refillIntervalNanos = (long) (1_000_000_000L / tokensPerSecond);
+        this.burstNanos = refillIntervalNanos * capacity;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+    
+    /**
+     * Takes a token if one is available.
+     *
+     * @return 0 if the request may proceed, otherwise nanoseconds until a token is available
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + refillIntervalNanos;
+            long wait = next - nowNanos - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.bank.cards.security;
+
+import com.bank.cards.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// JPA listener on User, created by Hibernate through Spring. The cache is looked up lazily
+// because it depends on UserRepository, which is only ready after the EntityManagerFactory.
+@Component
+public class UserCacheInvalidationListener {
+    
+    private final ObjectProvider<UserPrincipalCache> userPrincipalCache;
+    
+    @Autowired
+    public UserCacheInvalidationListener(ObjectProvider<UserPrincipalCache> userPrincipalCache) {
+        this.userPrincipalCache = userPrincipalCache;
+    }
+    
+    @PostUpdate
+    @PostRemove
+    public void onChange(User user) {
+        String username = user.getUsername();
+        evict(username);
+        
+        // Evict again after commit, so a request that re-read the old row meanwhile is not kept
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(username);
+                }
+            });
+        }
+    }
+    
+    private void evict(String username) {
+        UserPrincipalCache cache = userPrincipalCache.getIfAvailable();
+        if (cache != null) {
+            cache.evict(username);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.bank.cards.security;
+
+import com.bank.cards.entity.User;
+import com.bank.cards.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Authenticated principals by username, so a request with a valid token does not need a
+ * users query. Entries expire after a fixed time and the least used ones are evicted when
+ * the cache is full; {@link UserCacheInvalidationListener} drops an entry when its row changes.
+ * Hit/miss counts are published as {@code cache.gets{cache=principals}}.
+ */
+@Component
+public class UserPrincipalCache {
+    
+    private final UserRepository userRepository;
+    private final Cache<String, User> cache;
+    
+    @Autowired
+    public UserPrincipalCache(UserRepository userRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${security.principal-cache.max-size:10000}") long maxSize,
+                              @Value("${security.principal-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principals");
+    }
+    
+    // Unknown usernames are not cached, so a user registered a moment ago is found
+    public Optional<User> get(String username) {
+        return Optional.ofNullable(cache.get(username, key -> userRepository.findByUsername(key).orElse(null)));
+    }
+    
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+    
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+}
@@ -16,6 +16,8 @@ public interface CardService {
     
     CardDto updateCardStatus(Long cardId, Card.CardStatus status, User user);
     
+    CardDto updateBalanceShards(Long cardId, int shards, User user);
+    
     void deleteCard(Long cardId, User user);
     
     List<CardDto> getAllCards(User user);
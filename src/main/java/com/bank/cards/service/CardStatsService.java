@@ -0,0 +1,21 @@
+package com.bank.cards.service;
+
+import com.bank.cards.dto.CardStatsDto;
+import com.bank.cards.entity.Transaction;
+import com.bank.cards.entity.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public interface CardStatsService {
+    
+    CardStatsDto getCardStats(Long cardId, User user, LocalDate from, LocalDate to);
+    
+    // Adds transfers to the daily rollups inside the transaction that writes them.
+    // balancesBefore holds each involved card's balance before the first transfer in the list.
+    void recordTransfers(List<Transaction> transactions, Map<Long, BigDecimal> balancesBefore);
+    
+    void rebuildCardStats(Long cardId);
+}
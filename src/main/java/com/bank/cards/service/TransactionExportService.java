@@ -0,0 +1,43 @@
+package com.bank.cards.service;
+
+import com.bank.cards.entity.User;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+public interface TransactionExportService {
+    
+    /**
+     * Checks that the card belongs to the user and returns a body that streams its full
+     * history in the given format when the response is written.
+     */
+    StreamingResponseBody exportCardTransactions(Long cardId, User user, ExportFormat format);
+    
+    enum ExportFormat {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+        
+        private final String contentType;
+        private final String extension;
+        
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+        
+        public static ExportFormat fromParameter(String format) {
+            for (ExportFormat value : values()) {
+                if (value.extension.equalsIgnoreCase(format)) {
+                    return value;
+                }
+            }
+            throw new RuntimeException("Unsupported export format: " + format);
+        }
+        
+        public String getContentType() {
+            return contentType;
+        }
+        
+        public String getExtension() {
+            return extension;
+        }
+    }
+}
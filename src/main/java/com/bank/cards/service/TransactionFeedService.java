@@ -0,0 +1,21 @@
+package com.bank.cards.service;
+
+import com.bank.cards.entity.Transaction;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface TransactionFeedService {
+    
+    // Adds feed rows for new transactions inside the transaction that writes them
+    void recordTransfers(List<Transaction> transactions);
+    
+    // Transactions whose feed rows change when the card is deleted; refresh them after the delete
+    List<Long> findTransactionIdsByCard(Long cardId);
+    
+    // Replaces the feed rows of these transactions with ones derived from the current data
+    void refresh(Collection<Long> transactionIds);
+    
+    // Transactions among these whose feed rows differ from the derived ones
+    List<Long> findInconsistent(Collection<Long> transactionIds);
+}
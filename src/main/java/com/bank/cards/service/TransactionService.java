@@ -1,16 +1,27 @@
 package com.bank.cards.service;
 
+import com.bank.cards.dto.BatchTransferResult;
+import com.bank.cards.dto.CursorPage;
+import com.bank.cards.dto.TransactionView;
 import com.bank.cards.dto.TransferRequest;
 import com.bank.cards.entity.Transaction;
 import com.bank.cards.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+
 public interface TransactionService {
     
     Transaction transferBetweenOwnCards(TransferRequest transferRequest, User user);
     
-    Page<Transaction> getUserTransactions(User user, Pageable pageable);
+    List<BatchTransferResult> transferBatch(List<TransferRequest> transferRequests, User user);
+    
+    Page<TransactionView> getUserTransactions(User user, Pageable pageable);
+    
+    Page<TransactionView> getCardTransactions(Long cardId, User user, Pageable pageable);
+    
+    CursorPage<TransactionView> scrollUserTransactions(User user, String cursor, int size);
     
-    Page<Transaction> getCardTransactions(Long cardId, User user, Pageable pageable);
+    CursorPage<TransactionView> scrollCardTransactions(Long cardId, User user, String cursor, int size);
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.bank.cards.service.balance;
+
+import com.bank.cards.entity.Card;
+import com.bank.cards.repository.CardBalanceShardRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Balance operations on striped cards ({@code balance_shards > 0}).
+ * <p>
+ * A striped card's balance is its {@code cards.balance} plus the sum of its
+ * {@code card_balance_shards} rows. Credits add to one shard picked at random and never touch
+ * the card row, so concurrent credits to one card scale with the number of shards. A debit
+ * takes the amount from the first shard that covers it; when none does, it consolidates: all
+ * shards are locked and moved into the card row, which is then debited like a plain card.
+ * Cards that are not striped are changed through the card entity as before.
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class StripedBalances {
+    
+    private final CardBalanceShardRepository shardRepository;
+    private final int maxShards;
+    
+    @Autowired
+    public StripedBalances(CardBalanceShardRepository shardRepository,
+                           @Value("${striped-balances.max-shards:64}") int maxShards) {
+        this.shardRepository = shardRepository;
+        this.maxShards = maxShards;
+    }
+    
+    // Not locked: concurrent transfers may change the shards right after the read
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public BigDecimal total(Card card) {
+        if (!card.isBalanceStriped()) {
+            return card.getBalance();
+        }
+        return card.getBalance().add(shardRepository.sum(card.getId()));
+    }
+    
+    public void credit(Card card, BigDecimal amount) {
+        if (!card.isBalanceStriped()) {
+            card.setBalance(card.getBalance().add(amount));
+            return;
+        }
+        int shard = ThreadLocalRandom.current().nextInt(card.getBalanceShards());
+        if (shardRepository.credit(card.getId(), shard, amount) == 0) {
+            throw new OptimisticLockingFailureException("Balance shards of card " + card.getId() + " changed");
+        }
+    }
+    
+    public void debit(Card card, BigDecimal amount) {
+        if (card.isBalanceStriped() && card.getBalance().signum() >= 0) {
+            // Start at a random shard so concurrent debits spread like credits do
+            int shards = card.getBalanceShards();
+            int start = ThreadLocalRandom.current().nextInt(shards);
+            for (int i = 0; i < shards; i++) {
+                if (shardRepository.tryDebit(card.getId(), (start + i) % shards, amount)) {
+                    return;
+                }
+            }
+        }
+    
+        consolidate(card);
+        if (card.getBalance().compareTo(amount) < 0) {
+            throw new RuntimeException("Insufficient balance");
+        }
+        card.setBalance(card.getBalance().subtract(amount));
+    }
+    
+    // Moves the shards into the card row; the shards stay locked and the card is version-checked at flush
+    public void consolidate(Card card) {
+        if (card.isBalanceStriped()) {
+            card.setBalance(card.getBalance().add(shardRepository.drain(card.getId())));
+        }
+    }
+    
+    // Changes the number of shards without changing the card's balance; 0 turns striping off
+    public void reshard(Card card, int shards) {
+        if (shards < 0 || shards > maxShards) {
+            throw new RuntimeException("Balance shards must be between 0 and " + maxShards);
+        }
+        consolidate(card);
+        shardRepository.deleteByCardId(card.getId());
+        if (shards > 0) {
+            shardRepository.create(card.getId(), shards);
+        }
+        card.setBalanceShards(shards);
+    }
+}
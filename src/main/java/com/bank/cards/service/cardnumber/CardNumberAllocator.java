@@ -0,0 +1,176 @@
+package com.bank.cards.service.cardnumber;
+
+import com.bank.cards.entity.Card;
+import com.bank.cards.entity.CardNumberBlock;
+import com.bank.cards.repository.CardNumberBlockRepository;
+import com.bank.cards.repository.CardRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Issues 16-digit card numbers: a 6-digit BIN per card type, a 9-digit account serial and a
+ * Luhn check digit. Serials are reserved from {@code card_number_blocks} a block at a time, so
+ * issuing a number normally costs no query. Serials are scrambled with a fixed permutation of
+ * the serial space, which keeps issued numbers unique without making them sequential.
+ * <p>
+ * Numbers entered by users are not drawn from blocks and may collide with a generated one.
+ * Those are tracked in a Bloom filter, and only filter hits are checked against the database.
+ * The unique constraint on {@code cards.card_number} stays as the last line of defence.
+ * <p>
+ * A block is reserved in a new transaction, so that a rolled back card cannot hand its serials
+ * out again. Call {@link #allocate} before starting a transaction: inside one the reservation
+ * waits for a second connection while holding the first, and under load the pool runs dry.
+ */
+@Component
+public class CardNumberAllocator {
+    
+    private static final Logger log = LoggerFactory.getLogger(CardNumberAllocator.class);
+    
+    static final long SERIAL_SPACE = 1_000_000_000L;
+    
+    // Multiplier coprime to 10^9, so serial -> (A * serial + C) mod 10^9 is a bijection
+    private static final long PERMUTATION_MULTIPLIER = 387_420_489L;
+    private static final long PERMUTATION_OFFSET = 271_828_183L;
+    
+    private final CardRepository cardRepository;
+    private final CardNumberBlockRepository cardNumberBlockRepository;
+    private final TransactionTemplate newTransaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int blockSize;
+    private final Map<Card.CardType, Block> blocks = new EnumMap<>(Card.CardType.class);
+    private final CardNumberFilter issuedNumbers;
+    private final AtomicLong databaseChecks = new AtomicLong();
+    
+    @Autowired
+    public CardNumberAllocator(CardRepository cardRepository,
+                               CardNumberBlockRepository cardNumberBlockRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${card-number.bins.debit:220012}") String debitBin,
+                               @Value("${card-number.bins.credit:220013}") String creditBin,
+                               @Value("${card-number.block-size:100}") int blockSize,
+                               @Value("${card-number.filter.expected-numbers:1000000}") long expectedNumbers) {
+        this.cardRepository = cardRepository;
+        this.cardNumberBlockRepository = cardNumberBlockRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.blockSize = blockSize;
+        this.blocks.put(Card.CardType.DEBIT, new Block(checkBin(debitBin)));
+        this.blocks.put(Card.CardType.CREDIT, new Block(checkBin(creditBin)));
+        this.issuedNumbers = new CardNumberFilter(expectedNumbers, 0.01);
+    }
+    
+    @PostConstruct
+    void loadIssuedNumbers() {
+        long loaded = readOnlyTransaction.execute(status -> {
+            try (Stream<String> numbers = cardRepository.streamAllCardNumbers()) {
+                return numbers.peek(issuedNumbers::put).count();
+            }
+        });
+        log.info("Loaded {} existing card numbers into the allocator filter", loaded);
+    }
+    
+    public String allocate(Card.CardType cardType) {
+        Block block = blocks.get(cardType != null ? cardType : Card.CardType.DEBIT);
+        while (true) {
+            String candidate = block.nextNumber();
+            if (issuedNumbers.mightContain(candidate)) {
+                databaseChecks.incrementAndGet();
+                if (cardRepository.existsByCardNumber(candidate)) {
+                    continue;
+                }
+            }
+            issuedNumbers.put(candidate);
+            return candidate;
+        }
+    }
+    
+    // Numbers chosen by users; a later generated number equal to one of these will be skipped
+    public void register(String cardNumber) {
+        issuedNumbers.put(cardNumber);
+    }
+    
+    public long getDatabaseChecks() {
+        return databaseChecks.get();
+    }
+    
+    private long[] reserveBlock(String bin) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return newTransaction.execute(status -> {
+                    long end;
+                    if (cardNumberBlockRepository.advance(bin, blockSize) == 0) {
+                        cardNumberBlockRepository.saveAndFlush(new CardNumberBlock(bin, (long) blockSize));
+                        end = blockSize;
+                    } else {
+                        end = cardNumberBlockRepository.findById(bin)
+                                .orElseThrow(() -> new IllegalStateException("BIN row vanished: " + bin))
+                                .getNextSerial();
+                    }
+                    long start = end - blockSize;
+                    if (start >= SERIAL_SPACE) {
+                        throw new RuntimeException("Card numbers exhausted for BIN " + bin);
+                    }
+                    return new long[]{start, Math.min(end, SERIAL_SPACE)};
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Another node created the BIN row first; lock it on the next attempt
+                if (attempt > 0) {
+                    throw e;
+                }
+            }
+        }
+    }
+    
+    static String format(String bin, long serial) {
+        long permuted = (PERMUTATION_MULTIPLIER * serial + PERMUTATION_OFFSET) % SERIAL_SPACE;
+        StringBuilder number = new StringBuilder(16).append(bin);
+        String digits = Long.toString(permuted);
+        for (int i = digits.length(); i < 9; i++) {
+            number.append('0');
+        }
+        number.append(digits);
+        return number.append(Luhn.checkDigit(number)).toString();
+    }
+    
+    private static String checkBin(String bin) {
+        if (bin == null || !bin.matches("\\d{6}")) {
+            throw new IllegalArgumentException("Card BIN must be 6 digits: " + bin);
+        }
+        return bin;
+    }
+    
+    private class Block {
+        
+        private final String bin;
+        private long next;
+        private long end;
+        
+        Block(String bin) {
+            this.bin = bin;
+        }
+        
+        synchronized String nextNumber() {
+            if (next >= end) {
+                long[] reserved = reserveBlock(bin);
+                next = reserved[0];
+                end = reserved[1];
+            }
+            return format(bin, next++);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.bank.cards.service.cardnumber;
+
+public final class Luhn {
+    
+    private Luhn() {}
+    
+    // Check digit that makes payload + digit pass the Luhn (mod 10) check
+    public static int checkDigit(CharSequence payload) {
+        int sum = 0;
+        boolean doubled = true;
+        for (int i = payload.length() - 1; i >= 0; i--) {
+            int digit = payload.charAt(i) - '0';
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return (10 - sum % 10) % 10;
+    }
+    
+    public static boolean isValid(String number) {
+        if (number == null || number.length() < 2 || !number.chars().allMatch(Character::isDigit)) {
+            return false;
+        }
+        int last = number.length() - 1;
+        return checkDigit(number.subSequence(0, last)) == number.charAt(last) - '0';
+    }
+}
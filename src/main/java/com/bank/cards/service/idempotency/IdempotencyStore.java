@@ -0,0 +1,195 @@
+package com.bank.cards.service.idempotency;
+
+import com.bank.cards.entity.IdempotencyRecord;
+import com.bank.cards.repository.IdempotencyRecordRepository;
+import com.bank.cards.service.TransactionCallbacks;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per Idempotency-Key and replays the stored response for repeats.
+ * <p>
+ * Completed responses are kept in a bounded in-memory cache in front of the
+ * {@code idempotency_keys} table, so most repeats are answered without a query. A new key is
+ * inserted before the action runs and in the same transaction, so a concurrent repeat waits
+ * on that insert and fails on the primary key without loading any card. Rows are deleted
+ * once they are older than the configured time to live.
+ */
+@Component
+public class IdempotencyStore {
+    
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+    
+    static final int MAX_KEY_LENGTH = 64;
+    
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Cache<String, StoredResponse> responses;
+    private final Counter replays;
+    
+    @Autowired
+    public IdempotencyStore(IdempotencyRecordRepository repository,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${idempotency.ttl-hours:24}") long ttlHours,
+                            @Value("${idempotency.cache.max-size:100000}") long maxSize) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = Duration.ofHours(ttlHours);
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "idempotencyKeys");
+        this.replays = Counter.builder("idempotency.replays")
+                .description("Requests answered with the stored response of an earlier one")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Runs the action in a new transaction and stores its result as the JSON response for the key,
+     * or returns the stored response if the key was already used. Transactional services called
+     * by the action join that transaction.
+     */
+    public StoredResponse execute(Long userId, String key, Object request, HttpStatus status, Supplier<?> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        
+        String id = userId + ":" + key;
+        String requestHash = hash(request);
+        StoredResponse cached = responses.getIfPresent(id);
+        if (cached != null) {
+            return replay(cached, requestHash);
+        }
+        
+        try {
+            return transactionTemplate.execute(tx -> executeOnce(id, requestHash, status, action));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request with the same key committed first; anything else is the action's own failure
+            return repository.findById(id)
+                    .map(this::remember)
+                    .map(stored -> replay(stored, requestHash))
+                    .orElseThrow(() -> e);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval-ms:600000}")
+    public void deleteExpired() {
+        Integer deleted = transactionTemplate.execute(tx -> repository.deleteExpired(LocalDateTime.now()));
+        if (deleted != null && deleted > 0) {
+            log.debug("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+    
+    private StoredResponse executeOnce(String id, String requestHash, HttpStatus status, Supplier<?> action) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<IdempotencyRecord> existing = repository.findById(id);
+        if (existing.isPresent()) {
+            if (!existing.get().isExpired(now)) {
+                return replay(remember(existing.get()), requestHash);
+            }
+            repository.delete(existing.get());
+            repository.flush();
+        }
+        
+        IdempotencyRecord record = repository.saveAndFlush(new IdempotencyRecord(id, requestHash, now, now.plus(ttl)));
+        StoredResponse response = new StoredResponse(status.value(), toJson(action.get()), requestHash, false);
+        record.setResponseStatus(response.getStatus());
+        record.setResponseBody(response.getBody());
+        TransactionCallbacks.afterCommit(() -> responses.put(id, response));
+        return response;
+    }
+    
+    private StoredResponse remember(IdempotencyRecord record) {
+        StoredResponse stored = new StoredResponse(record.getResponseStatus(), record.getResponseBody(),
+                record.getRequestHash(), false);
+        responses.put(record.getId(), stored);
+        return stored;
+    }
+    
+    private StoredResponse replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash.equals(requestHash)) {
+            throw new RuntimeException("Idempotency-Key was already used for a different request");
+        }
+        replays.increment();
+        return new StoredResponse(stored.status, stored.body, stored.requestHash, true);
+    }
+    
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize response", e);
+        }
+    }
+    
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] json = toJson(request).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(digest.digest(json));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * A response body as JSON, with the hash of the request that produced it.
+     */
+    public static class StoredResponse {
+        
+        private final int status;
+        private final String body;
+        private final String requestHash;
+        private final boolean replayed;
+        
+        StoredResponse(int status, String body, String requestHash, boolean replayed) {
+            this.status = status;
+            this.body = body;
+            this.requestHash = requestHash;
+            this.replayed = replayed;
+        }
+        
+        public int getStatus() {
+            return status;
+        }
+        
+        public String getBody() {
+            return body;
+        }
+        
+        public boolean isReplayed() {
+            return replayed;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.bank.cards.service.impl;
+
+import com.bank.cards.config.CacheConfig;
+import com.bank.cards.entity.Card;
+import com.bank.cards.repository.CardRepository;
+import com.bank.cards.service.ledger.CardLedger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves ACTIVE cards past their expiry month to EXPIRED. Due cards are walked in
+ * (expiry month, id) order one chunk at a time, along the partial index over ACTIVE cards, so
+ * a sweep with nothing due reads no rows; each chunk is updated with one statement and committed on its own, so row
+ * locks are held briefly and transfers are not blocked behind the whole sweep. The update
+ * repeats the expiry condition, so several nodes can sweep at the same time and each card is
+ * changed by only one of them.
+ */
+@Component
+@ConditionalOnProperty(name = "card-expiry.enabled", havingValue = "true", matchIfMissing = true)
+public class CardExpirySweeper {
+    
+    private static final Logger log = LoggerFactory.getLogger(CardExpirySweeper.class);
+    
+    private final CardRepository cardRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache userCardsCache;
+    private final int chunkSize;
+    private final Timer sweepTimer;
+    private final Counter expiredCounter;
+    private CardLedger cardLedger;
+    
+    @Autowired
+    public CardExpirySweeper(CardRepository cardRepository,
+                             PlatformTransactionManager transactionManager,
+                             CacheManager cacheManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${card-expiry.chunk-size:500}") int chunkSize) {
+        this.cardRepository = cardRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userCardsCache = cacheManager.getCache(CacheConfig.USER_CARDS);
+        this.chunkSize = chunkSize;
+        this.sweepTimer = Timer.builder("cards.expiry.sweep")
+                .description("Time to expire all cards past their expiry month")
+                .register(meterRegistry);
+        this.expiredCounter = Counter.builder("cards.expired")
+                .description("Cards moved to EXPIRED by the sweeper")
+                .register(meterRegistry);
+    }
+    
+    // Present only when ledger.enabled=true
+    @Autowired(required = false)
+    public void setCardLedger(CardLedger cardLedger) {
+        this.cardLedger = cardLedger;
+    }
+    
+    @Scheduled(initialDelayString = "${card-expiry.initial-delay-ms:60000}",
+               fixedDelayString = "${card-expiry.interval-ms:3600000}")
+    public void sweep() {
+        YearMonth currentMonth = YearMonth.now();
+        long started = System.nanoTime();
+        PageRequest page = PageRequest.of(0, chunkSize);
+        CardRepository.ExpiredCard last = null;
+        int total = 0;
+        int chunks = 0;
+        List<CardRepository.ExpiredCard> chunk;
+        do {
+            // Cards the update skipped stay ACTIVE, so the next chunk seeks past the last one read
+            chunk = last == null
+                    ? cardRepository.findExpiredActiveCards(currentMonth, page)
+                    : cardRepository.findExpiredActiveCardsAfter(currentMonth, last.getExpiryDate(), last.getId(), page);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            List<CardRepository.ExpiredCard> cards = chunk;
+            total += transactionTemplate.execute(tx -> expire(cards, currentMonth));
+            last = chunk.get(chunk.size() - 1);
+            chunks++;
+        } while (chunk.size() == chunkSize);
+        
+        long elapsedNanos = System.nanoTime() - started;
+        sweepTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (total > 0) {
+            log.info("Expired {} cards in {} chunks in {} ms", total, chunks, elapsedNanos / 1_000_000);
+        }
+    }
+    
+    private int expire(List<CardRepository.ExpiredCard> cards, YearMonth currentMonth) {
+        int updated = cardRepository.markExpired(cards.stream().map(CardRepository.ExpiredCard::getId).toList(), currentMonth);
+        expiredCounter.increment(updated);
+        
+        // Both apply after commit: the cache manager is transaction-aware and the ledger defers status changes
+        for (CardRepository.ExpiredCard card : cards) {
+            userCardsCache.evict(card.getOwnerId());
+            if (cardLedger != null) {
+                cardLedger.updateStatus(card.getId(), Card.CardStatus.EXPIRED);
+            }
+        }
+        return updated;
+    }
+}
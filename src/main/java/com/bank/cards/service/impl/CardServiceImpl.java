@@ -1,12 +1,20 @@
 package com.bank.cards.service.impl;
 
+import com.bank.cards.config.CacheConfig;
 import com.bank.cards.dto.CardDto;
 import com.bank.cards.entity.Card;
 import com.bank.cards.entity.User;
 import com.bank.cards.repository.CardRepository;
 import com.bank.cards.service.CardService;
+import com.bank.cards.service.TransactionFeedService;
+import com.bank.cards.service.balance.StripedBalances;
+import com.bank.cards.service.cardnumber.CardNumberAllocator;
+import com.bank.cards.service.ledger.CardLedger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
@@ -20,14 +28,32 @@ import java.util.stream.Collectors;
 public class CardServiceImpl implements CardService {
     
     private final CardRepository cardRepository;
+    private final CardNumberAllocator cardNumberAllocator;
+    private final TransactionFeedService transactionFeedService;
+    private final StripedBalances stripedBalances;
     private final Random random = new Random();
+    private CardLedger cardLedger;
     
     @Autowired
-    public CardServiceImpl(CardRepository cardRepository) {
+    public CardServiceImpl(CardRepository cardRepository, CardNumberAllocator cardNumberAllocator,
+                           TransactionFeedService transactionFeedService, StripedBalances stripedBalances) {
         this.cardRepository = cardRepository;
+        this.cardNumberAllocator = cardNumberAllocator;
+        this.transactionFeedService = transactionFeedService;
+        this.stripedBalances = stripedBalances;
     }
     
+    // Present only when ledger.enabled=true
+    @Autowired(required = false)
+    public void setCardLedger(CardLedger cardLedger) {
+        this.cardLedger = cardLedger;
+    }
+    
+    // Runs outside a transaction: a number block is reserved in a transaction of its own, which
+    // inside ours would need a second pooled connection while this one waits for it
     @Override
+    @Transactional(propagation = Propagation.NEVER)
+    @CacheEvict(cacheNames = CacheConfig.USER_CARDS, key = "#owner.id")
     public CardDto createCard(CardDto cardDto, User owner) {
         Card card = new Card();
         
@@ -38,9 +64,10 @@ public class CardServiceImpl implements CardService {
             if (cardRepository.existsByCardNumber(cardNumber)) {
                 throw new RuntimeException("Card number already exists");
             }
+            cardNumberAllocator.register(cardNumber);
             card.setCardNumber(cardNumber);
         } else {
-            card.setCardNumber(generateCardNumber());
+            card.setCardNumber(cardNumberAllocator.allocate(cardDto.getCardType()));
         }
         
         card.setCardHolderName(cardDto.getCardHolderName());
@@ -56,10 +83,11 @@ public class CardServiceImpl implements CardService {
     
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.USER_CARDS, key = "#user.id")
     public List<CardDto> getUserCards(User user) {
         List<Card> cards = cardRepository.findByOwner(user);
         return cards.stream()
-                .map(CardDto::new)
+                .map(this::toDto)
                 .collect(Collectors.toList());
     }
     
@@ -68,43 +96,68 @@ public class CardServiceImpl implements CardService {
     public CardDto getCardById(Long cardId, User user) {
         Card card = cardRepository.findByIdAndOwner(cardId, user)
                 .orElseThrow(() -> new RuntimeException("Card not found"));
-        return new CardDto(card);
+        return toDto(card);
     }
     
     @Override
+    @CacheEvict(cacheNames = CacheConfig.USER_CARDS, key = "#user.id")
     public CardDto updateCardStatus(Long cardId, Card.CardStatus status, User user) {
         Card card = cardRepository.findByIdAndOwner(cardId, user)
                 .orElseThrow(() -> new RuntimeException("Card not found"));
         
         card.setStatus(status);
         Card updatedCard = cardRepository.save(card);
-        return new CardDto(updatedCard);
+        if (cardLedger != null) {
+            cardLedger.updateStatus(cardId, status);
+        }
+        return toDto(updatedCard);
     }
     
     @Override
+    @CacheEvict(cacheNames = CacheConfig.USER_CARDS, key = "#user.id")
+    public CardDto updateBalanceShards(Long cardId, int shards, User user) {
+        Card card = cardRepository.findByIdAndOwner(cardId, user)
+                .orElseThrow(() -> new RuntimeException("Card not found"));
+        
+        stripedBalances.reshard(card, shards);
+        Card updatedCard = cardRepository.save(card);
+        return toDto(updatedCard);
+    }
+    
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.USER_CARDS, key = "#user.id")
     public void deleteCard(Long cardId, User user) {
+        // Flush ledger entries before loading, so the delete runs against the latest version. Ownership is
+        // checked first: closing stops transfers on the card, which only its owner may do.
+        if (cardLedger != null) {
+            if (!cardRepository.existsByIdAndOwner(cardId, user)) {
+                throw new RuntimeException("Card not found");
+            }
+            cardLedger.close(cardId);
+        }
+        
         Card card = cardRepository.findByIdAndOwner(cardId, user)
                 .orElseThrow(() -> new RuntimeException("Card not found"));
         
+        // The card's transactions keep their other side (ON DELETE SET NULL); re-derive their feed rows
+        List<Long> transactionIds = transactionFeedService.findTransactionIdsByCard(cardId);
         cardRepository.delete(card);
+        cardRepository.flush();
+        transactionFeedService.refresh(transactionIds);
     }
     
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.USER_CARDS, key = "#user.id")
     public List<CardDto> getAllCards(User user) {
         return getUserCards(user);
     }
     
-    private String generateCardNumber() {
-        StringBuilder cardNumber;
-        do {
-            cardNumber = new StringBuilder();
-            for (int i = 0; i < 16; i++) {
-                cardNumber.append(random.nextInt(10));
-            }
-        } while (cardRepository.existsByCardNumber(cardNumber.toString()));
-        
-        return cardNumber.toString();
+    private CardDto toDto(Card card) {
+        CardDto dto = new CardDto(card);
+        BigDecimal balance = stripedBalances.total(card);
+        dto.setBalance(cardLedger != null ? cardLedger.currentBalance(card.getId(), balance) : balance);
+        return dto;
     }
     
     private String generateCvv() {
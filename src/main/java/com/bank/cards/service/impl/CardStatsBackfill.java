@@ -0,0 +1,51 @@
+package com.bank.cards.service.impl;
+
+import com.bank.cards.repository.CardRepository;
+import com.bank.cards.service.CardStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Rebuilds {@code card_daily_stats} from the transaction history of every card once at
+ * startup. Enable it for a single run after deploying the rollups onto existing data; each
+ * card is rebuilt in its own transaction, so transfers keep running meanwhile.
+ */
+@Component
+@ConditionalOnProperty(name = "card-stats.backfill.enabled", havingValue = "true")
+public class CardStatsBackfill implements ApplicationRunner {
+    
+    private static final Logger log = LoggerFactory.getLogger(CardStatsBackfill.class);
+    
+    private static final int PROGRESS_INTERVAL = 1000;
+    
+    private final CardRepository cardRepository;
+    private final CardStatsService cardStatsService;
+    
+    @Autowired
+    public CardStatsBackfill(CardRepository cardRepository, CardStatsService cardStatsService) {
+        this.cardRepository = cardRepository;
+        this.cardStatsService = cardStatsService;
+    }
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Long> cardIds = cardRepository.findAllIds();
+        log.info("Rebuilding daily stats for {} cards", cardIds.size());
+        long started = System.nanoTime();
+        int done = 0;
+        for (Long cardId : cardIds) {
+            cardStatsService.rebuildCardStats(cardId);
+            if (++done % PROGRESS_INTERVAL == 0) {
+                log.info("Rebuilt daily stats for {}/{} cards", done, cardIds.size());
+            }
+        }
+        log.info("Rebuilt daily stats for {} cards in {} ms", done, (System.nanoTime() - started) / 1_000_000);
+    }
+}
@@ -0,0 +1,192 @@
+package com.bank.cards.service.impl;
+
+import com.bank.cards.dto.CardStatsDto;
+import com.bank.cards.dto.DailyCardStatsDto;
+import com.bank.cards.entity.Card;
+import com.bank.cards.entity.CardDailyStats;
+import com.bank.cards.entity.CardDailyStatsId;
+import com.bank.cards.entity.Transaction;
+import com.bank.cards.entity.User;
+import com.bank.cards.repository.CardBalanceShardRepository;
+import com.bank.cards.repository.CardDailyStatsRepository;
+import com.bank.cards.repository.CardRepository;
+import com.bank.cards.repository.TransactionRepository;
+import com.bank.cards.service.CardStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Card statistics served from {@code card_daily_stats}, so a range query reads a few rows per
+ * active day instead of the card's whole transaction history. With {@code card-stats.shards}
+ * above 1 each transfer adds to one of a card's rows for the day, picked at random, so
+ * transfers into a hot card do not all wait for the same row lock until they commit.
+ */
+@Service
+@Transactional
+public class CardStatsServiceImpl implements CardStatsService {
+    
+    private final CardRepository cardRepository;
+    private final CardDailyStatsRepository cardDailyStatsRepository;
+    private final TransactionRepository transactionRepository;
+    private final CardBalanceShardRepository cardBalanceShardRepository;
+    
+    @Value("${card-stats.max-range-days:366}")
+    private int maxRangeDays;
+    
+    @Value("${card-stats.shards:1}")
+    private int shards;
+    
+    @Autowired
+    public CardStatsServiceImpl(CardRepository cardRepository,
+                                CardDailyStatsRepository cardDailyStatsRepository,
+                                TransactionRepository transactionRepository,
+                                CardBalanceShardRepository cardBalanceShardRepository) {
+        this.cardRepository = cardRepository;
+        this.cardDailyStatsRepository = cardDailyStatsRepository;
+        this.transactionRepository = transactionRepository;
+        this.cardBalanceShardRepository = cardBalanceShardRepository;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public CardStatsDto getCardStats(Long cardId, User user, LocalDate from, LocalDate to) {
+        Card card = cardRepository.findByIdAndOwner(cardId, user)
+                .orElseThrow(() -> new RuntimeException("Card not found"));
+        
+        if (from.isAfter(to)) {
+            throw new RuntimeException("Start date must not be after end date");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new RuntimeException("Date range must not exceed " + maxRangeDays + " days");
+        }
+        
+        List<CardDailyStatsRepository.DayTotals> rows = cardDailyStatsRepository.sumDaysBetween(cardId, from, to);
+        BigDecimal balance = balanceAtStartOf(card, from, to, rows);
+        
+        // Days without a row carry the previous closing balance
+        List<DailyCardStatsDto> days = new ArrayList<>();
+        Iterator<CardDailyStatsRepository.DayTotals> iterator = rows.iterator();
+        CardDailyStatsRepository.DayTotals next = iterator.hasNext() ? iterator.next() : null;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            DailyCardStatsDto stats;
+            if (next != null && next.getStatDate().equals(day)) {
+                stats = new DailyCardStatsDto(day, next.getOpeningBalance(), next.getDebits(),
+                        next.getCredits(), next.getTransactionCount().intValue());
+                next = iterator.hasNext() ? iterator.next() : null;
+            } else {
+                stats = new DailyCardStatsDto(day, balance, BigDecimal.ZERO, BigDecimal.ZERO, 0);
+            }
+            balance = stats.getClosingBalance();
+            days.add(stats);
+        }
+        return new CardStatsDto(cardId, from, to, days);
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransfers(List<Transaction> transactions, Map<Long, BigDecimal> balancesBefore) {
+        // Aggregate per card and day in transfer order, so a new day opens at the running balance.
+        // The whole list goes to one shard.
+        int shard = shards > 1 ? ThreadLocalRandom.current().nextInt(shards) : 0;
+        Map<CardDailyStatsId, CardDailyStats> activity = new LinkedHashMap<>();
+        Map<Long, BigDecimal> balances = new HashMap<>(balancesBefore);
+        for (Transaction transaction : transactions) {
+            LocalDate day = transaction.getCreatedAt().toLocalDate();
+            Long fromCardId = transaction.getFromCard().getId();
+            Long toCardId = transaction.getToCard().getId();
+            BigDecimal amount = transaction.getAmount();
+            
+            CardDailyStats from = dayActivity(activity, balances, fromCardId, day, shard);
+            from.setDebits(from.getDebits().add(amount));
+            from.setTransactionCount(from.getTransactionCount() + 1);
+            balances.merge(fromCardId, amount.negate(), BigDecimal::add);
+            
+            CardDailyStats to = dayActivity(activity, balances, toCardId, day, shard);
+            to.setCredits(to.getCredits().add(amount));
+            if (!toCardId.equals(fromCardId)) {
+                to.setTransactionCount(to.getTransactionCount() + 1);
+            }
+            balances.merge(toCardId, amount, BigDecimal::add);
+        }
+        
+        // Write the card rows first: their row locks keep concurrent rollup writes for a card in order
+        cardDailyStatsRepository.flush();
+        for (CardDailyStats stats : activity.values()) {
+            if (addActivity(stats) == 0) {
+                // Credits to a striped card hold no card row lock; take it so that only one writer
+                // creates each of the day's rows, and only the first of them opens the day
+                cardRepository.lockById(stats.getCardId());
+                if (addActivity(stats) == 0) {
+                    if (cardDailyStatsRepository.existsByCardIdAndStatDate(stats.getCardId(), stats.getStatDate())) {
+                        stats.setOpeningBalance(BigDecimal.ZERO);
+                    }
+                    cardDailyStatsRepository.save(stats);
+                }
+            }
+        }
+    }
+    
+    @Override
+    public void rebuildCardStats(Long cardId) {
+        // Transfers on the card wait for the locks, so none is missed or counted twice. Credits to a
+        // striped card lock only a balance shard; shards are locked before the card row, as transfers do.
+        BigDecimal shards = cardBalanceShardRepository.lockAndSum(cardId);
+        if (cardRepository.lockById(cardId) == 0) {
+            return;
+        }
+        BigDecimal closing = cardRepository.findBalanceById(cardId).orElseThrow().add(shards);
+        
+        // Walk back from the current balance, newest day first
+        List<TransactionRepository.DailyActivity> activity = transactionRepository.findDailyActivity(cardId);
+        List<CardDailyStats> rows = new ArrayList<>(activity.size());
+        for (TransactionRepository.DailyActivity day : activity) {
+            BigDecimal opening = closing.subtract(day.getCredits()).add(day.getDebits());
+            rows.add(new CardDailyStats(cardId, day.getStatDate(), opening, day.getDebits(),
+                    day.getCredits(), day.getTransactionCount().intValue()));
+            closing = opening;
+        }
+        
+        cardDailyStatsRepository.deleteByCardId(cardId);
+        cardDailyStatsRepository.saveAll(rows);
+    }
+    
+    private int addActivity(CardDailyStats stats) {
+        return cardDailyStatsRepository.addActivity(stats.getCardId(), stats.getStatDate(), stats.getShard(),
+                stats.getDebits(), stats.getCredits(), stats.getTransactionCount());
+    }
+    
+    private BigDecimal balanceAtStartOf(Card card, LocalDate from, LocalDate to,
+                                        List<CardDailyStatsRepository.DayTotals> rows) {
+        Optional<CardDailyStatsRepository.DayTotals> previous = cardDailyStatsRepository.sumLastDayBefore(card.getId(), from);
+        if (previous.isPresent()) {
+            return previous.get().getClosingBalance();
+        }
+        if (!rows.isEmpty()) {
+            return rows.get(0).getOpeningBalance();
+        }
+        return cardDailyStatsRepository.sumFirstDayAfter(card.getId(), to)
+                .map(CardDailyStatsRepository.DayTotals::getOpeningBalance)
+                .orElse(card.getBalance());
+    }
+    
+    private CardDailyStats dayActivity(Map<CardDailyStatsId, CardDailyStats> activity,
+                                       Map<Long, BigDecimal> balances, Long cardId, LocalDate day, int shard) {
+        return activity.computeIfAbsent(new CardDailyStatsId(cardId, day, shard),
+                key -> new CardDailyStats(cardId, day, shard, balances.get(cardId), BigDecimal.ZERO, BigDecimal.ZERO, 0));
+    }
+}
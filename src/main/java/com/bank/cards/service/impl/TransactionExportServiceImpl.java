@@ -0,0 +1,189 @@
+package com.bank.cards.service.impl;
+
+import com.bank.cards.dto.TransactionExportRow;
+import com.bank.cards.entity.User;
+import com.bank.cards.repository.CardRepository;
+import com.bank.cards.repository.TransactionExportRepository;
+import com.bank.cards.service.TransactionExportService;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+@Service
+public class TransactionExportServiceImpl implements TransactionExportService {
+    
+    private static final Logger log = LoggerFactory.getLogger(TransactionExportServiceImpl.class);
+    
+    private static final JsonFactory NDJSON_FACTORY = new JsonFactoryBuilder()
+            .rootValueSeparator("\n")
+            .build();
+    
+    private static final String CSV_HEADER =
+            "id,created_at,type,status,amount,description,from_card_id,from_card,to_card_id,to_card\n";
+    
+    private final CardRepository cardRepository;
+    private final TransactionExportRepository transactionExportRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    
+    @Autowired
+    public TransactionExportServiceImpl(CardRepository cardRepository,
+                                        TransactionExportRepository transactionExportRepository,
+                                        PlatformTransactionManager transactionManager) {
+        this.cardRepository = cardRepository;
+        this.transactionExportRepository = transactionExportRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+    
+    @Override
+    public StreamingResponseBody exportCardTransactions(Long cardId, User user, ExportFormat format) {
+        // Checked up front so a foreign card fails before the response is committed
+        cardRepository.findByIdAndOwner(cardId, user)
+                .orElseThrow(() -> new RuntimeException("Card not found"));
+        
+        return outputStream -> {
+            long started = System.nanoTime();
+            long rows = writeCardHistory(cardId, format, outputStream);
+            long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+            log.info("Exported {} transactions of card {} as {} in {} ms ({} rows/s)",
+                    rows, cardId, format, elapsedMillis, rows * 1000 / elapsedMillis);
+        };
+    }
+    
+    long writeCardHistory(Long cardId, ExportFormat format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        RowWriter rowWriter = format == ExportFormat.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+        long[] rows = {0};
+        try {
+            readOnlyTransaction.executeWithoutResult(status ->
+                    transactionExportRepository.streamCardHistory(cardId, row -> {
+                        try {
+                            rowWriter.write(row);
+                            rows[0]++;
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }));
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; rethrow so the container stops writing
+            throw e.getCause();
+        }
+        rowWriter.finish();
+        writer.flush();
+        return rows[0];
+    }
+    
+    private interface RowWriter {
+        
+        void write(TransactionExportRow row) throws IOException;
+        
+        void finish() throws IOException;
+    }
+    
+    private static class NdjsonRowWriter implements RowWriter {
+        
+        private final JsonGenerator generator;
+        
+        NdjsonRowWriter(Writer writer) throws IOException {
+            this.generator = NDJSON_FACTORY.createGenerator(writer);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+        
+        @Override
+        public void write(TransactionExportRow row) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", row.getId());
+            generator.writeStringField("createdAt", row.getCreatedAt() != null ? row.getCreatedAt().toString() : null);
+            generator.writeStringField("type", row.getType());
+            generator.writeStringField("status", row.getStatus());
+            generator.writeNumberField("amount", row.getAmount());
+            generator.writeStringField("description", row.getDescription());
+            writeNullableNumber("fromCardId", row.getFromCardId());
+            generator.writeStringField("fromCard", row.getFromCardNumber());
+            writeNullableNumber("toCardId", row.getToCardId());
+            generator.writeStringField("toCard", row.getToCardNumber());
+            generator.writeEndObject();
+        }
+        
+        @Override
+        public void finish() throws IOException {
+            generator.writeRaw('\n');
+            generator.close();
+        }
+        
+        private void writeNullableNumber(String field, Long value) throws IOException {
+            if (value == null) {
+                generator.writeNullField(field);
+            } else {
+                generator.writeNumberField(field, value);
+            }
+        }
+    }
+    
+    private static class CsvRowWriter implements RowWriter {
+        
+        private final Writer writer;
+        
+        CsvRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(CSV_HEADER);
+        }
+        
+        @Override
+        public void write(TransactionExportRow row) throws IOException {
+            writer.write(String.valueOf(row.getId()));
+            writer.write(',');
+            writer.write(row.getCreatedAt() != null ? row.getCreatedAt().toString() : "");
+            writer.write(',');
+            writer.write(row.getType());
+            writer.write(',');
+            writer.write(row.getStatus());
+            writer.write(',');
+            writer.write(row.getAmount().toPlainString());
+            writer.write(',');
+            writer.write(quote(row.getDescription()));
+            writer.write(',');
+            writer.write(row.getFromCardId() != null ? row.getFromCardId().toString() : "");
+            writer.write(',');
+            writer.write(quote(row.getFromCardNumber()));
+            writer.write(',');
+            writer.write(row.getToCardId() != null ? row.getToCardId().toString() : "");
+            writer.write(',');
+            writer.write(quote(row.getToCardNumber()));
+            writer.write('\n');
+        }
+        
+        @Override
+        public void finish() {
+        }
+        
+        // Spreadsheets run a cell starting with one of these as a formula; a leading quote keeps it text
+        private static String quote(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+                value = "'" + value;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.bank.cards.service.impl;
+
+import com.bank.cards.repository.TransactionFeedRepository;
+import com.bank.cards.service.TransactionFeedService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares {@code user_transaction_feed} with the rows derived from the transaction history
+ * once at startup and logs the transactions that differ. With {@code repair} set, those
+ * transactions are rewritten as they are found.
+ */
+@Component
+@ConditionalOnProperty(name = "transaction-feed.check.enabled", havingValue = "true")
+public class TransactionFeedConsistencyCheck implements ApplicationRunner {
+    
+    private static final Logger log = LoggerFactory.getLogger(TransactionFeedConsistencyCheck.class);
+    
+    private static final int MAX_LOGGED_IDS = 100;
+    
+    private final TransactionFeedRepository transactionFeedRepository;
+    private final TransactionFeedService transactionFeedService;
+    private final int chunkSize;
+    private final boolean repair;
+    
+    @Autowired
+    public TransactionFeedConsistencyCheck(TransactionFeedRepository transactionFeedRepository,
+                                           TransactionFeedService transactionFeedService,
+                                           @Value("${transaction-feed.chunk-size:1000}") int chunkSize,
+                                           @Value("${transaction-feed.check.repair:false}") boolean repair) {
+        this.transactionFeedRepository = transactionFeedRepository;
+        this.transactionFeedService = transactionFeedService;
+        this.chunkSize = chunkSize;
+        this.repair = repair;
+    }
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Long> inconsistent = check();
+        if (inconsistent.isEmpty()) {
+            log.info("The transaction feed matches the transaction history");
+        } else {
+            log.warn("The transaction feed differs for {} transactions{}: {}", inconsistent.size(),
+                    repair ? " (repaired)" : "", inconsistent.subList(0, Math.min(MAX_LOGGED_IDS, inconsistent.size())));
+        }
+    }
+    
+    // Feed rows of transactions deleted from the history go with them (foreign key cascade)
+    List<Long> check() {
+        List<Long> inconsistent = new ArrayList<>();
+        long afterId = 0;
+        List<Long> ids;
+        while (!(ids = transactionFeedRepository.findTransactionIdsAfter(afterId, chunkSize)).isEmpty()) {
+            List<Long> found = transactionFeedService.findInconsistent(ids);
+            if (repair && !found.isEmpty()) {
+                transactionFeedService.refresh(found);
+            }
+            inconsistent.addAll(found);
+            afterId = ids.get(ids.size() - 1);
+        }
+        return inconsistent;
+    }
+}
@@ -0,0 +1,55 @@
+package com.bank.cards.service.impl;
+
+import com.bank.cards.repository.TransactionFeedRepository;
+import com.bank.cards.service.TransactionFeedService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Rebuilds {@code user_transaction_feed} from the whole transaction history once at startup.
+ * Enable it for a single run after deploying the feed onto existing data. Transactions are
+ * rewritten in id order, one chunk per database transaction, so transfers keep running meanwhile.
+ */
+@Component
+@ConditionalOnProperty(name = "transaction-feed.rebuild.enabled", havingValue = "true")
+public class TransactionFeedRebuild implements ApplicationRunner {
+    
+    private static final Logger log = LoggerFactory.getLogger(TransactionFeedRebuild.class);
+    
+    private final TransactionFeedRepository transactionFeedRepository;
+    private final TransactionFeedService transactionFeedService;
+    private final int chunkSize;
+    
+    @Autowired
+    public TransactionFeedRebuild(TransactionFeedRepository transactionFeedRepository,
+                                  TransactionFeedService transactionFeedService,
+                                  @Value("${transaction-feed.chunk-size:1000}") int chunkSize) {
+        this.transactionFeedRepository = transactionFeedRepository;
+        this.transactionFeedService = transactionFeedService;
+        this.chunkSize = chunkSize;
+    }
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Rebuilding the transaction feed");
+        long started = System.nanoTime();
+        long done = 0;
+        long afterId = 0;
+        List<Long> ids;
+        while (!(ids = transactionFeedRepository.findTransactionIdsAfter(afterId, chunkSize)).isEmpty()) {
+            transactionFeedService.refresh(ids);
+            done += ids.size();
+            afterId = ids.get(ids.size() - 1);
+            log.info("Rebuilt the transaction feed up to transaction {} ({} transactions)", afterId, done);
+        }
+        log.info("Rebuilt the transaction feed for {} transactions in {} ms", done, (System.nanoTime() - started) / 1_000_000);
+    }
+}
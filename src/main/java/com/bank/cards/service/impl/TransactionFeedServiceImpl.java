@@ -0,0 +1,144 @@
+package com.bank.cards.service.impl;
+
+import com.bank.cards.entity.Transaction;
+import com.bank.cards.entity.TransactionFeedEntry;
+import com.bank.cards.entity.TransactionFeedEntryId;
+import com.bank.cards.repository.TransactionFeedRepository;
+import com.bank.cards.repository.TransactionRepository;
+import com.bank.cards.repository.UserDataVersionRepository;
+import com.bank.cards.service.TransactionFeedService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Maintains {@code user_transaction_feed}. Rows are derived from the stored transactions and
+ * cards rather than from the entities in hand, so a write, a rebuild and a check produce the
+ * same rows. Refreshes run one chunk of transactions per statement, so a card with a long
+ * history stays within the driver's bind parameter limit. Every write bumps the feed version
+ * of the users whose rows it wrote, in the same transaction; the listing ETags read that
+ * version instead of the feed. With {@code transaction-feed.version-shards} above 1 the bump
+ * goes to one of a user's counter rows, picked at random, like the card's daily stats.
+ */
+@Service
+@Transactional
+public class TransactionFeedServiceImpl implements TransactionFeedService {
+    
+    private final TransactionFeedRepository transactionFeedRepository;
+    private final TransactionRepository transactionRepository;
+    private final UserDataVersionRepository userDataVersionRepository;
+    private final int chunkSize;
+    private final int versionShards;
+    
+    @Autowired
+    public TransactionFeedServiceImpl(TransactionFeedRepository transactionFeedRepository,
+                                      TransactionRepository transactionRepository,
+                                      UserDataVersionRepository userDataVersionRepository,
+                                      @Value("${transaction-feed.chunk-size:1000}") int chunkSize,
+                                      @Value("${transaction-feed.version-shards:1}") int versionShards) {
+        this.transactionFeedRepository = transactionFeedRepository;
+        this.transactionRepository = transactionRepository;
+        this.userDataVersionRepository = userDataVersionRepository;
+        this.chunkSize = chunkSize;
+        this.versionShards = versionShards;
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransfers(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        // The derivation reads the transaction rows, so they must be written first
+        transactionRepository.flush();
+        List<Long> ids = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            ids.add(transaction.getId());
+        }
+        List<TransactionFeedEntry> entries = transactionFeedRepository.deriveEntries(ids);
+        transactionFeedRepository.insert(entries);
+        bumpVersions(entries);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> findTransactionIdsByCard(Long cardId) {
+        return transactionFeedRepository.findTransactionIdsByCard(cardId);
+    }
+    
+    @Override
+    public void refresh(Collection<Long> transactionIds) {
+        // All chunks share the caller's transaction, so a card delete still replaces its feed rows atomically
+        // Rows dropped for a deleted card belonged to its owner, whose card version changes anyway
+        List<Long> ids = new ArrayList<>(transactionIds);
+        List<TransactionFeedEntry> written = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            transactionFeedRepository.deleteByTransactionIds(chunk);
+            List<TransactionFeedEntry> entries = transactionFeedRepository.deriveEntries(chunk);
+            transactionFeedRepository.insert(entries);
+            written.addAll(entries);
+        }
+        bumpVersions(written);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> findInconsistent(Collection<Long> transactionIds) {
+        Map<TransactionFeedEntryId, TransactionFeedEntry> stored = new HashMap<>();
+        for (TransactionFeedEntry entry : transactionFeedRepository.findEntries(transactionIds)) {
+            stored.put(new TransactionFeedEntryId(entry.getTransactionId(), entry.getUserId()), entry);
+        }
+    
+        Set<Long> inconsistent = new LinkedHashSet<>();
+        for (TransactionFeedEntry expected : transactionFeedRepository.deriveEntries(transactionIds)) {
+            TransactionFeedEntry actual = stored.remove(new TransactionFeedEntryId(expected.getTransactionId(), expected.getUserId()));
+            if (actual == null || !sameRow(expected, actual)) {
+                inconsistent.add(expected.getTransactionId());
+            }
+        }
+        // Whatever is left has no counterpart in the source data
+        for (TransactionFeedEntryId extra : stored.keySet()) {
+            inconsistent.add(extra.getTransactionId());
+        }
+        return new ArrayList<>(inconsistent);
+    }
+    
+    // In ascending user id order, so concurrent writers take the counter rows in the same order
+    private void bumpVersions(List<TransactionFeedEntry> entries) {
+        Set<Long> userIds = new TreeSet<>();
+        for (TransactionFeedEntry entry : entries) {
+            userIds.add(entry.getUserId());
+        }
+        int shard = versionShards > 1 ? ThreadLocalRandom.current().nextInt(versionShards) : 0;
+        for (Long userId : userIds) {
+            userDataVersionRepository.bumpFeedVersion(userId, shard);
+        }
+    }
+    
+    private static boolean sameRow(TransactionFeedEntry expected, TransactionFeedEntry actual) {
+        return Objects.equals(expected.getCreatedAt(), actual.getCreatedAt())
+                && Objects.equals(expected.getCardId(), actual.getCardId())
+                && Objects.equals(expected.getCardNumber(), actual.getCardNumber())
+                && expected.getDirection() == actual.getDirection()
+                && expected.getAmount().compareTo(actual.getAmount()) == 0
+                && Objects.equals(expected.getCounterpartCardId(), actual.getCounterpartCardId())
+                && Objects.equals(expected.getCounterpartCardNumber(), actual.getCounterpartCardNumber())
+                && expected.getType() == actual.getType()
+                && expected.getStatus() == actual.getStatus()
+                && Objects.equals(expected.getDescription(), actual.getDescription());
+    }
+}
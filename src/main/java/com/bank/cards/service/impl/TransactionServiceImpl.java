@@ -1,35 +1,79 @@
 package com.bank.cards.service.impl;
 
+import com.bank.cards.config.CacheConfig;
+import com.bank.cards.dto.BatchTransferResult;
+import com.bank.cards.dto.CursorPage;
+import com.bank.cards.dto.TransactionCursor;
+import com.bank.cards.dto.TransactionView;
 import com.bank.cards.dto.TransferRequest;
 import com.bank.cards.entity.Card;
 import com.bank.cards.entity.Transaction;
 import com.bank.cards.entity.User;
 import com.bank.cards.repository.CardRepository;
+import com.bank.cards.repository.TransactionFeedRepository;
+import com.bank.cards.repository.TransactionHistoryRepository;
 import com.bank.cards.repository.TransactionRepository;
+import com.bank.cards.service.CardStatsService;
+import com.bank.cards.service.TransactionFeedService;
 import com.bank.cards.service.TransactionService;
+import com.bank.cards.service.balance.StripedBalances;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class TransactionServiceImpl implements TransactionService {
     
+    private static final int MAX_SCROLL_PAGE_SIZE = 100;
+    
     private final TransactionRepository transactionRepository;
+    private final TransactionHistoryRepository transactionHistoryRepository;
+    private final TransactionFeedRepository transactionFeedRepository;
     private final CardRepository cardRepository;
+    private final CardStatsService cardStatsService;
+    private final TransactionFeedService transactionFeedService;
+    private final StripedBalances stripedBalances;
+    
+    @Value("${transfer.batch.max-size:1000}")
+    private int maxBatchSize;
     
     @Autowired
     public TransactionServiceImpl(TransactionRepository transactionRepository, 
-                                  CardRepository cardRepository) {
+                                  TransactionHistoryRepository transactionHistoryRepository,
+                                  TransactionFeedRepository transactionFeedRepository,
+                                  CardRepository cardRepository,
+                                  CardStatsService cardStatsService,
+                                  TransactionFeedService transactionFeedService,
+                                  StripedBalances stripedBalances) {
         this.transactionRepository = transactionRepository;
+        this.transactionHistoryRepository = transactionHistoryRepository;
+        this.transactionFeedRepository = transactionFeedRepository;
         this.cardRepository = cardRepository;
+        this.cardStatsService = cardStatsService;
+        this.transactionFeedService = transactionFeedService;
+        this.stripedBalances = stripedBalances;
     }
     
     @Override
+    @CacheEvict(cacheNames = CacheConfig.USER_CARDS, key = "#user.id")
     public Transaction transferBetweenOwnCards(TransferRequest transferRequest, User user) {
         Card fromCard = cardRepository.findByIdAndOwner(transferRequest.getFromCardId(), user)
                 .orElseThrow(() -> new RuntimeException("From card not found"));
@@ -37,55 +81,220 @@ public class TransactionServiceImpl implements TransactionService {
         Card toCard = cardRepository.findByIdAndOwner(transferRequest.getToCardId(), user)
                 .orElseThrow(() -> new RuntimeException("To card not found"));
         
-        if (fromCard.getStatus() != Card.CardStatus.ACTIVE) {
-            throw new RuntimeException("From card is not active");
-        }
+        Map<Long, BigDecimal> balancesBefore = balances(List.of(fromCard, toCard));
+        validateTransfer(fromCard, toCard, transferRequest.getAmount(), balancesBefore.get(fromCard.getId()));
         
-        if (toCard.getStatus() != Card.CardStatus.ACTIVE) {
-            throw new RuntimeException("To card is not active");
+        // Perform the transfer. Striped cards change shard rows right away, so take them in card id order.
+        if (fromCard.getId() <= toCard.getId()) {
+            stripedBalances.debit(fromCard, transferRequest.getAmount());
+            stripedBalances.credit(toCard, transferRequest.getAmount());
+        } else {
+            stripedBalances.credit(toCard, transferRequest.getAmount());
+            stripedBalances.debit(fromCard, transferRequest.getAmount());
         }
         
-        if (fromCard.getBalance().compareTo(transferRequest.getAmount()) < 0) {
-            throw new RuntimeException("Insufficient balance");
+        cardRepository.save(fromCard);
+        cardRepository.save(toCard);
+        
+        Transaction transaction = transactionRepository.save(completedTransfer(fromCard, toCard, transferRequest));
+        // The stats row of a busy card is its last shared lock; take it as late as possible
+        transactionFeedService.recordTransfers(List.of(transaction));
+        cardStatsService.recordTransfers(List.of(transaction), balancesBefore);
+        return transaction;
+    }
+    
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.USER_CARDS, key = "#user.id")
+    public List<BatchTransferResult> transferBatch(List<TransferRequest> transferRequests, User user) {
+        if (transferRequests.size() > maxBatchSize) {
+            throw new RuntimeException("Batch must not contain more than " + maxBatchSize + " transfers");
         }
         
-        if (transferRequest.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new RuntimeException("Transfer amount must be positive");
+        // Load every card involved with a single query
+        Set<Long> cardIds = new HashSet<>();
+        Set<Long> debitedCardIds = new HashSet<>();
+        for (TransferRequest request : transferRequests) {
+            if (request == null) {
+                continue;
+            }
+            cardIds.add(request.getFromCardId());
+            cardIds.add(request.getToCardId());
+            debitedCardIds.add(request.getFromCardId());
         }
+        cardIds.remove(null);
+        Map<Long, Card> cards = cardRepository.findByIdInAndOwner(cardIds, user).stream()
+                .collect(Collectors.toMap(Card::getId, Function.identity()));
         
-        // Perform the transfer
-        fromCard.setBalance(fromCard.getBalance().subtract(transferRequest.getAmount()));
-        toCard.setBalance(toCard.getBalance().add(transferRequest.getAmount()));
+        // A batch works on card rows: striped cards it debits get their shards moved into the row first
+        for (Card card : cards.values()) {
+            if (debitedCardIds.contains(card.getId())) {
+                stripedBalances.consolidate(card);
+            }
+        }
+        Map<Long, BigDecimal> balancesBefore = balances(cards.values());
         
-        cardRepository.save(fromCard);
-        cardRepository.save(toCard);
+        // Apply in order: each transfer sees the balances left by the previous ones
+        List<BatchTransferResult> results = new ArrayList<>(transferRequests.size());
+        List<Transaction> transactions = new ArrayList<>(transferRequests.size());
+        Set<Card> touchedCards = new HashSet<>();
+        for (int i = 0; i < transferRequests.size(); i++) {
+            TransferRequest request = transferRequests.get(i);
+            try {
+                // Items are not bean-validated, so each one is checked here and fails on its own
+                if (request == null) {
+                    throw new RuntimeException("Transfer is required");
+                }
+                Card fromCard = batchCard(cards, request.getFromCardId(), "From card");
+                Card toCard = batchCard(cards, request.getToCardId(), "To card");
+                if (request.getAmount() == null) {
+                    throw new RuntimeException("Amount is required");
+                }
+                validateTransfer(fromCard, toCard, request.getAmount(), fromCard.getBalance());
+                
+                fromCard.setBalance(fromCard.getBalance().subtract(request.getAmount()));
+                toCard.setBalance(toCard.getBalance().add(request.getAmount()));
+                touchedCards.add(fromCard);
+                touchedCards.add(toCard);
+                
+                Transaction transaction = completedTransfer(fromCard, toCard, request);
+                transaction.setCreatedAt(LocalDateTime.now());
+                transactions.add(transaction);
+                results.add(BatchTransferResult.success(i, request));
+            } catch (RuntimeException e) {
+                results.add(BatchTransferResult.failed(i, request, e.getMessage()));
+            }
+        }
         
-        // Create transaction record
-        Transaction transaction = new Transaction(
-            fromCard,
-            toCard,
-            transferRequest.getAmount(),
-            Transaction.TransactionType.TRANSFER,
-            transferRequest.getDescription()
-        );
-        transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+        // Sequence ids and hibernate.jdbc.batch_size turn both saves into JDBC batches at flush
+        if (!transactions.isEmpty()) {
+            cardRepository.saveAll(touchedCards);
+            transactionRepository.saveAll(transactions);
+            cardStatsService.recordTransfers(transactions, balancesBefore);
+            transactionFeedService.recordTransfers(transactions);
+        }
+        return results;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Page<TransactionView> getUserTransactions(User user, Pageable pageable) {
+        List<TransactionView> content = transactionFeedRepository.findPage(user.getId(), pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(content, pageable, transactionFeedRepository.count(user.getId()));
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Page<TransactionView> getCardTransactions(Long cardId, User user, Pageable pageable) {
+        // Verify the card belongs to the user
+        cardRepository.findByIdAndOwner(cardId, user)
+                .orElseThrow(() -> new RuntimeException("Card not found"));
         
-        return transactionRepository.save(transaction);
+        List<Long> cardIds = List.of(cardId);
+        List<TransactionView> content = transactionHistoryRepository.findPage(cardIds, pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(content, pageable, transactionHistoryRepository.count(cardIds));
     }
     
     @Override
     @Transactional(readOnly = true)
-    public Page<Transaction> getUserTransactions(User user, Pageable pageable) {
-        return transactionRepository.findByUserId(user.getId(), pageable);
+    public CursorPage<TransactionView> scrollUserTransactions(User user, String cursor, int size) {
+        validatePageSize(size);
+        
+        // One extra row tells us whether another page exists without a count query
+        List<TransactionView> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionFeedRepository.findPage(user.getId(), 0, size + 1);
+        } else {
+            TransactionCursor after = TransactionCursor.decode(cursor);
+            rows = transactionFeedRepository.findPageAfter(user.getId(), after.getCreatedAt(), after.getId(), size + 1);
+        }
+        return cursorPage(rows, size);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public Page<Transaction> getCardTransactions(Long cardId, User user, Pageable pageable) {
+    public CursorPage<TransactionView> scrollCardTransactions(Long cardId, User user, String cursor, int size) {
         // Verify the card belongs to the user
         cardRepository.findByIdAndOwner(cardId, user)
                 .orElseThrow(() -> new RuntimeException("Card not found"));
         
-        return transactionRepository.findByCardId(cardId, pageable);
+        validatePageSize(size);
+        
+        List<Long> cardIds = List.of(cardId);
+        List<TransactionView> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionHistoryRepository.findPage(cardIds, 0, size + 1);
+        } else {
+            TransactionCursor after = TransactionCursor.decode(cursor);
+            rows = transactionHistoryRepository.findPageAfter(cardIds, after.getCreatedAt(), after.getId(), size + 1);
+        }
+        return cursorPage(rows, size);
+    }
+    
+    private void validatePageSize(int size) {
+        if (size < 1 || size > MAX_SCROLL_PAGE_SIZE) {
+            throw new RuntimeException("Page size must be between 1 and " + MAX_SCROLL_PAGE_SIZE);
+        }
+    }
+    
+    private CursorPage<TransactionView> cursorPage(List<TransactionView> rows, int size) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<TransactionView> content = rows.subList(0, size);
+        return new CursorPage<>(content, TransactionCursor.after(content.get(size - 1)).encode());
+    }
+    
+    private void validateTransfer(Card fromCard, Card toCard, BigDecimal amount, BigDecimal fromBalance) {
+        if (fromCard.getStatus() != Card.CardStatus.ACTIVE) {
+            throw new RuntimeException("From card is not active");
+        }
+        
+        if (toCard.getStatus() != Card.CardStatus.ACTIVE) {
+            throw new RuntimeException("To card is not active");
+        }
+        
+        if (fromBalance.compareTo(amount) < 0) {
+            throw new RuntimeException("Insufficient balance");
+        }
+        
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new RuntimeException("Transfer amount must be positive");
+        }
+        
+        // Balances are DECIMAL(15,2); a finer amount would be rounded and create or destroy cents
+        if (amount.stripTrailingZeros().scale() > 2) {
+            throw new RuntimeException("Transfer amount must not have more than 2 decimal places");
+        }
+    }
+    
+    private Map<Long, BigDecimal> balances(Collection<Card> cards) {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (Card card : cards) {
+            balances.put(card.getId(), stripedBalances.total(card));
+        }
+        return balances;
+    }
+    
+    private Card batchCard(Map<Long, Card> cards, Long cardId, String label) {
+        if (cardId == null) {
+            throw new RuntimeException(label + " ID is required");
+        }
+        Card card = cards.get(cardId);
+        if (card == null) {
+            throw new RuntimeException(label + " not found");
+        }
+        return card;
+    }
+    
+    private Transaction completedTransfer(Card fromCard, Card toCard, TransferRequest transferRequest) {
+        Transaction transaction = new Transaction(
+            fromCard,
+            toCard,
+            transferRequest.getAmount(),
+            Transaction.TransactionType.TRANSFER,
+            transferRequest.getDescription()
+        );
+        transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+        return transaction;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,85 @@
+package com.bank.cards.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a transfer, retrying it when another transfer changed one of the cards first
+ * (optimistic version conflict) or the database picked it as a deadlock victim.
+ * Other card writes (status, shards, delete) go through it too: transfers, the ledger
+ * flush and the expiry sweeper all bump the card version, so they can lose the same race.
+ * <p>
+ * Each attempt must start its own transaction, so the supplier should call the
+ * transactional service proxy. Backoff doubles from the initial delay up to the maximum,
+ * with full jitter so that colliding requests spread out.
+ */
+@Component
+public class TransferRetryExecutor {
+    
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final Counter conflicts;
+    private final Counter retries;
+    private final Counter exhausted;
+    
+    @Autowired
+    public TransferRetryExecutor(MeterRegistry meterRegistry,
+                                 @Value("${transfer.retry.max-attempts:5}") int maxAttempts,
+                                 @Value("${transfer.retry.initial-backoff-ms:5}") long initialBackoffMs,
+                                 @Value("${transfer.retry.max-backoff-ms:100}") long maxBackoffMs) {
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.conflicts = Counter.builder("transfers.conflicts")
+                .description("Transfer attempts that lost a concurrent update race")
+                .register(meterRegistry);
+        this.retries = Counter.builder("transfers.retries")
+                .description("Transfer attempts retried after a conflict")
+                .register(meterRegistry);
+        this.exhausted = Counter.builder("transfers.retries.exhausted")
+                .description("Transfers that failed after the last retry")
+                .register(meterRegistry);
+    }
+    
+    public <T> T execute(Supplier<T> transfer) {
+        long backoff = initialBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transfer.get();
+            } catch (ConcurrencyFailureException e) {
+                conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    throw e;
+                }
+                retries.increment();
+                sleep(ThreadLocalRandom.current().nextLong(backoff + 1));
+                backoff = Math.min(backoff * 2, maxBackoffMs);
+            }
+        }
+    }
+    
+    public void execute(Runnable write) {
+        execute(() -> {
+            write.run();
+            return null;
+        });
+    }
+    
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Transfer interrupted", e);
+        }
+    }
+}
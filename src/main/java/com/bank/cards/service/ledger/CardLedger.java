@@ -0,0 +1,384 @@
+package com.bank.cards.service.ledger;
+
+import com.bank.cards.dto.TransferRequest;
+import com.bank.cards.entity.Card;
+import com.bank.cards.entity.Transaction;
+import com.bank.cards.entity.User;
+import com.bank.cards.repository.CardRepository;
+import com.bank.cards.repository.TransactionRepository;
+import com.bank.cards.repository.TransferBatchRepository;
+import com.bank.cards.service.CardStatsService;
+import com.bank.cards.service.TransactionCallbacks;
+import com.bank.cards.service.TransactionFeedService;
+import com.bank.cards.service.balance.StripedBalances;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Authoritative in-memory balances for cards touched by transfers.
+ * <p>
+ * A card is loaded from the {@code cards} table the first time it is used, so after a
+ * restart the ledger rebuilds itself from the database on demand. Transfers are applied
+ * under the two card monitors (taken in id order) and queued; {@link #flush()} writes the
+ * queue in order as one batch of balance deltas plus one batch of transaction rows.
+ * <p>
+ * A batch that fails is retried one entry at a time. An entry the database rejects is moved to
+ * the {@code com.bank.cards.ledger.dead-letter} log for reconciliation instead of blocking the
+ * entries behind it; a connection failure leaves the queue as it is. While the queue holds
+ * {@code ledger.max-pending} entries, new transfers are refused.
+ */
+@Component
+@ConditionalOnProperty(name = "ledger.enabled", havingValue = "true")
+public class CardLedger {
+    
+    private static final Logger log = LoggerFactory.getLogger(CardLedger.class);
+    
+    private static final Logger deadLetterLog = LoggerFactory.getLogger("com.bank.cards.ledger.dead-letter");
+    
+    private final CardRepository cardRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransferBatchRepository transferBatchRepository;
+    private final CardStatsService cardStatsService;
+    private final TransactionFeedService transactionFeedService;
+    private final StripedBalances stripedBalances;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxPending;
+    
+    private final Map<Long, LedgerAccount> accounts = new ConcurrentHashMap<>();
+    private final Queue<Transaction> pending = new ConcurrentLinkedQueue<>();
+    // ConcurrentLinkedQueue.size() walks the whole queue
+    private final AtomicInteger pendingSize = new AtomicInteger();
+    private final Object flushLock = new Object();
+    private final AtomicLong appliedTransfers = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    
+    @Autowired
+    public CardLedger(CardRepository cardRepository,
+                      TransactionRepository transactionRepository,
+                      TransferBatchRepository transferBatchRepository,
+                      CardStatsService cardStatsService,
+                      TransactionFeedService transactionFeedService,
+                      StripedBalances stripedBalances,
+                      PlatformTransactionManager transactionManager,
+                      @Value("${ledger.batch-size:500}") int batchSize,
+                      @Value("${ledger.max-pending:100000}") int maxPending) {
+        this.cardRepository = cardRepository;
+        this.transactionRepository = transactionRepository;
+        this.transferBatchRepository = transferBatchRepository;
+        this.cardStatsService = cardStatsService;
+        this.transactionFeedService = transactionFeedService;
+        this.stripedBalances = stripedBalances;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+    }
+    
+    public Transaction transfer(TransferRequest transferRequest, User user) {
+        if (pendingSize.get() >= maxPending) {
+            throw new RuntimeException("Transfers are temporarily unavailable, try again later");
+        }
+        
+        LedgerAccount from = account(transferRequest.getFromCardId(), user, "From card not found");
+        LedgerAccount to = account(transferRequest.getToCardId(), user, "To card not found");
+        
+        // Lock in id order so opposite transfers between the same pair cannot deadlock
+        LedgerAccount first = from.getCardId() <= to.getCardId() ? from : to;
+        LedgerAccount second = first == from ? to : from;
+        
+        synchronized (first) {
+            synchronized (second) {
+                if (from.isClosed()) {
+                    throw new RuntimeException("From card not found");
+                }
+                
+                if (to.isClosed()) {
+                    throw new RuntimeException("To card not found");
+                }
+                
+                if (from.getStatus() != Card.CardStatus.ACTIVE) {
+                    throw new RuntimeException("From card is not active");
+                }
+                
+                if (to.getStatus() != Card.CardStatus.ACTIVE) {
+                    throw new RuntimeException("To card is not active");
+                }
+                
+                if (from.getBalance().compareTo(transferRequest.getAmount()) < 0) {
+                    throw new RuntimeException("Insufficient balance");
+                }
+                
+                if (transferRequest.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+                    throw new RuntimeException("Transfer amount must be positive");
+                }
+                
+                from.debit(transferRequest.getAmount());
+                to.credit(transferRequest.getAmount());
+                
+                Transaction transaction = new Transaction(
+                    from.snapshot(),
+                    to.snapshot(),
+                    transferRequest.getAmount(),
+                    Transaction.TransactionType.TRANSFER,
+                    transferRequest.getDescription()
+                );
+                transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+                transaction.setCreatedAt(LocalDateTime.now());
+                
+                // Enqueued while both monitors are held, so per-card order matches the balances
+                pending.add(transaction);
+                pendingSize.incrementAndGet();
+                appliedTransfers.incrementAndGet();
+                return transaction;
+            }
+        }
+    }
+    
+    // Ledger balance for a loaded card, or the given (persisted) balance otherwise
+    public BigDecimal currentBalance(Long cardId, BigDecimal persistedBalance) {
+        LedgerAccount account = accounts.get(cardId);
+        if (account == null) {
+            return persistedBalance;
+        }
+        synchronized (account) {
+            return account.getBalance();
+        }
+    }
+    
+    // Applies a status change once the surrounding transaction commits
+    public void updateStatus(Long cardId, Card.CardStatus status) {
+        TransactionCallbacks.afterCommit(() -> {
+            LedgerAccount account = accounts.get(cardId);
+            if (account != null) {
+                synchronized (account) {
+                    account.setStatus(status);
+                }
+            }
+        });
+    }
+    
+    // Called before a card row is deleted: stops new transfers on it and persists everything
+    // queued for it, so the delete sees the final balance and no insert references a missing card.
+    public void close(Long cardId) {
+        LedgerAccount account = accounts.get(cardId);
+        if (account == null) {
+            return;
+        }
+        synchronized (account) {
+            account.setClosed(true);
+        }
+        flush();
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        accounts.remove(cardId, account);
+                    } else {
+                        synchronized (account) {
+                            account.setClosed(false);
+                        }
+                    }
+                }
+            });
+        } else {
+            accounts.remove(cardId, account);
+        }
+    }
+    
+    // Grows with every transfer applied in memory, before it reaches the database
+    public long appliedTransferCount() {
+        return appliedTransfers.get();
+    }
+    
+    public int pendingCount() {
+        return pendingSize.get();
+    }
+    
+    // Entries the database rejected; their effect is in the in-memory balances only
+    public long deadLetteredCount() {
+        return deadLettered.get();
+    }
+    
+    @Scheduled(fixedDelayString = "${ledger.flush-interval-ms:200}")
+    public void flush() {
+        synchronized (flushLock) {
+            if (pendingSize.get() >= maxPending) {
+                log.error("Ledger queue is full ({} entries), transfers are refused until it drains", pendingSize.get());
+            }
+            
+            List<Transaction> batch;
+            do {
+                batch = nextBatch();
+                if (batch.isEmpty()) {
+                    return;
+                }
+                
+                try {
+                    write(batch);
+                    removeHead(batch.size());
+                } catch (RuntimeException e) {
+                    log.warn("Failed to flush {} ledger entries, retrying them one at a time", batch.size(), e);
+                    if (!writeEach(batch)) {
+                        return;
+                    }
+                }
+            } while (batch.size() == batchSize);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        if (!pending.isEmpty()) {
+            log.error("{} ledger entries could not be persisted on shutdown", pending.size());
+        }
+    }
+    
+    private LedgerAccount account(Long cardId, User user, String notFoundMessage) {
+        LedgerAccount account = accounts.get(cardId);
+        if (account == null) {
+            Card card = cardRepository.findById(cardId)
+                    .orElseThrow(() -> new RuntimeException(notFoundMessage));
+            // Deltas are written to the card row, which keeps the total of a striped card right
+            LedgerAccount loaded = new LedgerAccount(card, stripedBalances.total(card));
+            LedgerAccount existing = accounts.putIfAbsent(cardId, loaded);
+            account = existing != null ? existing : loaded;
+        }
+        
+        if (!account.getOwnerId().equals(user.getId())) {
+            throw new RuntimeException(notFoundMessage);
+        }
+        return account;
+    }
+    
+    // Returns false if the database could not be reached; the entries not written stay queued for the next flush
+    private boolean writeEach(List<Transaction> batch) {
+        for (Transaction transaction : batch) {
+            try {
+                write(List.of(transaction));
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    log.error("Failed to flush ledger entries, {} stay queued", pendingSize.get(), e);
+                    return false;
+                }
+                deadLetter(transaction, e);
+            }
+            removeHead(1);
+        }
+        return true;
+    }
+    
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+    
+    private void deadLetter(Transaction transaction, RuntimeException e) {
+        deadLettered.incrementAndGet();
+        deadLetterLog.error("Ledger entry rejected and dropped, reconcile the balances of its cards: " +
+                        "fromCardId={}, toCardId={}, amount={}, createdAt={}, description={}",
+                transaction.getFromCard().getId(), transaction.getToCard().getId(), transaction.getAmount(),
+                transaction.getCreatedAt(), transaction.getDescription(), e);
+    }
+    
+    private void removeHead(int count) {
+        for (int i = 0; i < count; i++) {
+            pending.poll();
+        }
+        pendingSize.addAndGet(-count);
+    }
+    
+    // Peeks at the head of the queue; only the flushing thread ever removes entries
+    private List<Transaction> nextBatch() {
+        List<Transaction> batch = new ArrayList<>(Math.min(batchSize, pendingSize.get()));
+        Iterator<Transaction> iterator = pending.iterator();
+        while (iterator.hasNext() && batch.size() < batchSize) {
+            batch.add(iterator.next());
+        }
+        return batch;
+    }
+    
+    private void write(List<Transaction> batch) {
+        Map<Long, BigDecimal> deltas = new TreeMap<>();
+        for (Transaction transaction : batch) {
+            deltas.merge(transaction.getFromCard().getId(), transaction.getAmount().negate(), BigDecimal::add);
+            deltas.merge(transaction.getToCard().getId(), transaction.getAmount(), BigDecimal::add);
+        }
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            transferBatchRepository.applyBalanceDeltas(deltas);
+            List<Transaction> rows = new ArrayList<>(batch.size());
+            for (Transaction transaction : batch) {
+                rows.add(persistentCopy(transaction));
+            }
+            transactionRepository.saveAll(rows);
+            cardStatsService.recordTransfers(rows, balancesBefore(batch));
+            transactionFeedService.recordTransfers(rows);
+        });
+    }
+    
+    // Snapshots carry the balance right after their transfer, so undo the first one per card
+    private Map<Long, BigDecimal> balancesBefore(List<Transaction> batch) {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (Transaction transaction : batch) {
+            Card from = transaction.getFromCard();
+            Card to = transaction.getToCard();
+            if (from.getId().equals(to.getId())) {
+                balances.putIfAbsent(from.getId(), from.getBalance());
+                continue;
+            }
+            balances.putIfAbsent(from.getId(), from.getBalance().add(transaction.getAmount()));
+            balances.putIfAbsent(to.getId(), to.getBalance().subtract(transaction.getAmount()));
+        }
+        return balances;
+    }
+    
+    // Queued entries hold detached card snapshots and were already handed to callers; a fresh
+    // row per attempt references the cards by id and leaves nothing half-assigned if the write fails.
+    private Transaction persistentCopy(Transaction transaction) {
+        Transaction row = new Transaction(
+            cardRepository.getReferenceById(transaction.getFromCard().getId()),
+            cardRepository.getReferenceById(transaction.getToCard().getId()),
+            transaction.getAmount(),
+            transaction.getType(),
+            transaction.getDescription()
+        );
+        row.setStatus(transaction.getStatus());
+        row.setCreatedAt(transaction.getCreatedAt());
+        return row;
+    }
+}
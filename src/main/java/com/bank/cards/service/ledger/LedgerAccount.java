@@ -0,0 +1,74 @@
+package com.bank.cards.service.ledger;
+
+import com.bank.cards.entity.Card;
+
+import java.math.BigDecimal;
+
+// In-memory state of one card. All mutable fields are guarded by the account's monitor.
+class LedgerAccount {
+    
+    private final Long cardId;
+    private final Long ownerId;
+    private final Card template;
+    private Card.CardStatus status;
+    private BigDecimal balance;
+    private boolean closed;
+    
+    LedgerAccount(Card card, BigDecimal balance) {
+        this.cardId = card.getId();
+        this.ownerId = card.getOwner().getId();
+        this.template = card;
+        this.status = card.getStatus();
+        this.balance = balance;
+    }
+    
+    Long getCardId() {
+        return cardId;
+    }
+    
+    Long getOwnerId() {
+        return ownerId;
+    }
+    
+    Card.CardStatus getStatus() {
+        return status;
+    }
+    
+    void setStatus(Card.CardStatus status) {
+        this.status = status;
+    }
+    
+    BigDecimal getBalance() {
+        return balance;
+    }
+    
+    void debit(BigDecimal amount) {
+        balance = balance.subtract(amount);
+    }
+    
+    void credit(BigDecimal amount) {
+        balance = balance.add(amount);
+    }
+    
+    boolean isClosed() {
+        return closed;
+    }
+    
+    void setClosed(boolean closed) {
+        this.closed = closed;
+    }
+    
+    // Detached copy for responses; never exposes the CVV or the lazy owner
+    Card snapshot() {
+        Card card = new Card();
+        card.setId(cardId);
+        card.setCardNumber(template.getCardNumber());
+        card.setCardHolderName(template.getCardHolderName());
+        card.setExpiryDate(template.getExpiryDate());
+        card.setCardType(template.getCardType());
+        card.setCreatedAt(template.getCreatedAt());
+        card.setStatus(status);
+        card.setBalance(balance);
+        return card;
+    }
+}
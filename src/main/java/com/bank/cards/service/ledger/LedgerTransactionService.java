@@ -0,0 +1,86 @@
+package com.bank.cards.service.ledger;
+
+import com.bank.cards.config.CacheConfig;
+import com.bank.cards.dto.BatchTransferResult;
+import com.bank.cards.dto.CursorPage;
+import com.bank.cards.dto.TransactionView;
+import com.bank.cards.dto.TransferRequest;
+import com.bank.cards.entity.Transaction;
+import com.bank.cards.entity.User;
+import com.bank.cards.service.TransactionService;
+import com.bank.cards.service.impl.TransactionServiceImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transaction service used when {@code ledger.enabled=true}. Transfers are applied to the
+ * {@link CardLedger} without touching the database; history reads go to the regular
+ * service and see ledger transfers once they have been flushed.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "ledger.enabled", havingValue = "true")
+public class LedgerTransactionService implements TransactionService {
+    
+    private final CardLedger cardLedger;
+    private final TransactionServiceImpl delegate;
+    
+    @Autowired
+    public LedgerTransactionService(CardLedger cardLedger, TransactionServiceImpl delegate) {
+        this.cardLedger = cardLedger;
+        this.delegate = delegate;
+    }
+    
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.USER_CARDS, key = "#user.id")
+    public Transaction transferBetweenOwnCards(TransferRequest transferRequest, User user) {
+        return cardLedger.transfer(transferRequest, user);
+    }
+    
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.USER_CARDS, key = "#user.id")
+    public List<BatchTransferResult> transferBatch(List<TransferRequest> transferRequests, User user) {
+        List<BatchTransferResult> results = new ArrayList<>(transferRequests.size());
+        for (int i = 0; i < transferRequests.size(); i++) {
+            TransferRequest request = transferRequests.get(i);
+            try {
+                if (request.getFromCardId() == null || request.getToCardId() == null || request.getAmount() == null) {
+                    throw new RuntimeException("From card, to card and amount are required");
+                }
+                cardLedger.transfer(request, user);
+                results.add(BatchTransferResult.success(i, request));
+            } catch (RuntimeException e) {
+                results.add(BatchTransferResult.failed(i, request, e.getMessage()));
+            }
+        }
+        return results;
+    }
+    
+    @Override
+    public Page<TransactionView> getUserTransactions(User user, Pageable pageable) {
+        return delegate.getUserTransactions(user, pageable);
+    }
+    
+    @Override
+    public Page<TransactionView> getCardTransactions(Long cardId, User user, Pageable pageable) {
+        return delegate.getCardTransactions(cardId, user, pageable);
+    }
+    
+    @Override
+    public CursorPage<TransactionView> scrollUserTransactions(User user, String cursor, int size) {
+        return delegate.scrollUserTransactions(user, cursor, size);
+    }
+    
+    @Override
+    public CursorPage<TransactionView> scrollCardTransactions(Long cardId, User user, String cursor, int size) {
+        return delegate.scrollCardTransactions(cardId, user, cursor, size);
+    }
+}
@@ -0,0 +1,185 @@
+package com.bank.cards.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCompressionFilterTest {
+
+    private static final String PAGE = "{\"content\":[" + "{\"id\":1,\"amount\":10.00,\"type\":\"TRANSFER\"},".repeat(50) + "{}]}";
+
+    private SimpleMeterRegistry meterRegistry;
+    private ResponseCompressionFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new ResponseCompressionFilter(meterRegistry, true, 1024, 5, List.of("application/json"));
+    }
+
+    @Test
+    void doFilter_GzipsJsonAboveThreshold() throws Exception {
+        // When
+        MockHttpServletResponse response = send("gzip, deflate, br", "application/json", PAGE, "\"abc\"");
+
+        // Then
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("W/\"abc\"", response.getHeader("ETag"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        assertNull(response.getHeader("Content-Length"));
+        byte[] body = response.getContentAsByteArray();
+        assertEquals(PAGE, gunzip(body));
+        double saved = meterRegistry.counter("http.server.compression.bytes.saved").count();
+        assertEquals(PAGE.length() - body.length, saved);
+        assertTrue(saved > PAGE.length() / 2);
+        assertEquals(1.0, meterRegistry.counter("http.server.compression.responses").count());
+    }
+
+    @Test
+    void doFilter_SendsSmallBodyAsIs() throws Exception {
+        // When
+        MockHttpServletResponse response = send("gzip", "application/json", "{\"id\":1}", "\"abc\"");
+
+        // Then
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals("\"abc\"", response.getHeader("ETag"));
+        assertEquals(8, response.getContentLength());
+        assertEquals("{\"id\":1}", response.getContentAsString());
+        assertEquals(0.0, meterRegistry.counter("http.server.compression.responses").count());
+    }
+
+    @Test
+    void doFilter_SendsBodyAsIsWhenClientDoesNotAcceptGzip() throws Exception {
+        // When
+        MockHttpServletResponse response = send("gzip;q=0, br", "application/json", PAGE, null);
+
+        // Then
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        assertEquals(PAGE, response.getContentAsString());
+    }
+
+    @Test
+    void doFilter_SendsOtherMediaTypesAsIs() throws Exception {
+        // When
+        MockHttpServletResponse response = send("gzip", "text/csv", PAGE, null);
+
+        // Then
+        assertNull(response.getHeader("Content-Encoding"));
+        assertNull(response.getHeader("Vary"));
+        assertEquals(PAGE, response.getContentAsString());
+    }
+
+    @Test
+    void doFilter_PassesNonBlockingWritesThroughToContainerStream() throws Exception {
+        // Given: a container stream that calls the listener as soon as it is registered
+        ListenerOutputStream containerStream = new ListenerOutputStream();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/transactions");
+        request.addHeader("Accept-Encoding", "gzip");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse() {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return containerStream;
+            }
+        };
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                req.startAsync();
+                resp.setContentType("application/json");
+                ServletOutputStream out = resp.getOutputStream();
+                out.setWriteListener(new WriteListener() {
+                    @Override
+                    public void onWritePossible() throws IOException {
+                        if (out.isReady()) {
+                            out.write(PAGE.getBytes(StandardCharsets.UTF_8));
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                    }
+                });
+            }
+        };
+
+        // When
+        filter.doFilter(request, response, new MockFilterChain(servlet));
+
+        // Then
+        assertNotNull(containerStream.listener);
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals(PAGE, containerStream.body.toString(StandardCharsets.UTF_8));
+    }
+
+    private MockHttpServletResponse send(String acceptEncoding, String contentType, String body, String etag) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/transactions");
+        request.addHeader("Accept-Encoding", acceptEncoding);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                resp.setContentType(contentType);
+                resp.setContentLength(bytes.length);
+                if (etag != null) {
+                    resp.setHeader("ETag", etag);
+                }
+                resp.getOutputStream().write(bytes);
+                resp.flushBuffer();
+            }
+        };
+        filter.doFilter(request, response, new MockFilterChain(servlet));
+        return response;
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static class ListenerOutputStream extends ServletOutputStream {
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private WriteListener listener;
+
+        @Override
+        public void write(int b) {
+            body.write(b);
+        }
+
+        @Override
+        public boolean isReady() {
+            return listener != null;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            listener = writeListener;
+            try {
+                writeListener.onWritePossible();
+            } catch (IOException e) {
+                writeListener.onError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.bank.cards.config;
+
+import com.bank.cards.dto.TransferRequest;
+import com.bank.cards.entity.User;
+import com.bank.cards.service.TransactionService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceMetricsAspectTest {
+
+    @Mock
+    private TransactionService transactionService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionService timedService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        AspectJProxyFactory factory = new AspectJProxyFactory(transactionService);
+        factory.addAspect(new ServiceMetricsAspect(meterRegistry));
+        timedService = factory.getProxy();
+    }
+
+    @Test
+    void timeServiceCall_TagsSuccessAndBusinessFailures() {
+        // Given
+        User user = new User();
+        TransferRequest request = new TransferRequest();
+        when(transactionService.transferBetweenOwnCards(any(), any()))
+                .thenReturn(null)
+                .thenThrow(new RuntimeException("Insufficient balance"))
+                .thenThrow(new RuntimeException("From card is not active"))
+                .thenThrow(new RuntimeException("Something unexpected: " + System.nanoTime()));
+
+        // When
+        timedService.transferBetweenOwnCards(request, user);
+        for (int i = 0; i < 3; i++) {
+            assertThrows(RuntimeException.class, () -> timedService.transferBetweenOwnCards(request, user));
+        }
+
+        // Then
+        assertEquals(1, timer("success").count());
+        assertEquals(1, timer("insufficient_balance").count());
+        assertEquals(1, timer("card_not_active").count());
+        assertEquals(1, timer("error").count());
+    }
+
+    @Test
+    void timeServiceCall_TagsOptimisticLockFailuresAsConflict() {
+        // Given
+        when(transactionService.transferBetweenOwnCards(any(), any()))
+                .thenThrow(new OptimisticLockingFailureException("stale card"));
+
+        // When
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> timedService.transferBetweenOwnCards(new TransferRequest(), new User()));
+
+        // Then
+        assertEquals(1, timer("conflict").count());
+    }
+
+    private Timer timer(String outcome) {
+        return meterRegistry.get(ServiceMetricsAspect.METRIC)
+                .tag("method", "transferBetweenOwnCards")
+                .tag("outcome", outcome)
+                .timer();
+    }
+}
@@ -4,13 +4,21 @@ import com.bank.cards.dto.CardDto;
 import com.bank.cards.entity.Card;
 import com.bank.cards.entity.User;
 import com.bank.cards.security.JwtUtil;
+import com.bank.cards.security.UserPrincipalCache;
 import com.bank.cards.service.CardService;
+import com.bank.cards.service.CardStatsService;
+import com.bank.cards.service.impl.TransferRetryExecutor;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -19,26 +27,52 @@ import java.math.BigDecimal;
 import java.time.YearMonth;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(CardController.class)
 class CardControllerTest {
 
+    // The slice picks up the servlet filters, which register their meters here
+    @TestConfiguration
+    static class MetricsConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
     @Autowired
     private MockMvc mockMvc;
 
     @MockBean
     private CardService cardService;
 
+    @MockBean
+    private CardStatsService cardStatsService;
+
     @MockBean
     private JwtUtil jwtUtil;
 
+    @MockBean
+    private UserPrincipalCache userPrincipalCache;
+
+    @MockBean
+    private UserDataETags userDataETags;
+
+    @MockBean
+    private TransferRetryExecutor transferRetryExecutor;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -61,6 +95,12 @@ class CardControllerTest {
         testCardDto.setCardType(Card.CardType.DEBIT);
         testCardDto.setOwnerUsername("testuser");
         testCardDto.setMaskedCardNumber("** ** 3456");
+
+        when(transferRetryExecutor.execute(ArgumentMatchers.<Supplier<Object>>any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(transferRetryExecutor).execute(any(Runnable.class));
     }
 
     @Test
@@ -94,6 +134,7 @@ class CardControllerTest {
 
         // When & Then
         mockMvc.perform(post("/cards")
+                .with(csrf())
                 .with(authentication(new org.springframework.security.authentication.UsernamePasswordAuthenticationToken(testUser, null, testUser.getAuthorities())))
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(createRequest)))
@@ -127,6 +168,7 @@ class CardControllerTest {
 
         // When & Then
         mockMvc.perform(put("/cards/1/status")
+                .with(csrf())
                 .with(authentication(new org.springframework.security.authentication.UsernamePasswordAuthenticationToken(testUser, null, testUser.getAuthorities())))
                 .param("status", "BLOCKED"))
                 .andExpect(status().isOk())
@@ -139,7 +181,10 @@ class CardControllerTest {
     void deleteCard_Success() throws Exception {
         // When & Then
         mockMvc.perform(delete("/cards/1")
+                .with(csrf())
                 .with(authentication(new org.springframework.security.authentication.UsernamePasswordAuthenticationToken(testUser, null, testUser.getAuthorities()))))
                 .andExpect(status().isNoContent());
+
+        verify(cardService).deleteCard(eq(1L), any(User.class));
     }
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.bank.cards.controller;
+
+import com.bank.cards.entity.User;
+import com.bank.cards.security.JwtUtil;
+import com.bank.cards.security.UserPrincipalCache;
+import com.bank.cards.service.TransactionExportService;
+import com.bank.cards.service.TransactionService;
+import com.bank.cards.service.idempotency.IdempotencyStore;
+import com.bank.cards.service.impl.TransferRetryExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = TransactionController.class, properties = {
+        "spring.mvc.async.request-timeout=30000",
+        "transactions.export.timeout-ms=1800000"})
+class TransactionControllerTest {
+
+    // The slice picks up the servlet filters, which register their meters here
+    @TestConfiguration
+    static class MetricsConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TransactionService transactionService;
+
+    @MockBean
+    private TransactionExportService transactionExportService;
+
+    @MockBean
+    private TransferRetryExecutor transferRetryExecutor;
+
+    @MockBean
+    private IdempotencyStore idempotencyStore;
+
+    @MockBean
+    private UserDataETags userDataETags;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private UserPrincipalCache userPrincipalCache;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("testuser");
+    }
+
+    @Test
+    void exportCardTransactions_GetsTheLongTimeoutOnItsOwn() throws Exception {
+        // Given
+        when(transactionExportService.exportCardTransactions(eq(1L), any(User.class), eq(TransactionExportService.ExportFormat.CSV)))
+                .thenReturn(outputStream -> outputStream.write("id\n".getBytes(StandardCharsets.UTF_8)));
+
+        // When
+        MvcResult export = mockMvc.perform(get("/transactions/card/1/export").param("format", "csv")
+                        .with(authentication(new UsernamePasswordAuthenticationToken(testUser, null, testUser.getAuthorities()))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        assertEquals(1_800_000L, export.getRequest().getAsyncContext().getTimeout());
+        mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andExpect(content().string("id\n"));
+    }
+}
@@ -0,0 +1,114 @@
+package com.bank.cards.controller;
+
+import com.bank.cards.entity.User;
+import com.bank.cards.repository.UserDataVersionRepository;
+import com.bank.cards.service.ledger.CardLedger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserDataETagsTest {
+
+    @Mock
+    private UserDataVersionRepository versionRepository;
+
+    @Mock
+    private CardLedger cardLedger;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserDataETags userDataETags;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userDataETags = new UserDataETags(versionRepository, meterRegistry);
+
+        user = new User();
+        user.setId(1L);
+    }
+
+    @Test
+    void checkNotModified_SetsETagAndCacheControlOnFirstRequest() {
+        // Given
+        when(versionRepository.findVersion(1L)).thenReturn("2:7:4:null:3:9");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        boolean notModified = userDataETags.checkNotModified(user, get(null, response));
+
+        // Then
+        assertFalse(notModified);
+        assertEquals(200, response.getStatus());
+        assertEquals(userDataETags.etag(user), response.getHeader("ETag"));
+        assertEquals("private, no-cache", response.getHeader("Cache-Control"));
+        assertEquals(1.0, meterRegistry.counter("http.server.requests.conditional", "result", "modified").count());
+    }
+
+    @Test
+    void checkNotModified_Answers304WhileVersionIsUnchanged() {
+        // Given
+        when(versionRepository.findVersion(1L)).thenReturn("2:7:4:null:3:9");
+        String etag = userDataETags.etag(user);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When: the client sends back the weak form a compressed response carried
+        boolean notModified = userDataETags.checkNotModified(user, get("W/" + etag, response));
+
+        // Then
+        assertTrue(notModified);
+        assertEquals(304, response.getStatus());
+        assertEquals(1.0, meterRegistry.counter("http.server.requests.conditional", "result", "not_modified").count());
+    }
+
+    @Test
+    void checkNotModified_SendsBodyAfterVersionChanged() {
+        // Given
+        when(versionRepository.findVersion(1L)).thenReturn("2:7:4:null:3:9", "2:7:4:null:4:10");
+        String etag = userDataETags.etag(user);
+
+        // When / Then
+        assertFalse(userDataETags.checkNotModified(user, get(etag, new MockHttpServletResponse())));
+    }
+
+    @Test
+    void etag_DiffersBetweenUsersWithSameData() {
+        // Given
+        User other = new User();
+        other.setId(2L);
+        when(versionRepository.findVersion(1L)).thenReturn("0:0:0:null:0:0");
+        when(versionRepository.findVersion(2L)).thenReturn("0:0:0:null:0:0");
+
+        // When / Then
+        assertNotEquals(userDataETags.etag(user), userDataETags.etag(other));
+    }
+
+    @Test
+    void etag_ChangesWithLedgerTransfersBeforeTheyAreFlushed() {
+        // Given
+        userDataETags.setCardLedger(cardLedger);
+        when(versionRepository.findVersion(1L)).thenReturn("2:7:4:null:3:9");
+        when(cardLedger.appliedTransferCount()).thenReturn(5L, 6L);
+
+        // When / Then
+        assertNotEquals(userDataETags.etag(user), userDataETags.etag(user));
+    }
+
+    private ServletWebRequest get(String ifNoneMatch, MockHttpServletResponse response) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/cards");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return new ServletWebRequest(request, response);
+    }
+}
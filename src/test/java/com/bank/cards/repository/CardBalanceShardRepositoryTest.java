@@ -0,0 +1,101 @@
+package com.bank.cards.repository;
+
+import com.bank.cards.entity.Card;
+import com.bank.cards.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.sql.init.mode=never")
+@ActiveProfiles("test")
+@Import(CardBalanceShardRepository.class)
+class CardBalanceShardRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CardBalanceShardRepository shardRepository;
+
+    private Long cardId;
+
+    @BeforeEach
+    void setUp() {
+        User owner = entityManager.persist(new User("owner", "hash", "Owner", "owner@example.com"));
+        Card card = new Card("4000000000000001", owner.getFullName(), YearMonth.of(2030, 1), "123", Card.CardType.DEBIT, owner);
+        card.setBalanceShards(4);
+        cardId = entityManager.persistAndFlush(card).getId();
+        shardRepository.create(cardId, 4);
+    }
+
+    @Test
+    void credit_AddsToOneShardOnly() {
+        // When
+        shardRepository.credit(cardId, 2, new BigDecimal("10.00"));
+        shardRepository.credit(cardId, 2, new BigDecimal("5.50"));
+
+        // Then
+        assertEquals(List.of("0.00", "0.00", "15.50", "0.00"), balances());
+        assertEquals(0, new BigDecimal("15.50").compareTo(shardRepository.sum(cardId)));
+    }
+
+    @Test
+    void credit_ReturnsZeroForMissingShard() {
+        // When / Then
+        assertEquals(0, shardRepository.credit(cardId, 4, BigDecimal.TEN));
+    }
+
+    @Test
+    void tryDebit_LeavesShardThatCannotCoverAmount() {
+        // Given
+        shardRepository.credit(cardId, 1, new BigDecimal("10.00"));
+
+        // When / Then
+        assertFalse(shardRepository.tryDebit(cardId, 1, new BigDecimal("10.01")));
+        assertTrue(shardRepository.tryDebit(cardId, 1, new BigDecimal("10.00")));
+        assertEquals(List.of("0.00", "0.00", "0.00", "0.00"), balances());
+    }
+
+    @Test
+    void drain_ReturnsSumAndEmptiesShards() {
+        // Given
+        shardRepository.credit(cardId, 0, new BigDecimal("1.00"));
+        shardRepository.credit(cardId, 3, new BigDecimal("2.00"));
+
+        // When
+        BigDecimal drained = shardRepository.drain(cardId);
+
+        // Then
+        assertEquals(0, new BigDecimal("3.00").compareTo(drained));
+        assertEquals(List.of("0.00", "0.00", "0.00", "0.00"), balances());
+    }
+
+    @Test
+    void deleteByCardId_RemovesAllShards() {
+        // When
+        int deleted = shardRepository.deleteByCardId(cardId);
+
+        // Then
+        assertEquals(4, deleted);
+        assertEquals(0, shardRepository.lockAndSum(cardId).signum());
+    }
+
+    private List<String> balances() {
+        return jdbcTemplate.queryForList("SELECT balance FROM card_balance_shards WHERE card_id = ? ORDER BY shard",
+                BigDecimal.class, cardId).stream().map(BigDecimal::toPlainString).toList();
+    }
+}
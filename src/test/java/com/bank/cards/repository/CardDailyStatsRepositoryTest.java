@@ -0,0 +1,95 @@
+package com.bank.cards.repository;
+
+import com.bank.cards.entity.Card;
+import com.bank.cards.entity.CardDailyStats;
+import com.bank.cards.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.sql.init.mode=never")
+@ActiveProfiles("test")
+class CardDailyStatsRepositoryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 10);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CardDailyStatsRepository cardDailyStatsRepository;
+
+    private Long cardId;
+
+    @BeforeEach
+    void setUp() {
+        User owner = entityManager.persist(new User("owner", "hash", "Owner", "owner@example.com"));
+        cardId = entityManager.persist(new Card("4000000000000001", owner.getFullName(), YearMonth.of(2030, 1),
+                "123", Card.CardType.DEBIT, owner)).getId();
+        // Two shards on DAY, only the first written carries the opening balance
+        stats(DAY.minusDays(3), 0, 50, 0, 50, 1);
+        stats(DAY, 0, 100, 30, 0, 1);
+        stats(DAY, 3, 0, 10, 5, 2);
+        stats(DAY.plusDays(2), 1, 65, 0, 20, 1);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void sumDaysBetween_AddsUpTheShardsOfEachDay() {
+        // When
+        List<CardDailyStatsRepository.DayTotals> days = cardDailyStatsRepository.sumDaysBetween(cardId, DAY, DAY.plusDays(2));
+
+        // Then
+        assertEquals(2, days.size());
+        assertEquals(DAY, days.get(0).getStatDate());
+        assertEquals(0, BigDecimal.valueOf(100).compareTo(days.get(0).getOpeningBalance()));
+        assertEquals(0, BigDecimal.valueOf(40).compareTo(days.get(0).getDebits()));
+        assertEquals(0, BigDecimal.valueOf(5).compareTo(days.get(0).getCredits()));
+        assertEquals(3L, days.get(0).getTransactionCount());
+        assertEquals(0, BigDecimal.valueOf(65).compareTo(days.get(0).getClosingBalance()));
+        assertEquals(DAY.plusDays(2), days.get(1).getStatDate());
+    }
+
+    @Test
+    void sumLastDayBeforeAndFirstDayAfter_SumTheNearestDayOnly() {
+        // When
+        CardDailyStatsRepository.DayTotals before = cardDailyStatsRepository.sumLastDayBefore(cardId, DAY.plusDays(1)).orElseThrow();
+        CardDailyStatsRepository.DayTotals after = cardDailyStatsRepository.sumFirstDayAfter(cardId, DAY.minusDays(1)).orElseThrow();
+
+        // Then
+        assertEquals(DAY, before.getStatDate());
+        assertEquals(0, BigDecimal.valueOf(65).compareTo(before.getClosingBalance()));
+        assertEquals(DAY, after.getStatDate());
+        assertEquals(0, BigDecimal.valueOf(100).compareTo(after.getOpeningBalance()));
+        assertTrue(cardDailyStatsRepository.sumLastDayBefore(cardId, DAY.minusDays(3)).isEmpty());
+    }
+
+    @Test
+    void addActivity_UpdatesOnlyTheGivenShard() {
+        // When
+        int updated = cardDailyStatsRepository.addActivity(cardId, DAY, 3, BigDecimal.ONE, BigDecimal.ZERO, 1);
+        int missing = cardDailyStatsRepository.addActivity(cardId, DAY, 2, BigDecimal.ONE, BigDecimal.ZERO, 1);
+
+        // Then
+        assertEquals(1, updated);
+        assertEquals(0, missing);
+        assertEquals(0, BigDecimal.valueOf(41).compareTo(
+                cardDailyStatsRepository.sumDaysBetween(cardId, DAY, DAY).get(0).getDebits()));
+    }
+
+    private void stats(LocalDate day, int shard, long opening, long debits, long credits, int count) {
+        entityManager.persist(new CardDailyStats(cardId, day, shard, BigDecimal.valueOf(opening),
+                BigDecimal.valueOf(debits), BigDecimal.valueOf(credits), count));
+    }
+}
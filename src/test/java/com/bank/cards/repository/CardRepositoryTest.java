@@ -0,0 +1,106 @@
+package com.bank.cards.repository;
+
+import com.bank.cards.entity.Card;
+import com.bank.cards.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.sql.init.mode=never")
+@ActiveProfiles("test")
+class CardRepositoryTest {
+
+    private static final YearMonth CURRENT_MONTH = YearMonth.of(2024, 6);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private Card dueMarch;
+    private Card dueJanuary;
+    private Card alsoDueJanuary;
+    private Card notDue;
+
+    @BeforeEach
+    void setUp() {
+        owner = entityManager.persist(new User("owner", "hash", "Owner", "owner@example.com"));
+        dueMarch = card("4000000000000001", YearMonth.of(2024, 3), Card.CardStatus.ACTIVE);
+        dueJanuary = card("4000000000000002", YearMonth.of(2024, 1), Card.CardStatus.ACTIVE);
+        alsoDueJanuary = card("4000000000000003", YearMonth.of(2024, 1), Card.CardStatus.ACTIVE);
+        card("4000000000000004", YearMonth.of(2024, 2), Card.CardStatus.BLOCKED);
+        notDue = card("4000000000000005", CURRENT_MONTH, Card.CardStatus.ACTIVE);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void expiryDate_IsStoredAsLastDayOfMonth() {
+        // When
+        LocalDate stored = jdbcTemplate.queryForObject("SELECT expiry_date FROM cards WHERE id = ?",
+                LocalDate.class, dueJanuary.getId());
+
+        // Then
+        assertEquals(LocalDate.of(2024, 1, 31), stored);
+        assertEquals(YearMonth.of(2024, 1), cardRepository.findById(dueJanuary.getId()).orElseThrow().getExpiryDate());
+    }
+
+    @Test
+    void findExpiredActiveCards_ReturnsDueActiveCardsInExpiryThenIdOrder() {
+        // When
+        List<CardRepository.ExpiredCard> first = cardRepository.findExpiredActiveCards(CURRENT_MONTH, PageRequest.of(0, 2));
+        CardRepository.ExpiredCard last = first.get(first.size() - 1);
+        List<CardRepository.ExpiredCard> next = cardRepository.findExpiredActiveCardsAfter(CURRENT_MONTH,
+                last.getExpiryDate(), last.getId(), PageRequest.of(0, 2));
+
+        // Then
+        assertEquals(List.of(dueJanuary.getId(), alsoDueJanuary.getId()), ids(first));
+        assertEquals(YearMonth.of(2024, 1), last.getExpiryDate());
+        assertEquals(owner.getId(), last.getOwnerId());
+        assertEquals(List.of(dueMarch.getId()), ids(next));
+    }
+
+    @Test
+    void markExpired_ChangesOnlyCardsStillDueAndBumpsVersion() {
+        // Given
+        Long versionBefore = entityManager.find(Card.class, dueJanuary.getId()).getVersion();
+        entityManager.clear();
+
+        // When
+        int updated = cardRepository.markExpired(List.of(dueJanuary.getId(), notDue.getId()), CURRENT_MONTH);
+
+        // Then
+        assertEquals(1, updated);
+        entityManager.clear();
+        Card expired = entityManager.find(Card.class, dueJanuary.getId());
+        assertEquals(Card.CardStatus.EXPIRED, expired.getStatus());
+        assertEquals(versionBefore + 1, expired.getVersion());
+        assertEquals(Card.CardStatus.ACTIVE, entityManager.find(Card.class, notDue.getId()).getStatus());
+    }
+
+    private Card card(String number, YearMonth expiryDate, Card.CardStatus status) {
+        Card card = new Card(number, owner.getFullName(), expiryDate, "123", Card.CardType.DEBIT, owner);
+        card.setStatus(status);
+        return entityManager.persist(card);
+    }
+
+    private static List<Long> ids(List<CardRepository.ExpiredCard> cards) {
+        return cards.stream().map(CardRepository.ExpiredCard::getId).toList();
+    }
+}
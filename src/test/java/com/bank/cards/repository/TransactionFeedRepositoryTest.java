@@ -0,0 +1,161 @@
+package com.bank.cards.repository;
+
+import com.bank.cards.dto.TransactionView;
+import com.bank.cards.entity.Card;
+import com.bank.cards.entity.TransactionFeedEntry;
+import com.bank.cards.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.sql.init.mode=never")
+@ActiveProfiles("test")
+@Import(TransactionFeedRepository.class)
+class TransactionFeedRepositoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionFeedRepository feedRepository;
+
+    private User owner;
+    private User other;
+    private Card first;
+    private Card second;
+    private Card foreign;
+
+    @BeforeEach
+    void setUp() {
+        owner = entityManager.persist(new User("owner", "hash", "Owner", "owner@example.com"));
+        other = entityManager.persist(new User("other", "hash", "Other", "other@example.com"));
+        first = entityManager.persist(card("4000000000000001", owner));
+        second = entityManager.persist(card("4000000000000002", owner));
+        foreign = entityManager.persist(card("4000000000009999", other));
+        entityManager.flush();
+
+        insertTransaction(1L, first.getId(), second.getId(), 0);
+        insertTransaction(2L, first.getId(), foreign.getId(), 1);
+        insertTransaction(3L, foreign.getId(), second.getId(), 2);
+        insertTransaction(4L, null, first.getId(), 2);
+    }
+
+    @Test
+    void deriveEntries_GivesEachInvolvedUserOneRow() {
+        // When
+        List<TransactionFeedEntry> entries = feedRepository.deriveEntries(List.of(1L, 2L, 3L, 4L)).stream()
+                .sorted(Comparator.comparing(TransactionFeedEntry::getTransactionId)
+                        .thenComparing(TransactionFeedEntry::getUserId))
+                .toList();
+
+        // Then
+        assertEquals(List.of("1:owner:OUT", "2:owner:OUT", "2:other:IN", "3:owner:IN", "3:other:OUT", "4:owner:IN"),
+                entries.stream().map(this::describe).toList());
+        TransactionFeedEntry incoming = entries.get(3);
+        assertEquals(second.getId(), incoming.getCardId());
+        assertEquals("** ** 0002", incoming.getCardNumber());
+        assertEquals(foreign.getId(), incoming.getCounterpartCardId());
+        assertEquals("** ** 9999", incoming.getCounterpartCardNumber());
+        assertNull(entries.get(5).getCounterpartCardId());
+    }
+
+    @Test
+    void findPage_ReadsUserFeedNewestFirstAsTransactionViews() {
+        // Given
+        feedRepository.insert(feedRepository.deriveEntries(List.of(1L, 2L, 3L, 4L)));
+
+        // When
+        List<TransactionView> page = feedRepository.findPage(owner.getId(), 0, 3);
+        List<TransactionView> rest = feedRepository.findPageAfter(owner.getId(),
+                page.get(2).getCreatedAt(), page.get(2).getId(), 3);
+
+        // Then
+        assertEquals(List.of(4L, 3L, 2L), page.stream().map(TransactionView::getId).toList());
+        assertEquals(List.of(1L), rest.stream().map(TransactionView::getId).toList());
+        assertEquals(foreign.getId(), page.get(1).getFromCardId());
+        assertEquals("** ** 9999", page.get(1).getFromCardNumber());
+        assertEquals(second.getId(), page.get(1).getToCardId());
+        assertEquals(first.getId(), rest.get(0).getFromCardId());
+        assertEquals(second.getId(), rest.get(0).getToCardId());
+        assertEquals(4, feedRepository.count(owner.getId()));
+        assertEquals(2, feedRepository.count(other.getId()));
+    }
+
+    @Test
+    void insert_StoresOnlyMaskedCardNumbers() {
+        // Given
+        List<TransactionFeedEntry> entries = feedRepository.deriveEntries(List.of(2L));
+        entries.get(0).setCounterpartCardNumber(foreign.getCardNumber());
+
+        // When
+        feedRepository.insert(entries);
+
+        // Then
+        assertEquals(List.of("** ** 0001:** ** 9999", "** ** 9999:** ** 0001"), jdbcTemplate.queryForList(
+                "SELECT card_number || ':' || counterpart_card_number FROM user_transaction_feed ORDER BY user_id",
+                String.class));
+    }
+
+    @Test
+    void pageAfterPlan_StartsUserIndexRangeAtTheCursor() {
+        // When
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + TransactionFeedRepository.PAGE_AFTER_SQL,
+                String.class, owner.getId(), Timestamp.valueOf(START), 2L, 20));
+
+        // Then
+        assertTrue(plan.contains("IDX_USER_TRANSACTION_FEED_USER_CREATED"), plan);
+        assertTrue(Pattern.compile("USER_ID = \\?1\\s+AND CREATED_AT <= \\?2\\s+\\*/").matcher(plan).find(), plan);
+    }
+
+    @Test
+    void deleteByTransactionIds_RemovesRowsOfEveryUser() {
+        // Given
+        feedRepository.insert(feedRepository.deriveEntries(List.of(1L, 2L, 3L, 4L)));
+
+        // When
+        int deleted = feedRepository.deleteByTransactionIds(List.of(2L, 3L));
+
+        // Then
+        assertEquals(4, deleted);
+        assertEquals(List.of(1L, 4L), feedRepository.findEntries(List.of(1L, 2L, 3L, 4L)).stream()
+                .map(TransactionFeedEntry::getTransactionId).sorted().toList());
+        assertEquals(List.of(1L, 2L, 4L), feedRepository.findTransactionIdsByCard(first.getId()).stream().sorted().toList());
+    }
+
+    private void insertTransaction(Long id, Long fromCardId, Long toCardId, int minutes) {
+        jdbcTemplate.update("INSERT INTO transactions (id, from_card_id, to_card_id, amount, type, status, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, 'COMPLETED', ?)", id, fromCardId, toCardId, BigDecimal.TEN,
+                fromCardId == null ? "DEPOSIT" : "TRANSFER", Timestamp.valueOf(START.plusMinutes(minutes)));
+    }
+
+    private String describe(TransactionFeedEntry entry) {
+        String user = entry.getUserId().equals(owner.getId()) ? "owner" : "other";
+        return entry.getTransactionId() + ":" + user + ":" + entry.getDirection();
+    }
+
+    private Card card(String number, User cardOwner) {
+        Card card = new Card(number, cardOwner.getFullName(), YearMonth.of(2030, 1), "123", Card.CardType.DEBIT, cardOwner);
+        card.setBalance(BigDecimal.TEN);
+        return card;
+    }
+}
@@ -0,0 +1,200 @@
+package com.bank.cards.repository;
+
+import com.bank.cards.dto.TransactionView;
+import com.bank.cards.entity.Card;
+import com.bank.cards.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.sql.init.mode=never")
+@ActiveProfiles("test")
+@Import(TransactionHistoryRepository.class)
+class TransactionHistoryRepositoryTest {
+
+    private static final int TRANSACTIONS = 3000;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionHistoryRepository historyRepository;
+
+    private List<Long> ownCards;
+    private List<Long> expected;
+
+    @BeforeEach
+    void setUp() {
+        User owner = entityManager.persist(new User("owner", "hash", "Owner", "owner@example.com"));
+        User other = entityManager.persist(new User("other", "hash", "Other", "other@example.com"));
+        Card first = entityManager.persist(card("4000000000000001", owner));
+        Card second = entityManager.persist(card("4000000000000002", owner));
+        Card third = entityManager.persist(card("4000000000000003", other));
+        Card fourth = entityManager.persist(card("4000000000000004", other));
+        entityManager.flush();
+
+        // Mostly unrelated traffic between the other user's cards, plus transfers in, out and between own cards
+        Long[][] routes = {
+            {third.getId(), fourth.getId()}, {fourth.getId(), third.getId()}, {third.getId(), fourth.getId()},
+            {first.getId(), third.getId()}, {fourth.getId(), second.getId()}, {first.getId(), second.getId()},
+            {null, first.getId()}, {second.getId(), null}
+        };
+        ownCards = List.of(first.getId(), second.getId());
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Object[]> rows = new ArrayList<>();
+        List<Long[]> owned = new ArrayList<>();
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            Long[] route = routes[i % routes.length];
+            long id = i + 1;
+            // Every third pair shares a timestamp so ties are broken by id
+            Timestamp createdAt = Timestamp.valueOf(start.plusSeconds(i / 3 * 2 + (i % 3 == 2 ? 1 : 0)));
+            rows.add(new Object[]{id, route[0], route[1], BigDecimal.ONE, route[0] != null && route[1] != null
+                    ? "TRANSFER" : route[0] == null ? "DEPOSIT" : "WITHDRAWAL", "COMPLETED", createdAt});
+            if (isOwn(route[0]) || isOwn(route[1])) {
+                owned.add(new Long[]{id, createdAt.getTime()});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO transactions " +
+                "(id, from_card_id, to_card_id, amount, type, status, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+
+        expected = owned.stream()
+                .sorted(Comparator.<Long[], Long>comparing(row -> row[1]).thenComparing(row -> row[0]).reversed())
+                .map(row -> row[0])
+                .toList();
+    }
+
+    @Test
+    void historyPlan_SeeksCardIndexInEveryBranch() {
+        // Given
+        List<Object> args = new ArrayList<>();
+        String sql = TransactionHistoryRepository.historySql(ownCards, 20, null, null, args) + " LIMIT 20";
+
+        // When
+        String plan = explain(sql, args);
+
+        // Then
+        assertEquals(ownCards.size(), indexLookups(plan, "FROM_CARD_ID"), plan);
+        assertEquals(ownCards.size(), indexLookups(plan, "TO_CARD_ID"), plan);
+        assertFalse(plan.contains("TRANSACTIONS.tableScan"), plan);
+    }
+
+    @Test
+    void keysetPlan_StartsEveryBranchRangeAtTheCursor() {
+        // Given
+        List<Object> args = new ArrayList<>();
+        String sql = TransactionHistoryRepository.historySql(ownCards, 20,
+                Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 0, 30)), 1000L, args) + " LIMIT 20";
+
+        // When
+        String plan = explain(sql, args);
+
+        // Then
+        assertEquals(ownCards.size(), indexLookups(plan, "FROM_CARD_ID"), plan);
+        assertEquals(ownCards.size(), indexLookups(plan, "TO_CARD_ID"), plan);
+        assertFalse(plan.contains("TRANSACTIONS.tableScan"), plan);
+        // Each branch starts its index range at the cursor rather than filtering the newer rows out
+        assertEquals(2L * ownCards.size(), cursorBounds(plan), plan);
+    }
+
+    @Test
+    void historyIndexes_AreOrderedByCardThenNewestFirst() {
+        // When
+        List<String> columns = jdbcTemplate.queryForList(
+                "SELECT INDEX_NAME || ':' || COLUMN_NAME || ':' || ORDERING_SPECIFICATION " +
+                "FROM INFORMATION_SCHEMA.INDEX_COLUMNS WHERE INDEX_NAME LIKE 'IDX_TRANSACTIONS_%' " +
+                "ORDER BY INDEX_NAME, ORDINAL_POSITION", String.class);
+
+        // Then
+        assertEquals(List.of(
+                "IDX_TRANSACTIONS_FROM_CARD_CREATED:FROM_CARD_ID:ASC",
+                "IDX_TRANSACTIONS_FROM_CARD_CREATED:CREATED_AT:DESC",
+                "IDX_TRANSACTIONS_FROM_CARD_CREATED:ID:DESC",
+                "IDX_TRANSACTIONS_TO_CARD_CREATED:TO_CARD_ID:ASC",
+                "IDX_TRANSACTIONS_TO_CARD_CREATED:CREATED_AT:DESC",
+                "IDX_TRANSACTIONS_TO_CARD_CREATED:ID:DESC"), columns);
+    }
+
+    @Test
+    void findPage_ReturnsOwnTransactionsNewestFirstWithoutDuplicates() {
+        // When
+        List<TransactionView> firstPage = historyRepository.findPage(ownCards, 0, 20);
+        List<TransactionView> thirdPage = historyRepository.findPage(ownCards, 40, 20);
+
+        // Then
+        assertEquals(expected.subList(0, 20), ids(firstPage));
+        assertEquals(expected.subList(40, 60), ids(thirdPage));
+        assertTrue(firstPage.stream().allMatch(view -> view.getFromCardNumber() != null || view.getToCardNumber() != null));
+        assertEquals(expected.size(), historyRepository.count(ownCards));
+    }
+
+    @Test
+    void findPageAfter_WalksWholeHistoryByKeyset() {
+        // Given
+        List<Long> walked = new ArrayList<>();
+        List<TransactionView> page = historyRepository.findPage(ownCards, 0, 100);
+
+        // When
+        while (!page.isEmpty()) {
+            walked.addAll(ids(page));
+            TransactionView last = page.get(page.size() - 1);
+            page = historyRepository.findPageAfter(ownCards, last.getCreatedAt(), last.getId(), 100);
+        }
+
+        // Then
+        assertEquals(expected, walked);
+    }
+
+    @Test
+    void findPage_ReturnsEmptyForNoCards() {
+        // When / Then
+        assertTrue(historyRepository.findPage(List.of(), 0, 20).isEmpty());
+        assertEquals(0, historyRepository.count(List.of()));
+    }
+
+    private boolean isOwn(Long cardId) {
+        return cardId != null && ownCards.contains(cardId);
+    }
+
+    private Card card(String number, User owner) {
+        Card card = new Card(number, owner.getFullName(), YearMonth.of(2030, 1), "123", Card.CardType.DEBIT, owner);
+        card.setBalance(BigDecimal.TEN);
+        return card;
+    }
+
+    private String explain(String sql, List<Object> args) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args.toArray()));
+    }
+
+    // H2 prints an index lookup as "/* PUBLIC.<index>: <column> = ?n */" and a full scan as "tableScan"
+    private static long indexLookups(String plan, String column) {
+        return Pattern.compile("/\\* PUBLIC\\.\\w+: " + column + " = \\?\\d+").matcher(plan).results().count();
+    }
+
+    // A keyset bound shows up inside the index comment as "AND CREATED_AT <= ?n"; a filter only in the WHERE clause
+    private static long cursorBounds(String plan) {
+        return Pattern.compile("/\\* PUBLIC\\.\\w+: \\w+ = \\?\\d+\\s+AND CREATED_AT <= \\?\\d+").matcher(plan).results().count();
+    }
+
+    private static List<Long> ids(List<TransactionView> views) {
+        return views.stream().map(TransactionView::getId).toList();
+    }
+}
@@ -0,0 +1,132 @@
+package com.bank.cards.repository;
+
+import com.bank.cards.entity.Card;
+import com.bank.cards.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.sql.init.mode=never")
+@ActiveProfiles("test")
+@Import({UserDataVersionRepository.class, TransactionFeedRepository.class})
+class UserDataVersionRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserDataVersionRepository versionRepository;
+
+    @Autowired
+    private TransactionFeedRepository feedRepository;
+
+    private User owner;
+    private User other;
+    private Card first;
+    private Card foreign;
+
+    @BeforeEach
+    void setUp() {
+        owner = entityManager.persist(new User("owner", "hash", "Owner", "owner@example.com"));
+        other = entityManager.persist(new User("other", "hash", "Other", "other@example.com"));
+        first = entityManager.persist(card("4000000000000001", owner));
+        foreign = entityManager.persist(card("4000000000009999", other));
+        entityManager.flush();
+    }
+
+    @Test
+    void findVersion_ChangesWhenCardIsUpdated() {
+        // Given
+        String before = versionRepository.findVersion(owner.getId());
+
+        // When
+        first.setStatus(Card.CardStatus.BLOCKED);
+        entityManager.flush();
+
+        // Then
+        assertNotEquals(before, versionRepository.findVersion(owner.getId()));
+    }
+
+    @Test
+    void findVersion_ChangesWhenCardIsAddedOrRemoved() {
+        // Given
+        String before = versionRepository.findVersion(owner.getId());
+
+        // When
+        Card second = entityManager.persistAndFlush(card("4000000000000002", owner));
+        String added = versionRepository.findVersion(owner.getId());
+        entityManager.remove(second);
+        entityManager.flush();
+
+        // Then
+        assertNotEquals(before, added);
+        assertEquals(before, versionRepository.findVersion(owner.getId()));
+    }
+
+    @Test
+    void findVersion_ChangesWithEveryFeedVersionBumpWithoutCardChange() {
+        // Given: a credit to a striped card leaves the card row alone
+        String before = versionRepository.findVersion(owner.getId());
+        String otherBefore = versionRepository.findVersion(other.getId());
+
+        // When: the first bump of a shard creates its row, later ones add to it
+        versionRepository.bumpFeedVersion(owner.getId(), 0);
+        String once = versionRepository.findVersion(owner.getId());
+        versionRepository.bumpFeedVersion(owner.getId(), 3);
+        versionRepository.bumpFeedVersion(owner.getId(), 0);
+
+        // Then
+        assertNotEquals(before, once);
+        assertNotEquals(once, versionRepository.findVersion(owner.getId()));
+        assertEquals(otherBefore, versionRepository.findVersion(other.getId()));
+        assertEquals(List.of("0:2", "3:1"), jdbcTemplate.queryForList("SELECT shard || ':' || version " +
+                "FROM user_feed_versions WHERE user_id = ? ORDER BY shard", String.class, owner.getId()));
+    }
+
+    @Test
+    void findVersion_DoesNotReadTheFeed() {
+        // Given
+        String before = versionRepository.findVersion(owner.getId());
+        jdbcTemplate.update("INSERT INTO transactions (id, from_card_id, to_card_id, amount, type, status, created_at) " +
+                "VALUES (1, ?, ?, 10, 'TRANSFER', 'COMPLETED', CURRENT_TIMESTAMP)", foreign.getId(), first.getId());
+
+        // When: feed rows written without a bump, which TransactionFeedService never does
+        feedRepository.insert(feedRepository.deriveEntries(List.of(1L)));
+
+        // Then
+        assertEquals(before, versionRepository.findVersion(owner.getId()));
+    }
+
+    @Test
+    void findVersion_IgnoresOtherUsersCards() {
+        // Given
+        String before = versionRepository.findVersion(owner.getId());
+
+        // When
+        foreign.setStatus(Card.CardStatus.BLOCKED);
+        entityManager.flush();
+
+        // Then
+        assertEquals(before, versionRepository.findVersion(owner.getId()));
+    }
+
+    private Card card(String number, User cardOwner) {
+        Card card = new Card(number, cardOwner.getFullName(), YearMonth.of(2030, 1), "123", Card.CardType.DEBIT, cardOwner);
+        card.setBalance(BigDecimal.TEN);
+        return card;
+    }
+}
@@ -0,0 +1,68 @@
+package com.bank.cards.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 60_000L, 100, 30);
+    }
+
+    @Test
+    void verifyToken_ReturnsClaimsAndReusesThemForSameToken() {
+        // Given
+        String token = jwtUtil.generateToken("testuser");
+
+        // When
+        Claims first = jwtUtil.verifyToken(token);
+        Claims second = jwtUtil.verifyToken(token);
+
+        // Then
+        assertEquals("testuser", first.getSubject());
+        assertSame(first, second);
+        assertTrue(jwtUtil.validateToken(token, "testuser"));
+        assertFalse(jwtUtil.validateToken(token, "otheruser"));
+    }
+
+    @Test
+    void verifyToken_RejectsTokenSignedWithAnotherKey() {
+        // Given
+        JwtUtil otherIssuer = new JwtUtil(SECRET.replace('0', 'x'), 60_000L, 100, 30);
+        String forged = otherIssuer.generateToken("testuser");
+
+        // When & Then
+        assertThrows(SignatureException.class, () -> jwtUtil.verifyToken(forged));
+    }
+
+    @Test
+    void verifyToken_RejectsExpiredToken() {
+        // Given
+        JwtUtil expiredIssuer = new JwtUtil(SECRET, -1_000L, 100, 30);
+        String token = expiredIssuer.generateToken("testuser");
+
+        // When & Then
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.verifyToken(token));
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.verifyToken(token));
+    }
+
+    @Test
+    void verifyToken_WorksWithCacheDisabled() {
+        // Given
+        JwtUtil uncached = new JwtUtil(SECRET, 60_000L, 0, 30);
+        String token = uncached.generateToken("testuser");
+
+        // When & Then
+        assertEquals("testuser", uncached.verifyToken(token).getSubject());
+    }
+}
@@ -0,0 +1,82 @@
+package com.bank.cards.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new PasswordHashingExecutor(meterRegistry, 1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void submit_RejectsAtOnceWhenThreadsAndQueueAreFull() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> running = executor.submit(() -> await(release));
+        CompletableFuture<String> queued = executor.submit(() -> "queued");
+
+        // When & Then
+        assertThrows(RejectedExecutionException.class, () -> executor.submit(() -> "rejected"));
+        assertEquals(1, executor.queueDepth());
+        assertEquals(1.0, meterRegistry.get("executor.queued").tag("name", "passwordHashing").gauge().value());
+
+        release.countDown();
+        assertEquals("done", running.get(5, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void timedPasswordEncoder_RecordsHashTimeAndKeepsUpgradeCheck() {
+        // Given
+        TimedPasswordEncoder encoder = new TimedPasswordEncoder(new BCryptPasswordEncoder(5), meterRegistry);
+        String weaker = new BCryptPasswordEncoder(4).encode("secret");
+
+        // When
+        String encoded = encoder.encode("secret");
+
+        // Then
+        assertTrue(encoder.matches("secret", encoded));
+        assertTrue(encoder.upgradeEncoding(weaker));
+        assertFalse(encoder.upgradeEncoding(encoded));
+        assertEquals(1, meterRegistry.get("auth.password.hash").tag("operation", "encode").timer().count());
+        assertEquals(1, meterRegistry.get("auth.password.hash").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void calibrator_PicksHighestStrengthWithinTarget() {
+        // When & Then
+        assertEquals(12, BCryptStrengthCalibrator.strengthFor(60, 10, 250, 14));
+        assertEquals(10, BCryptStrengthCalibrator.strengthFor(300, 10, 250, 14));
+        assertEquals(14, BCryptStrengthCalibrator.strengthFor(1, 10, 250, 14));
+    }
+
+    private String await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+}
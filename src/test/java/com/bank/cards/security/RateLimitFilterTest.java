@@ -0,0 +1,168 @@
+package com.bank.cards.security;
+
+import com.bank.cards.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Refill rates are low enough that no token comes back while a test runs
+        filter = new RateLimitFilter(meterRegistry, true, 600, 1000, 2, 0.001, 3, 0.001, 1, 0.001, 5, 0.001);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_RejectsLoginsFromOneAddressAfterBurst() throws Exception {
+        // When
+        int first = send("POST", "/auth/login", "10.0.0.1").getStatus();
+        int second = send("POST", "/auth/login", "10.0.0.1").getStatus();
+        MockHttpServletResponse third = send("POST", "/auth/login", "10.0.0.1");
+        int otherAddress = send("POST", "/auth/login", "10.0.0.2").getStatus();
+
+        // Then
+        assertEquals(200, first);
+        assertEquals(200, second);
+        assertEquals(429, third.getStatus());
+        assertNotNull(third.getHeader("Retry-After"));
+        assertTrue(Long.parseLong(third.getHeader("Retry-After")) >= 1);
+        assertEquals(200, otherAddress);
+        assertEquals(1.0, meterRegistry.counter("http.server.requests.rate_limited", "group", "auth").count());
+    }
+
+    @Test
+    void doFilter_KeysAuthenticatedRequestsByUser() throws Exception {
+        // Given
+        authenticateAs(1L);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, send("POST", "/transactions/transfer", "10.0.0.1").getStatus());
+        }
+
+        // When
+        int sameUser = send("POST", "/transactions/transfer", "10.0.0.9").getStatus();
+        int otherGroup = send("GET", "/cards", "10.0.0.1").getStatus();
+        authenticateAs(2L);
+        int otherUser = send("POST", "/transactions/transfer", "10.0.0.1").getStatus();
+
+        // Then
+        assertEquals(429, sameUser);
+        assertEquals(200, otherGroup);
+        assertEquals(200, otherUser);
+    }
+
+    @Test
+    void doFilter_LimitsBatchTransfersOnTheirOwnStricterBucket() throws Exception {
+        // Given
+        authenticateAs(1L);
+
+        // When
+        int firstBatch = send("POST", "/transactions/transfer/batch", "10.0.0.1").getStatus();
+        MockHttpServletResponse secondBatch = send("POST", "/transactions/transfer/batch", "10.0.0.1");
+        int transfer = send("POST", "/transactions/transfer", "10.0.0.1").getStatus();
+
+        // Then
+        assertEquals(200, firstBatch);
+        assertEquals(429, secondBatch.getStatus());
+        assertEquals(200, transfer);
+        assertEquals(1.0, meterRegistry.counter("http.server.requests.rate_limited", "group", "batch_transfers").count());
+        assertEquals(RateLimitFilter.Group.BATCH_TRANSFERS, RateLimitFilter.groupOf("/transactions/transfer/batch"));
+        assertEquals(RateLimitFilter.Group.TRANSFERS, RateLimitFilter.groupOf("/transactions/transfer"));
+    }
+
+    @Test
+    void doFilter_AdmitsExactlyCapacityUnderConcurrency() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger admitted = new AtomicInteger();
+
+        // When
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(executor.submit(() -> {
+                if (send("GET", "/cards", "10.0.0.3").getStatus() == 200) {
+                    admitted.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(5, admitted.get());
+    }
+
+    @Test
+    void doFilter_PassesEverythingWhenDisabled() throws Exception {
+        // Given
+        filter = new RateLimitFilter(meterRegistry, false, 600, 1000, 1, 0.001, 1, 0.001, 1, 0.001, 1, 0.001);
+
+        // When & Then
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, send("POST", "/auth/login", "10.0.0.1").getStatus());
+        }
+    }
+
+    @Test
+    void tokenBucket_RefillsAtConfiguredRate() {
+        // Given
+        TokenBucket bucket = new TokenBucket(2, 10, 0);
+        long interval = TimeUnit.MILLISECONDS.toNanos(100);
+
+        // When & Then
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(interval, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(interval));
+        assertTrue(bucket.tryAcquire(interval) > 0);
+        assertEquals(0, bucket.tryAcquire(10 * interval));
+        assertEquals(0, bucket.tryAcquire(10 * interval));
+        assertTrue(bucket.tryAcquire(10 * interval) > 0);
+    }
+
+    private MockHttpServletResponse send(String method, String path, String address) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api" + path);
+        request.setContextPath("/api");
+        request.setRemoteAddr(address);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private void authenticateAs(Long userId) {
+        User user = new User();
+        user.setId(userId);
+        user.setUsername("user" + userId);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+}
@@ -0,0 +1,85 @@
+package com.bank.cards.security;
+
+import com.bank.cards.entity.User;
+import com.bank.cards.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserPrincipalCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserPrincipalCache userPrincipalCache;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userPrincipalCache = new UserPrincipalCache(userRepository, meterRegistry, 100, 60);
+
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("testuser");
+    }
+
+    @Test
+    void get_LoadsUserOnceAndRecordsHitsAndMisses() {
+        // Given
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        // When
+        Optional<User> first = userPrincipalCache.get("testuser");
+        Optional<User> second = userPrincipalCache.get("testuser");
+
+        // Then
+        assertSame(testUser, first.orElseThrow());
+        assertSame(testUser, second.orElseThrow());
+        verify(userRepository, times(1)).findByUsername("testuser");
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "principals").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "principals").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void get_DoesNotCacheUnknownUsers() {
+        // Given
+        when(userRepository.findByUsername("newuser")).thenReturn(Optional.empty()).thenReturn(Optional.of(testUser));
+
+        // When
+        Optional<User> beforeRegistration = userPrincipalCache.get("newuser");
+        Optional<User> afterRegistration = userPrincipalCache.get("newuser");
+
+        // Then
+        assertTrue(beforeRegistration.isEmpty());
+        assertTrue(afterRegistration.isPresent());
+        verify(userRepository, times(2)).findByUsername("newuser");
+    }
+
+    @Test
+    void evict_ReloadsChangedUser() {
+        // Given
+        User updatedUser = new User();
+        updatedUser.setUsername("testuser");
+        updatedUser.setFullName("Updated Name");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser)).thenReturn(Optional.of(updatedUser));
+        userPrincipalCache.get("testuser");
+
+        // When
+        userPrincipalCache.evict("testuser");
+
+        // Then
+        assertEquals("Updated Name", userPrincipalCache.get("testuser").orElseThrow().getFullName());
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+}
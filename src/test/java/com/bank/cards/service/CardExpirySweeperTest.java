@@ -0,0 +1,141 @@
+package com.bank.cards.service;
+
+import com.bank.cards.config.CacheConfig;
+import com.bank.cards.entity.Card;
+import com.bank.cards.repository.CardRepository;
+import com.bank.cards.service.impl.CardExpirySweeper;
+import com.bank.cards.service.ledger.CardLedger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardExpirySweeperTest {
+
+    private static final YearMonth EXPIRY = YearMonth.of(2020, 1);
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache userCardsCache;
+
+    @Mock
+    private CardLedger cardLedger;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CardExpirySweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(cacheManager.getCache(CacheConfig.USER_CARDS)).thenReturn(userCardsCache);
+        sweeper = new CardExpirySweeper(cardRepository, transactionManager, cacheManager, meterRegistry, 2);
+    }
+
+    @Test
+    void sweep_ExpiresCardsChunkByChunkInExpiryOrder() {
+        // Given
+        List<CardRepository.ExpiredCard> firstChunk = List.of(expiredCard(1L, 10L), expiredCard(2L, 10L));
+        List<CardRepository.ExpiredCard> lastChunk = List.of(expiredCard(5L, 11L));
+        when(cardRepository.findExpiredActiveCards(any(YearMonth.class), any(Pageable.class))).thenReturn(firstChunk);
+        when(cardRepository.findExpiredActiveCardsAfter(any(YearMonth.class), eq(EXPIRY), eq(2L), any(Pageable.class)))
+                .thenReturn(lastChunk);
+        when(cardRepository.markExpired(eq(List.of(1L, 2L)), any(YearMonth.class))).thenReturn(2);
+        when(cardRepository.markExpired(eq(List.of(5L)), any(YearMonth.class))).thenReturn(1);
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        verify(cardRepository).findExpiredActiveCards(any(), any());
+        verify(cardRepository).findExpiredActiveCardsAfter(any(), any(), anyLong(), any());
+        verify(userCardsCache, times(2)).evict(10L);
+        verify(userCardsCache).evict(11L);
+        assertEquals(3.0, meterRegistry.counter("cards.expired").count());
+        assertEquals(1, meterRegistry.timer("cards.expiry.sweep").count());
+    }
+
+    @Test
+    void sweep_CountsOnlyRowsThisRunChanged() {
+        // Given
+        when(cardRepository.findExpiredActiveCards(any(YearMonth.class), any(Pageable.class)))
+                .thenReturn(List.of(expiredCard(1L, 10L)));
+        when(cardRepository.markExpired(anyList(), any(YearMonth.class))).thenReturn(0);
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        assertEquals(0.0, meterRegistry.counter("cards.expired").count());
+    }
+
+    @Test
+    void sweep_UpdatesLedgerStatusWhenLedgerEnabled() {
+        // Given
+        sweeper.setCardLedger(cardLedger);
+        when(cardRepository.findExpiredActiveCards(any(YearMonth.class), any(Pageable.class)))
+                .thenReturn(List.of(expiredCard(7L, 10L)));
+        when(cardRepository.markExpired(anyList(), any(YearMonth.class))).thenReturn(1);
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        verify(cardLedger).updateStatus(7L, Card.CardStatus.EXPIRED);
+    }
+
+    @Test
+    void sweep_DoesNothingWhenNoCardExpired() {
+        // Given
+        when(cardRepository.findExpiredActiveCards(any(YearMonth.class), any(Pageable.class))).thenReturn(List.of());
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        verify(cardRepository, never()).markExpired(anyList(), any());
+        verifyNoInteractions(userCardsCache);
+    }
+
+    private CardRepository.ExpiredCard expiredCard(Long id, Long ownerId) {
+        return new CardRepository.ExpiredCard() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getOwnerId() {
+                return ownerId;
+            }
+
+            @Override
+            public YearMonth getExpiryDate() {
+                return EXPIRY;
+            }
+        };
+    }
+}
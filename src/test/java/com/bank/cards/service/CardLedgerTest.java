@@ -0,0 +1,236 @@
+package com.bank.cards.service;
+
+import com.bank.cards.dto.TransferRequest;
+import com.bank.cards.entity.Card;
+import com.bank.cards.entity.Transaction;
+import com.bank.cards.entity.User;
+import com.bank.cards.repository.CardBalanceShardRepository;
+import com.bank.cards.repository.CardRepository;
+import com.bank.cards.repository.TransactionRepository;
+import com.bank.cards.repository.TransferBatchRepository;
+import com.bank.cards.service.balance.StripedBalances;
+import com.bank.cards.service.ledger.CardLedger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardLedgerTest {
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransferBatchRepository transferBatchRepository;
+
+    @Mock
+    private CardStatsService cardStatsService;
+
+    @Mock
+    private TransactionFeedService transactionFeedService;
+
+    @Mock
+    private CardBalanceShardRepository cardBalanceShardRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CardLedger cardLedger;
+
+    private User testUser;
+    private Card fromCard;
+    private Card toCard;
+
+    @BeforeEach
+    void setUp() {
+        cardLedger = new CardLedger(cardRepository, transactionRepository, transferBatchRepository, cardStatsService, transactionFeedService,
+                new StripedBalances(cardBalanceShardRepository, 64), transactionManager, 500, 3);
+
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("testuser");
+
+        fromCard = new Card();
+        fromCard.setId(1L);
+        fromCard.setCardNumber("1234567890123456");
+        fromCard.setBalance(BigDecimal.valueOf(1000.00));
+        fromCard.setStatus(Card.CardStatus.ACTIVE);
+        fromCard.setOwner(testUser);
+
+        toCard = new Card();
+        toCard.setId(2L);
+        toCard.setCardNumber("9876543210987654");
+        toCard.setBalance(BigDecimal.valueOf(500.00));
+        toCard.setStatus(Card.CardStatus.ACTIVE);
+        toCard.setOwner(testUser);
+    }
+
+    @Test
+    void transfer_AppliesBalancesInMemoryAndLoadsEachCardOnce() {
+        // Given
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(fromCard));
+        when(cardRepository.findById(2L)).thenReturn(Optional.of(toCard));
+
+        // When
+        Transaction first = cardLedger.transfer(new TransferRequest(1L, 2L, BigDecimal.valueOf(100.00), "first"), testUser);
+        cardLedger.transfer(new TransferRequest(2L, 1L, BigDecimal.valueOf(30.00), "second"), testUser);
+
+        // Then
+        assertEquals(Transaction.TransactionStatus.COMPLETED, first.getStatus());
+        assertNull(first.getFromCard().getCvv());
+        assertEquals(0, BigDecimal.valueOf(930.00).compareTo(cardLedger.currentBalance(1L, BigDecimal.ZERO)));
+        assertEquals(0, BigDecimal.valueOf(570.00).compareTo(cardLedger.currentBalance(2L, BigDecimal.ZERO)));
+        assertEquals(2, cardLedger.pendingCount());
+
+        verify(cardRepository, times(1)).findById(1L);
+        verify(cardRepository, times(1)).findById(2L);
+        verifyNoInteractions(transferBatchRepository);
+    }
+
+    @Test
+    void transfer_InsufficientBalance() {
+        // Given
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(fromCard));
+        when(cardRepository.findById(2L)).thenReturn(Optional.of(toCard));
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            cardLedger.transfer(new TransferRequest(1L, 2L, BigDecimal.valueOf(1500.00), null), testUser);
+        });
+
+        assertEquals("Insufficient balance", exception.getMessage());
+        assertEquals(0, BigDecimal.valueOf(1000.00).compareTo(cardLedger.currentBalance(1L, BigDecimal.ZERO)));
+        assertEquals(0, cardLedger.pendingCount());
+    }
+
+    @Test
+    void transfer_CardOfAnotherUser() {
+        // Given
+        User otherUser = new User();
+        otherUser.setId(2L);
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(fromCard));
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            cardLedger.transfer(new TransferRequest(1L, 2L, BigDecimal.TEN, null), otherUser);
+        });
+
+        assertEquals("From card not found", exception.getMessage());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_WritesAggregatedDeltasAndTransactions() {
+        // Given
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(fromCard));
+        when(cardRepository.findById(2L)).thenReturn(Optional.of(toCard));
+        cardLedger.transfer(new TransferRequest(1L, 2L, BigDecimal.valueOf(100.00), null), testUser);
+        cardLedger.transfer(new TransferRequest(1L, 2L, BigDecimal.valueOf(50.00), null), testUser);
+        when(cardRepository.getReferenceById(1L)).thenReturn(fromCard);
+        when(cardRepository.getReferenceById(2L)).thenReturn(toCard);
+
+        // When
+        cardLedger.flush();
+
+        // Then
+        ArgumentCaptor<Map<Long, BigDecimal>> deltas = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<List<Transaction>> transactions = ArgumentCaptor.forClass(List.class);
+        verify(transferBatchRepository).applyBalanceDeltas(deltas.capture());
+        verify(transactionRepository).saveAll(transactions.capture());
+
+        assertEquals(0, BigDecimal.valueOf(-150.00).compareTo(deltas.getValue().get(1L)));
+        assertEquals(0, BigDecimal.valueOf(150.00).compareTo(deltas.getValue().get(2L)));
+        assertEquals(2, transactions.getValue().size());
+        assertSame(toCard, transactions.getValue().get(0).getToCard());
+        verify(cardStatsService).recordTransfers(transactions.getValue(),
+                Map.of(1L, BigDecimal.valueOf(1000.00), 2L, BigDecimal.valueOf(500.00)));
+        verify(transactionFeedService).recordTransfers(transactions.getValue());
+        assertEquals(0, cardLedger.pendingCount());
+    }
+
+    @Test
+    void flush_KeepsEntriesQueuedWhenWriteFails() {
+        // Given
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(fromCard));
+        when(cardRepository.findById(2L)).thenReturn(Optional.of(toCard));
+        cardLedger.transfer(new TransferRequest(1L, 2L, BigDecimal.valueOf(100.00), null), testUser);
+        doThrow(new DataAccessResourceFailureException("connection refused")).when(transactionRepository).saveAll(anyList());
+
+        // When
+        cardLedger.flush();
+
+        // Then
+        assertEquals(1, cardLedger.pendingCount());
+        assertEquals(0, cardLedger.deadLetteredCount());
+        verify(transactionManager, times(2)).rollback(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_DeadLettersRejectedEntryAndWritesTheOnesBehindIt() {
+        // Given
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(fromCard));
+        when(cardRepository.findById(2L)).thenReturn(Optional.of(toCard));
+        when(cardRepository.getReferenceById(1L)).thenReturn(fromCard);
+        when(cardRepository.getReferenceById(2L)).thenReturn(toCard);
+        cardLedger.transfer(new TransferRequest(1L, 2L, BigDecimal.valueOf(10.00), "first"), testUser);
+        cardLedger.transfer(new TransferRequest(1L, 2L, BigDecimal.valueOf(20.00), "poison"), testUser);
+        cardLedger.transfer(new TransferRequest(1L, 2L, BigDecimal.valueOf(30.00), "third"), testUser);
+        doAnswer(invocation -> {
+            List<Transaction> rows = invocation.getArgument(0);
+            if (rows.stream().anyMatch(row -> "poison".equals(row.getDescription()))) {
+                throw new DataIntegrityViolationException("value too long for column description");
+            }
+            return rows;
+        }).when(transactionRepository).saveAll(anyList());
+
+        // When
+        cardLedger.flush();
+
+        // Then
+        assertEquals(0, cardLedger.pendingCount());
+        assertEquals(1, cardLedger.deadLetteredCount());
+        ArgumentCaptor<List<Transaction>> written = ArgumentCaptor.forClass(List.class);
+        verify(transactionFeedService, times(2)).recordTransfers(written.capture());
+        assertEquals(List.of("first", "third"), written.getAllValues().stream()
+                .map(rows -> rows.get(0).getDescription()).toList());
+    }
+
+    @Test
+    void transfer_RefusedWhileQueueIsFull() {
+        // Given
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(fromCard));
+        when(cardRepository.findById(2L)).thenReturn(Optional.of(toCard));
+        for (int i = 0; i < 3; i++) {
+            cardLedger.transfer(new TransferRequest(1L, 2L, BigDecimal.ONE, null), testUser);
+        }
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            cardLedger.transfer(new TransferRequest(1L, 2L, BigDecimal.ONE, null), testUser);
+        });
+
+        assertEquals("Transfers are temporarily unavailable, try again later", exception.getMessage());
+        assertEquals(3, cardLedger.pendingCount());
+        assertEquals(0, BigDecimal.valueOf(997.00).compareTo(cardLedger.currentBalance(1L, BigDecimal.ZERO)));
+    }
+}
@@ -0,0 +1,116 @@
+package com.bank.cards.service;
+
+import com.bank.cards.entity.Card;
+import com.bank.cards.entity.CardNumberBlock;
+import com.bank.cards.repository.CardNumberBlockRepository;
+import com.bank.cards.repository.CardRepository;
+import com.bank.cards.service.cardnumber.CardNumberAllocator;
+import com.bank.cards.service.cardnumber.Luhn;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardNumberAllocatorTest {
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private CardNumberBlockRepository cardNumberBlockRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void allocate_IssuesDistinctLuhnValidNumbersFromReservedBlocks() {
+        // Given
+        CardNumberBlock debitBlock = givenBlock("220012");
+        CardNumberAllocator allocator = allocator(2);
+
+        // When
+        Set<String> numbers = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            numbers.add(allocator.allocate(Card.CardType.DEBIT));
+        }
+
+        // Then
+        assertEquals(5, numbers.size());
+        for (String number : numbers) {
+            assertEquals(16, number.length());
+            assertTrue(number.startsWith("220012"));
+            assertTrue(Luhn.isValid(number), number);
+        }
+        assertEquals(6L, debitBlock.getNextSerial());
+        verify(cardNumberBlockRepository, times(3)).advance("220012", 2);
+        verify(cardRepository, never()).existsByCardNumber(anyString());
+    }
+
+    @Test
+    void allocate_SkipsNumberAlreadyTakenByUser() {
+        // Given
+        CardNumberBlock creditBlock = givenBlock("220013");
+        String firstNumber = allocator(10).allocate(Card.CardType.CREDIT);
+        creditBlock.setNextSerial(0L);
+
+        CardNumberAllocator allocator = allocator(10);
+        allocator.register(firstNumber);
+        when(cardRepository.existsByCardNumber(firstNumber)).thenReturn(true);
+
+        // When
+        String allocated = allocator.allocate(Card.CardType.CREDIT);
+
+        // Then
+        assertNotEquals(firstNumber, allocated);
+        assertTrue(Luhn.isValid(allocated));
+        assertEquals(1, allocator.getDatabaseChecks());
+    }
+
+    @Test
+    void allocate_CreatesBinRowOnFirstUse() {
+        // Given
+        when(cardNumberBlockRepository.advance("220012", 100)).thenReturn(0);
+        when(cardNumberBlockRepository.saveAndFlush(any(CardNumberBlock.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        String number = allocator(100).allocate(Card.CardType.DEBIT);
+
+        // Then
+        assertTrue(number.startsWith("220012"));
+        verify(cardNumberBlockRepository).saveAndFlush(argThat(block -> block.getNextSerial() == 100L));
+    }
+
+    @Test
+    void luhn_ValidatesKnownNumbers() {
+        assertTrue(Luhn.isValid("4111111111111111"));
+        assertTrue(Luhn.isValid("4539578763621486"));
+        assertFalse(Luhn.isValid("4111111111111112"));
+        assertFalse(Luhn.isValid("41111111abc11111"));
+    }
+
+    // Stands in for the row the UPDATE would advance
+    private CardNumberBlock givenBlock(String bin) {
+        CardNumberBlock block = new CardNumberBlock(bin, 0L);
+        when(cardNumberBlockRepository.advance(eq(bin), anyLong())).thenAnswer(invocation -> {
+            block.setNextSerial(block.getNextSerial() + invocation.<Long>getArgument(1));
+            return 1;
+        });
+        when(cardNumberBlockRepository.findById(bin)).thenAnswer(invocation -> Optional.of(new CardNumberBlock(bin, block.getNextSerial())));
+        return block;
+    }
+
+    private CardNumberAllocator allocator(int blockSize) {
+        return new CardNumberAllocator(cardRepository, cardNumberBlockRepository, transactionManager,
+                "220012", "220013", blockSize, 1000);
+    }
+}
@@ -0,0 +1,124 @@
+package com.bank.cards.service;
+
+import com.bank.cards.config.CacheConfig;
+import com.bank.cards.dto.CardDto;
+import com.bank.cards.entity.Card;
+import com.bank.cards.entity.User;
+import com.bank.cards.repository.CardBalanceShardRepository;
+import com.bank.cards.repository.CardRepository;
+import com.bank.cards.service.balance.StripedBalances;
+import com.bank.cards.service.cardnumber.CardNumberAllocator;
+import com.bank.cards.service.impl.CardServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig(CardServiceCachingTest.TestConfig.class)
+class CardServiceCachingTest {
+
+    @Configuration
+    @Import(CacheConfig.class)
+    static class TestConfig {
+
+        @Bean
+        CardRepository cardRepository() {
+            return mock(CardRepository.class);
+        }
+
+        @Bean
+        CardService cardService(CardRepository cardRepository) {
+            return new CardServiceImpl(cardRepository, mock(CardNumberAllocator.class), mock(TransactionFeedService.class),
+                    new StripedBalances(mock(CardBalanceShardRepository.class), 64));
+        }
+    }
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private User testUser;
+    private Card testCard;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.USER_CARDS).clear();
+        reset(cardRepository);
+
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("testuser");
+
+        testCard = new Card();
+        testCard.setId(1L);
+        testCard.setCardNumber("1234567890123456");
+        testCard.setBalance(BigDecimal.valueOf(1000.00));
+        testCard.setStatus(Card.CardStatus.ACTIVE);
+        testCard.setCardType(Card.CardType.DEBIT);
+        testCard.setOwner(testUser);
+    }
+
+    @Test
+    void getUserCards_ServesRepeatedReadsFromCache() {
+        // Given
+        when(cardRepository.findByOwner(testUser)).thenReturn(List.of(testCard));
+
+        // When
+        List<CardDto> first = cardService.getUserCards(testUser);
+        List<CardDto> second = cardService.getUserCards(testUser);
+
+        // Then
+        assertSame(first, second);
+        verify(cardRepository, times(1)).findByOwner(testUser);
+    }
+
+    @Test
+    void updateCardStatus_EvictsOwnersCardList() {
+        // Given
+        when(cardRepository.findByOwner(testUser)).thenReturn(List.of(testCard));
+        when(cardRepository.findByIdAndOwner(1L, testUser)).thenReturn(Optional.of(testCard));
+        when(cardRepository.save(any(Card.class))).thenReturn(testCard);
+        cardService.getUserCards(testUser);
+
+        // When
+        cardService.updateCardStatus(1L, Card.CardStatus.BLOCKED, testUser);
+        List<CardDto> cards = cardService.getUserCards(testUser);
+
+        // Then
+        assertEquals(Card.CardStatus.BLOCKED, cards.get(0).getStatus());
+        verify(cardRepository, times(2)).findByOwner(testUser);
+    }
+
+    @Test
+    void getUserCards_KeepsUsersSeparate() {
+        // Given
+        User otherUser = new User();
+        otherUser.setId(2L);
+        when(cardRepository.findByOwner(testUser)).thenReturn(List.of(testCard));
+        when(cardRepository.findByOwner(otherUser)).thenReturn(List.of());
+
+        // When
+        cardService.getUserCards(testUser);
+        List<CardDto> otherCards = cardService.getUserCards(otherUser);
+
+        // Then
+        assertTrue(otherCards.isEmpty());
+    }
+}
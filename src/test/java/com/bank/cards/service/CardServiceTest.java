@@ -3,13 +3,19 @@ package com.bank.cards.service;
 import com.bank.cards.dto.CardDto;
 import com.bank.cards.entity.Card;
 import com.bank.cards.entity.User;
+import com.bank.cards.repository.CardBalanceShardRepository;
 import com.bank.cards.repository.CardRepository;
+import com.bank.cards.service.balance.StripedBalances;
+import com.bank.cards.service.cardnumber.CardNumberAllocator;
 import com.bank.cards.service.impl.CardServiceImpl;
+import com.bank.cards.service.ledger.CardLedger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
@@ -28,6 +34,17 @@ class CardServiceTest {
     @Mock
     private CardRepository cardRepository;
 
+    @Mock
+    private CardNumberAllocator cardNumberAllocator;
+
+    @Mock
+    private TransactionFeedService transactionFeedService;
+
+    private final CardBalanceShardRepository cardBalanceShardRepository = mock(CardBalanceShardRepository.class);
+
+    @Spy
+    private StripedBalances stripedBalances = new StripedBalances(cardBalanceShardRepository, 64);
+
     @InjectMocks
     private CardServiceImpl cardService;
 
@@ -63,7 +80,7 @@ class CardServiceTest {
     @Test
     void createCard_Success() {
         // Given
-        when(cardRepository.existsByCardNumber(anyString())).thenReturn(false);
+        when(cardNumberAllocator.allocate(Card.CardType.DEBIT)).thenReturn("2200120000000001");
         when(cardRepository.save(any(Card.class))).thenReturn(testCard);
 
         // When
@@ -77,6 +94,22 @@ class CardServiceTest {
         assertEquals(testCard.getOwner().getUsername(), result.getOwnerUsername());
         
         verify(cardRepository, times(1)).save(any(Card.class));
+        verify(cardRepository, never()).existsByCardNumber(anyString());
+    }
+
+    @Test
+    void createCard_WithProvidedNumberRegistersItWithAllocator() {
+        // Given
+        testCardDto.setCardNumber("1234567890123456");
+        when(cardRepository.existsByCardNumber("1234567890123456")).thenReturn(false);
+        when(cardRepository.save(any(Card.class))).thenReturn(testCard);
+
+        // When
+        cardService.createCard(testCardDto, testUser);
+
+        // Then
+        verify(cardNumberAllocator).register("1234567890123456");
+        verify(cardNumberAllocator, never()).allocate(any());
     }
 
     @Test
@@ -148,13 +181,17 @@ class CardServiceTest {
     void deleteCard_Success() {
         // Given
         when(cardRepository.findByIdAndOwner(1L, testUser)).thenReturn(Optional.of(testCard));
+        when(transactionFeedService.findTransactionIdsByCard(1L)).thenReturn(List.of(7L, 9L));
 
         // When
         cardService.deleteCard(1L, testUser);
 
         // Then
         verify(cardRepository, times(1)).findByIdAndOwner(1L, testUser);
-        verify(cardRepository, times(1)).delete(testCard);
+        InOrder inOrder = inOrder(cardRepository, transactionFeedService);
+        inOrder.verify(cardRepository).delete(testCard);
+        inOrder.verify(cardRepository).flush();
+        inOrder.verify(transactionFeedService).refresh(List.of(7L, 9L));
     }
 
     @Test
@@ -170,5 +207,30 @@ class CardServiceTest {
         assertEquals("Card not found", exception.getMessage());
         verify(cardRepository, times(1)).findByIdAndOwner(1L, testUser);
         verify(cardRepository, never()).delete(any());
+        verifyNoInteractions(transactionFeedService);
+    }
+
+    @Test
+    void deleteCard_WithLedger_ClosesOnlyAnOwnedCard() {
+        // Given
+        CardLedger cardLedger = mock(CardLedger.class);
+        cardService.setCardLedger(cardLedger);
+        when(cardRepository.existsByIdAndOwner(1L, testUser)).thenReturn(true);
+        when(cardRepository.existsByIdAndOwner(2L, testUser)).thenReturn(false);
+        when(cardRepository.findByIdAndOwner(1L, testUser)).thenReturn(Optional.of(testCard));
+
+        // When
+        cardService.deleteCard(1L, testUser);
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> cardService.deleteCard(2L, testUser));
+
+        // Then
+        assertEquals("Card not found", exception.getMessage());
+        InOrder inOrder = inOrder(cardRepository, cardLedger);
+        inOrder.verify(cardRepository).existsByIdAndOwner(1L, testUser);
+        inOrder.verify(cardLedger).close(1L);
+        inOrder.verify(cardRepository).findByIdAndOwner(1L, testUser);
+        inOrder.verify(cardRepository).delete(testCard);
+        verify(cardLedger, never()).close(2L);
+        verify(cardRepository, never()).findByIdAndOwner(2L, testUser);
     }
-}
\ No newline at end of file
+}
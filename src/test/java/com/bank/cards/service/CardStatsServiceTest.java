@@ -0,0 +1,228 @@
+package com.bank.cards.service;
+
+import com.bank.cards.dto.CardStatsDto;
+import com.bank.cards.entity.Card;
+import com.bank.cards.entity.CardDailyStats;
+import com.bank.cards.entity.Transaction;
+import com.bank.cards.entity.User;
+import com.bank.cards.repository.CardBalanceShardRepository;
+import com.bank.cards.repository.CardDailyStatsRepository;
+import com.bank.cards.repository.CardRepository;
+import com.bank.cards.repository.TransactionRepository;
+import com.bank.cards.service.impl.CardStatsServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardStatsServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 10);
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private CardDailyStatsRepository cardDailyStatsRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private CardBalanceShardRepository cardBalanceShardRepository;
+
+    @InjectMocks
+    private CardStatsServiceImpl cardStatsService;
+
+    private User testUser;
+    private Card card;
+    private Card otherCard;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cardStatsService, "maxRangeDays", 366);
+
+        testUser = new User();
+        testUser.setId(1L);
+
+        card = new Card();
+        card.setId(1L);
+        card.setBalance(BigDecimal.valueOf(70));
+        card.setOwner(testUser);
+
+        otherCard = new Card();
+        otherCard.setId(2L);
+        otherCard.setOwner(testUser);
+    }
+
+    @Test
+    void getCardStats_FillsDaysWithoutActivityFromPreviousClosingBalance() {
+        // Given
+        when(cardRepository.findByIdAndOwner(1L, testUser)).thenReturn(Optional.of(card));
+        CardDailyStatsRepository.DayTotals day = totals(DAY.plusDays(1), 100, 40, 10, 2);
+        CardDailyStatsRepository.DayTotals previous = totals(DAY.minusDays(5), 50, 0, 50, 1);
+        when(cardDailyStatsRepository.sumDaysBetween(1L, DAY, DAY.plusDays(3))).thenReturn(List.of(day));
+        when(cardDailyStatsRepository.sumLastDayBefore(1L, DAY)).thenReturn(Optional.of(previous));
+
+        // When
+        CardStatsDto stats = cardStatsService.getCardStats(1L, testUser, DAY, DAY.plusDays(3));
+
+        // Then
+        assertEquals(4, stats.getDays().size());
+        assertEquals(0, BigDecimal.valueOf(100).compareTo(stats.getOpeningBalance()));
+        assertEquals(0, BigDecimal.valueOf(70).compareTo(stats.getDays().get(1).getClosingBalance()));
+        assertEquals(0, BigDecimal.valueOf(70).compareTo(stats.getDays().get(3).getOpeningBalance()));
+        assertEquals(0, BigDecimal.valueOf(70).compareTo(stats.getClosingBalance()));
+        assertEquals(0, BigDecimal.valueOf(40).compareTo(stats.getTotalDebits()));
+        assertEquals(0, BigDecimal.valueOf(10).compareTo(stats.getTotalCredits()));
+        assertEquals(2, stats.getTransactionCount());
+    }
+
+    @Test
+    void getCardStats_RejectsTooLongRange() {
+        // Given
+        when(cardRepository.findByIdAndOwner(1L, testUser)).thenReturn(Optional.of(card));
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            cardStatsService.getCardStats(1L, testUser, DAY, DAY.plusDays(366));
+        });
+
+        assertEquals("Date range must not exceed 366 days", exception.getMessage());
+        verifyNoInteractions(cardDailyStatsRepository);
+    }
+
+    @Test
+    void recordTransfers_AddsToExistingDayAndOpensNewDayAtRunningBalance() {
+        // Given
+        Transaction first = transfer(card, otherCard, 30);
+        Transaction second = transfer(otherCard, card, 5);
+        when(cardDailyStatsRepository.addActivity(eq(1L), eq(DAY), eq(0), any(), any(), anyInt())).thenReturn(1);
+        when(cardDailyStatsRepository.addActivity(eq(2L), eq(DAY), eq(0), any(), any(), anyInt())).thenReturn(0);
+
+        // When
+        cardStatsService.recordTransfers(List.of(first, second),
+                Map.of(1L, BigDecimal.valueOf(100), 2L, BigDecimal.valueOf(20)));
+
+        // Then
+        verify(cardDailyStatsRepository).addActivity(1L, DAY, 0, BigDecimal.valueOf(30), BigDecimal.valueOf(5), 2);
+        ArgumentCaptor<CardDailyStats> inserted = ArgumentCaptor.forClass(CardDailyStats.class);
+        verify(cardDailyStatsRepository).save(inserted.capture());
+        assertEquals(2L, inserted.getValue().getCardId());
+        assertEquals(BigDecimal.valueOf(20), inserted.getValue().getOpeningBalance());
+        assertEquals(BigDecimal.valueOf(30), inserted.getValue().getCredits());
+        assertEquals(BigDecimal.valueOf(5), inserted.getValue().getDebits());
+        assertEquals(2, inserted.getValue().getTransactionCount());
+        verify(cardRepository).lockById(2L);
+        verify(cardRepository, never()).lockById(1L);
+    }
+
+    @Test
+    void recordTransfers_AddsToDayRowCreatedWhileWaitingForCardLock() {
+        // Given: another transfer into the striped card created the day's row first
+        Transaction credit = transfer(otherCard, card, 5);
+        when(cardDailyStatsRepository.addActivity(eq(1L), eq(DAY), eq(0), any(), any(), anyInt())).thenReturn(0, 1);
+        when(cardDailyStatsRepository.addActivity(eq(2L), eq(DAY), eq(0), any(), any(), anyInt())).thenReturn(1);
+
+        // When
+        cardStatsService.recordTransfers(List.of(credit), Map.of(1L, BigDecimal.valueOf(100), 2L, BigDecimal.valueOf(20)));
+
+        // Then
+        InOrder order = inOrder(cardDailyStatsRepository, cardRepository);
+        order.verify(cardDailyStatsRepository).addActivity(1L, DAY, 0, BigDecimal.ZERO, BigDecimal.valueOf(5), 1);
+        order.verify(cardRepository).lockById(1L);
+        order.verify(cardDailyStatsRepository).addActivity(1L, DAY, 0, BigDecimal.ZERO, BigDecimal.valueOf(5), 1);
+        verify(cardDailyStatsRepository, never()).save(any());
+    }
+
+    @Test
+    void recordTransfers_OpensNewShardRowWithoutOpeningBalanceWhenDayExists() {
+        // Given: the day already has a row on another shard
+        ReflectionTestUtils.setField(cardStatsService, "shards", 4);
+        Transaction credit = transfer(otherCard, card, 5);
+        when(cardDailyStatsRepository.addActivity(eq(1L), eq(DAY), anyInt(), any(), any(), anyInt())).thenReturn(0);
+        when(cardDailyStatsRepository.addActivity(eq(2L), eq(DAY), anyInt(), any(), any(), anyInt())).thenReturn(1);
+        when(cardDailyStatsRepository.existsByCardIdAndStatDate(1L, DAY)).thenReturn(true);
+
+        // When
+        cardStatsService.recordTransfers(List.of(credit), Map.of(1L, BigDecimal.valueOf(100), 2L, BigDecimal.valueOf(20)));
+
+        // Then
+        ArgumentCaptor<CardDailyStats> inserted = ArgumentCaptor.forClass(CardDailyStats.class);
+        verify(cardDailyStatsRepository).save(inserted.capture());
+        assertEquals(1L, inserted.getValue().getCardId());
+        assertTrue(inserted.getValue().getShard() >= 0 && inserted.getValue().getShard() < 4);
+        assertEquals(BigDecimal.ZERO, inserted.getValue().getOpeningBalance());
+        assertEquals(BigDecimal.valueOf(5), inserted.getValue().getCredits());
+        verify(cardRepository).lockById(1L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuildCardStats_DerivesOpeningBalancesBackwardsFromCurrentBalance() {
+        // Given: 70 in total, 20 of it in balance shards
+        when(cardRepository.lockById(1L)).thenReturn(1);
+        when(cardRepository.findBalanceById(1L)).thenReturn(Optional.of(BigDecimal.valueOf(50)));
+        when(cardBalanceShardRepository.lockAndSum(1L)).thenReturn(BigDecimal.valueOf(20));
+        List<TransactionRepository.DailyActivity> activity = List.of(
+                activity(DAY.plusDays(1), 40, 10, 2),
+                activity(DAY, 0, 50, 1));
+        when(transactionRepository.findDailyActivity(1L)).thenReturn(activity);
+
+        // When
+        cardStatsService.rebuildCardStats(1L);
+
+        // Then
+        ArgumentCaptor<List<CardDailyStats>> rows = ArgumentCaptor.forClass(List.class);
+        verify(cardDailyStatsRepository).deleteByCardId(1L);
+        verify(cardDailyStatsRepository).saveAll(rows.capture());
+        assertEquals(BigDecimal.valueOf(100), rows.getValue().get(0).getOpeningBalance());
+        assertEquals(BigDecimal.valueOf(50), rows.getValue().get(1).getOpeningBalance());
+    }
+
+    private Transaction transfer(Card from, Card to, long amount) {
+        Transaction transaction = new Transaction(from, to, BigDecimal.valueOf(amount), Transaction.TransactionType.TRANSFER, null);
+        transaction.setCreatedAt(LocalDateTime.of(DAY, LocalTime.NOON));
+        return transaction;
+    }
+
+    private CardDailyStatsRepository.DayTotals totals(LocalDate day, long opening, long debits, long credits, long count) {
+        CardDailyStatsRepository.DayTotals totals = mock(CardDailyStatsRepository.DayTotals.class);
+        lenient().when(totals.getStatDate()).thenReturn(day);
+        lenient().when(totals.getOpeningBalance()).thenReturn(BigDecimal.valueOf(opening));
+        lenient().when(totals.getDebits()).thenReturn(BigDecimal.valueOf(debits));
+        lenient().when(totals.getCredits()).thenReturn(BigDecimal.valueOf(credits));
+        lenient().when(totals.getTransactionCount()).thenReturn(count);
+        lenient().when(totals.getClosingBalance()).thenCallRealMethod();
+        return totals;
+    }
+
+    private TransactionRepository.DailyActivity activity(LocalDate day, long debits, long credits, long count) {
+        TransactionRepository.DailyActivity activity = mock(TransactionRepository.DailyActivity.class);
+        when(activity.getStatDate()).thenReturn(day);
+        when(activity.getDebits()).thenReturn(BigDecimal.valueOf(debits));
+        when(activity.getCredits()).thenReturn(BigDecimal.valueOf(credits));
+        when(activity.getTransactionCount()).thenReturn(count);
+        return activity;
+    }
+}
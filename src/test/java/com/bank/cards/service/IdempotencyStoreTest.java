@@ -0,0 +1,156 @@
+package com.bank.cards.service;
+
+import com.bank.cards.dto.TransferRequest;
+import com.bank.cards.entity.IdempotencyRecord;
+import com.bank.cards.repository.IdempotencyRecordRepository;
+import com.bank.cards.service.idempotency.IdempotencyStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyStoreTest {
+
+    @Mock
+    private IdempotencyRecordRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private IdempotencyStore store;
+    private TransferRequest request;
+    private AtomicInteger transfers;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        store = new IdempotencyStore(repository, new ObjectMapper(), transactionManager, meterRegistry, 24, 100);
+        request = new TransferRequest(1L, 2L, BigDecimal.valueOf(100), "Rent");
+        transfers = new AtomicInteger();
+    }
+
+    @Test
+    void execute_RunsActionOnceAndReplaysRepeatFromMemory() {
+        // Given
+        when(repository.findById("1:key-1")).thenReturn(Optional.empty());
+        when(repository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        IdempotencyStore.StoredResponse first = store.execute(1L, "key-1", request, HttpStatus.CREATED, this::transfer);
+        IdempotencyStore.StoredResponse repeat = store.execute(1L, "key-1", request, HttpStatus.CREATED, this::transfer);
+
+        // Then
+        assertEquals(1, transfers.get());
+        assertFalse(first.isReplayed());
+        assertTrue(repeat.isReplayed());
+        assertEquals(201, repeat.getStatus());
+        assertEquals(first.getBody(), repeat.getBody());
+        verify(repository, times(1)).findById("1:key-1");
+        assertEquals(1.0, meterRegistry.counter("idempotency.replays").count());
+    }
+
+    @Test
+    void execute_ReplaysStoredRowWithoutRunningAction() throws Exception {
+        // Given
+        IdempotencyRecord stored = storedRecord(LocalDateTime.now().plusHours(1));
+        when(repository.findById("1:key-1")).thenReturn(Optional.of(stored));
+
+        // When
+        IdempotencyStore.StoredResponse response = store.execute(1L, "key-1", request, HttpStatus.CREATED, this::transfer);
+
+        // Then
+        assertEquals(0, transfers.get());
+        assertTrue(response.isReplayed());
+        assertEquals("{\"id\":7}", response.getBody());
+        verify(repository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void execute_ReplaysWinnerOfConcurrentInsert() throws Exception {
+        // Given
+        IdempotencyRecord stored = storedRecord(LocalDateTime.now().plusHours(1));
+        when(repository.findById("1:key-1")).thenReturn(Optional.empty()).thenReturn(Optional.of(stored));
+        when(repository.saveAndFlush(any(IdempotencyRecord.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        // When
+        IdempotencyStore.StoredResponse response = store.execute(1L, "key-1", request, HttpStatus.CREATED, this::transfer);
+
+        // Then
+        assertEquals(0, transfers.get());
+        assertTrue(response.isReplayed());
+        assertEquals("{\"id\":7}", response.getBody());
+    }
+
+    @Test
+    void execute_RejectsKeyReusedForDifferentRequest() throws Exception {
+        // Given
+        IdempotencyRecord stored = storedRecord(LocalDateTime.now().plusHours(1));
+        when(repository.findById("1:key-1")).thenReturn(Optional.of(stored));
+        TransferRequest other = new TransferRequest(1L, 2L, BigDecimal.valueOf(250), "Rent");
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> store.execute(1L, "key-1", other, HttpStatus.CREATED, this::transfer));
+        assertEquals("Idempotency-Key was already used for a different request", exception.getMessage());
+        assertEquals(0, transfers.get());
+    }
+
+    @Test
+    void execute_RunsAgainAfterStoredRowExpired() throws Exception {
+        // Given
+        IdempotencyRecord stored = storedRecord(LocalDateTime.now().minusMinutes(1));
+        when(repository.findById("1:key-1")).thenReturn(Optional.of(stored));
+        when(repository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        IdempotencyStore.StoredResponse response = store.execute(1L, "key-1", request, HttpStatus.CREATED, this::transfer);
+
+        // Then
+        assertEquals(1, transfers.get());
+        assertFalse(response.isReplayed());
+        verify(repository).delete(stored);
+    }
+
+    @Test
+    void execute_RejectsOverlongKey() {
+        // When & Then
+        assertThrows(RuntimeException.class,
+                () -> store.execute(1L, "k".repeat(65), request, HttpStatus.CREATED, this::transfer));
+        verifyNoInteractions(repository);
+    }
+
+    private Map<String, Object> transfer() {
+        return Map.of("id", 6 + transfers.incrementAndGet());
+    }
+
+    // Row stored by an earlier execute() of the same request
+    private IdempotencyRecord storedRecord(LocalDateTime expiresAt) throws Exception {
+        byte[] json = new ObjectMapper().writeValueAsBytes(request);
+        String requestHash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        IdempotencyRecord record = new IdempotencyRecord("1:key-1", requestHash, expiresAt.minusHours(24), expiresAt);
+        record.setResponseStatus(201);
+        record.setResponseBody("{\"id\":7}");
+        return record;
+    }
+}
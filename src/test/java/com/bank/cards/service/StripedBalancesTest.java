@@ -0,0 +1,133 @@
+package com.bank.cards.service;
+
+import com.bank.cards.entity.Card;
+import com.bank.cards.repository.CardBalanceShardRepository;
+import com.bank.cards.service.balance.StripedBalances;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StripedBalancesTest {
+
+    @Mock
+    private CardBalanceShardRepository shardRepository;
+
+    private StripedBalances stripedBalances;
+
+    private Card card;
+
+    @BeforeEach
+    void setUp() {
+        stripedBalances = new StripedBalances(shardRepository, 16);
+
+        card = new Card();
+        card.setId(1L);
+        card.setBalance(BigDecimal.valueOf(30));
+        card.setBalanceShards(4);
+    }
+
+    @Test
+    void total_AddsShardsToCardRow() {
+        // Given
+        when(shardRepository.sum(1L)).thenReturn(BigDecimal.valueOf(80));
+
+        // When / Then
+        assertEquals(BigDecimal.valueOf(110), stripedBalances.total(card));
+    }
+
+    @Test
+    void credit_AddsToOneShardAndLeavesCardRowAlone() {
+        // Given
+        when(shardRepository.credit(eq(1L), anyInt(), eq(BigDecimal.TEN))).thenReturn(1);
+
+        // When
+        stripedBalances.credit(card, BigDecimal.TEN);
+
+        // Then
+        verify(shardRepository).credit(eq(1L), intThat(shard -> shard >= 0 && shard < 4), eq(BigDecimal.TEN));
+        assertEquals(BigDecimal.valueOf(30), card.getBalance());
+    }
+
+    @Test
+    void credit_ReportsConflictWhenShardWasRemoved() {
+        // Given: the card was re-sharded after it was loaded
+        when(shardRepository.credit(eq(1L), anyInt(), eq(BigDecimal.TEN))).thenReturn(0);
+
+        // When / Then
+        assertThrows(OptimisticLockingFailureException.class, () -> stripedBalances.credit(card, BigDecimal.TEN));
+    }
+
+    @Test
+    void debit_TakesAmountFromShardThatCoversIt() {
+        // Given
+        when(shardRepository.tryDebit(eq(1L), anyInt(), eq(BigDecimal.TEN))).thenReturn(false, true);
+
+        // When
+        stripedBalances.debit(card, BigDecimal.TEN);
+
+        // Then
+        verify(shardRepository, times(2)).tryDebit(eq(1L), anyInt(), eq(BigDecimal.TEN));
+        verify(shardRepository, never()).drain(1L);
+        assertEquals(BigDecimal.valueOf(30), card.getBalance());
+    }
+
+    @Test
+    void debit_ConsolidatesShardsWhenNoneCoversAmount() {
+        // Given
+        BigDecimal amount = BigDecimal.valueOf(100);
+        when(shardRepository.tryDebit(eq(1L), anyInt(), eq(amount))).thenReturn(false);
+        when(shardRepository.drain(1L)).thenReturn(BigDecimal.valueOf(80));
+
+        // When
+        stripedBalances.debit(card, amount);
+
+        // Then
+        verify(shardRepository, times(4)).tryDebit(eq(1L), anyInt(), eq(amount));
+        assertEquals(BigDecimal.valueOf(10), card.getBalance());
+    }
+
+    @Test
+    void debit_FailsWhenCardRowAndShardsAreShort() {
+        // Given
+        BigDecimal amount = BigDecimal.valueOf(200);
+        when(shardRepository.tryDebit(eq(1L), anyInt(), eq(amount))).thenReturn(false);
+        when(shardRepository.drain(1L)).thenReturn(BigDecimal.valueOf(80));
+
+        // When / Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> stripedBalances.debit(card, amount));
+        assertEquals("Insufficient balance", exception.getMessage());
+    }
+
+    @Test
+    void reshard_MovesShardsIntoCardRowAndCreatesNewOnes() {
+        // Given
+        when(shardRepository.drain(1L)).thenReturn(BigDecimal.valueOf(80));
+
+        // When
+        stripedBalances.reshard(card, 8);
+
+        // Then
+        verify(shardRepository).deleteByCardId(1L);
+        verify(shardRepository).create(1L, 8);
+        assertEquals(BigDecimal.valueOf(110), card.getBalance());
+        assertEquals(8, card.getBalanceShards());
+    }
+
+    @Test
+    void reshard_RejectsMoreThanMaxShards() {
+        // When / Then
+        assertThrows(RuntimeException.class, () -> stripedBalances.reshard(card, 17));
+        verifyNoInteractions(shardRepository);
+    }
+}
@@ -0,0 +1,156 @@
+package com.bank.cards.service;
+
+import com.bank.cards.dto.TransactionExportRow;
+import com.bank.cards.entity.Card;
+import com.bank.cards.entity.User;
+import com.bank.cards.repository.CardRepository;
+import com.bank.cards.repository.TransactionExportRepository;
+import com.bank.cards.service.impl.TransactionExportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionExportServiceTest {
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private TransactionExportRepository transactionExportRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionExportServiceImpl transactionExportService;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        transactionExportService = new TransactionExportServiceImpl(cardRepository, transactionExportRepository, transactionManager);
+
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("testuser");
+    }
+
+    @Test
+    void exportCardTransactions_StreamsNdjsonLines() throws Exception {
+        // Given
+        givenCardHistory(
+            new TransactionExportRow(1L, LocalDateTime.of(2024, 1, 15, 10, 30), "TRANSFER", "COMPLETED",
+                    new BigDecimal("100.00"), "rent", 1L, "** ** 3456", 2L, "** ** 7654"),
+            new TransactionExportRow(2L, LocalDateTime.of(2024, 1, 16, 9, 0), "TRANSFER", "COMPLETED",
+                    new BigDecimal("5.50"), null, null, null, 1L, "** ** 3456")
+        );
+
+        // When
+        String output = export(TransactionExportService.ExportFormat.NDJSON);
+
+        // Then
+        String[] lines = output.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(output.endsWith("\n"));
+        assertEquals("{\"id\":1,\"createdAt\":\"2024-01-15T10:30\",\"type\":\"TRANSFER\",\"status\":\"COMPLETED\","
+                + "\"amount\":100.00,\"description\":\"rent\",\"fromCardId\":1,\"fromCard\":\"** ** 3456\","
+                + "\"toCardId\":2,\"toCard\":\"** ** 7654\"}", lines[0]);
+        assertTrue(lines[1].contains("\"fromCardId\":null"));
+    }
+
+    @Test
+    void exportCardTransactions_StreamsCsvWithHeaderAndQuoting() throws Exception {
+        // Given
+        givenCardHistory(
+            new TransactionExportRow(1L, LocalDateTime.of(2024, 1, 15, 10, 30), "TRANSFER", "COMPLETED",
+                    new BigDecimal("100.00"), "rent, \"january\"", 1L, "** ** 3456", 2L, "** ** 7654")
+        );
+
+        // When
+        String output = export(TransactionExportService.ExportFormat.CSV);
+
+        // Then
+        String[] lines = output.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("id,created_at,"));
+        assertEquals("1,2024-01-15T10:30,TRANSFER,COMPLETED,100.00,\"rent, \"\"january\"\"\",1,** ** 3456,2,** ** 7654", lines[1]);
+    }
+
+    @Test
+    void exportCardTransactions_CsvKeepsFormulaCellsAsText() throws Exception {
+        // Given
+        givenCardHistory(
+            new TransactionExportRow(1L, LocalDateTime.of(2024, 1, 15, 10, 30), "TRANSFER", "COMPLETED",
+                    new BigDecimal("1.00"), "=HYPERLINK(\"http://x\",\"a\")", 1L, "** ** 3456", 2L, "** ** 7654"),
+            new TransactionExportRow(2L, LocalDateTime.of(2024, 1, 15, 10, 31), "TRANSFER", "COMPLETED",
+                    new BigDecimal("1.00"), "@SUM(A1)", 1L, "** ** 3456", 2L, "** ** 7654"),
+            new TransactionExportRow(3L, LocalDateTime.of(2024, 1, 15, 10, 32), "TRANSFER", "COMPLETED",
+                    new BigDecimal("1.00"), "-1+2", 1L, "** ** 3456", 2L, "** ** 7654"),
+            new TransactionExportRow(4L, LocalDateTime.of(2024, 1, 15, 10, 33), "TRANSFER", "COMPLETED",
+                    new BigDecimal("1.00"), "a=b", 1L, "** ** 3456", 2L, "** ** 7654")
+        );
+
+        // When
+        String[] lines = export(TransactionExportService.ExportFormat.CSV).split("\n");
+
+        // Then
+        assertTrue(lines[1].contains(",\"'=HYPERLINK(\"\"http://x\"\",\"\"a\"\")\","), lines[1]);
+        assertTrue(lines[2].contains(",'@SUM(A1),"), lines[2]);
+        assertTrue(lines[3].contains(",'-1+2,"), lines[3]);
+        assertTrue(lines[4].contains(",a=b,"), lines[4]);
+    }
+
+    @Test
+    void exportCardTransactions_CardNotOwned() {
+        // Given
+        when(cardRepository.findByIdAndOwner(1L, testUser)).thenReturn(Optional.empty());
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            transactionExportService.exportCardTransactions(1L, testUser, TransactionExportService.ExportFormat.CSV);
+        });
+
+        assertEquals("Card not found", exception.getMessage());
+        verifyNoInteractions(transactionExportRepository);
+    }
+
+    @Test
+    void exportFormat_RejectsUnknownFormat() {
+        assertEquals(TransactionExportService.ExportFormat.CSV, TransactionExportService.ExportFormat.fromParameter("CSV"));
+        assertThrows(RuntimeException.class, () -> TransactionExportService.ExportFormat.fromParameter("xml"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenCardHistory(TransactionExportRow... rows) {
+        when(cardRepository.findByIdAndOwner(1L, testUser)).thenReturn(Optional.of(new Card()));
+        doAnswer(invocation -> {
+            Consumer<TransactionExportRow> consumer = invocation.getArgument(1);
+            for (TransactionExportRow row : rows) {
+                consumer.accept(row);
+            }
+            return null;
+        }).when(transactionExportRepository).streamCardHistory(eq(1L), any(Consumer.class));
+    }
+
+    private String export(TransactionExportService.ExportFormat format) throws Exception {
+        StreamingResponseBody body = transactionExportService.exportCardTransactions(1L, testUser, format);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,134 @@
+package com.bank.cards.service;
+
+import com.bank.cards.entity.Transaction;
+import com.bank.cards.entity.TransactionFeedEntry;
+import com.bank.cards.repository.TransactionFeedRepository;
+import com.bank.cards.repository.TransactionRepository;
+import com.bank.cards.repository.UserDataVersionRepository;
+import com.bank.cards.service.impl.TransactionFeedServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionFeedServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Mock
+    private TransactionFeedRepository transactionFeedRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private UserDataVersionRepository userDataVersionRepository;
+
+    private TransactionFeedServiceImpl transactionFeedService;
+
+    @BeforeEach
+    void setUp() {
+        transactionFeedService = new TransactionFeedServiceImpl(transactionFeedRepository, transactionRepository,
+                userDataVersionRepository, 2, 1);
+    }
+
+    @Test
+    void recordTransfers_WritesRowsDerivedFromFlushedTransactions() {
+        // Given
+        Transaction first = new Transaction();
+        first.setId(7L);
+        Transaction second = new Transaction();
+        second.setId(8L);
+        List<TransactionFeedEntry> derived = List.of(entry(7L, 3L, "100.00"), entry(7L, 1L, "100.00"),
+                entry(8L, 3L, "5.00"));
+        when(transactionFeedRepository.deriveEntries(List.of(7L, 8L))).thenReturn(derived);
+
+        // When
+        transactionFeedService.recordTransfers(List.of(first, second));
+
+        // Then: each user's version is bumped once, lowest id first
+        InOrder inOrder = inOrder(transactionRepository, transactionFeedRepository, userDataVersionRepository);
+        inOrder.verify(transactionRepository).flush();
+        inOrder.verify(transactionFeedRepository).deriveEntries(List.of(7L, 8L));
+        inOrder.verify(transactionFeedRepository).insert(derived);
+        inOrder.verify(userDataVersionRepository).bumpFeedVersion(1L, 0);
+        inOrder.verify(userDataVersionRepository).bumpFeedVersion(3L, 0);
+        verifyNoMoreInteractions(userDataVersionRepository);
+    }
+
+    @Test
+    void refresh_ReplacesRowsOfTheGivenTransactions() {
+        // Given
+        List<TransactionFeedEntry> derived = List.of(entry(7L, 2L, "100.00"));
+        when(transactionFeedRepository.deriveEntries(List.of(7L))).thenReturn(derived);
+
+        // When
+        transactionFeedService.refresh(List.of(7L));
+
+        // Then
+        InOrder inOrder = inOrder(transactionFeedRepository);
+        inOrder.verify(transactionFeedRepository).deleteByTransactionIds(List.of(7L));
+        inOrder.verify(transactionFeedRepository).insert(derived);
+    }
+
+    @Test
+    void refresh_ReplacesRowsOneChunkAtATime() {
+        // Given
+        List<TransactionFeedEntry> firstRows = List.of(entry(7L, 2L, "100.00"), entry(8L, 2L, "5.00"));
+        List<TransactionFeedEntry> lastRows = List.of(entry(9L, 2L, "1.00"));
+        when(transactionFeedRepository.deriveEntries(List.of(7L, 8L))).thenReturn(firstRows);
+        when(transactionFeedRepository.deriveEntries(List.of(9L))).thenReturn(lastRows);
+
+        // When
+        transactionFeedService.refresh(List.of(7L, 8L, 9L));
+
+        // Then
+        InOrder inOrder = inOrder(transactionFeedRepository);
+        inOrder.verify(transactionFeedRepository).deleteByTransactionIds(List.of(7L, 8L));
+        inOrder.verify(transactionFeedRepository).insert(firstRows);
+        inOrder.verify(transactionFeedRepository).deleteByTransactionIds(List.of(9L));
+        inOrder.verify(transactionFeedRepository).insert(lastRows);
+        verify(userDataVersionRepository, times(1)).bumpFeedVersion(2L, 0);
+    }
+
+    @Test
+    void findInconsistent_ReportsMissingChangedAndExtraRows() {
+        // Given
+        List<Long> ids = List.of(1L, 2L, 3L, 4L);
+        when(transactionFeedRepository.deriveEntries(ids)).thenReturn(List.of(
+                entry(1L, 1L, "10.00"), entry(2L, 1L, "20.00"), entry(3L, 1L, "30.00")));
+        when(transactionFeedRepository.findEntries(ids)).thenReturn(List.of(
+                entry(1L, 1L, "10.0"), entry(3L, 1L, "31.00"), entry(4L, 2L, "40.00")));
+
+        // When
+        List<Long> inconsistent = transactionFeedService.findInconsistent(ids);
+
+        // Then
+        assertEquals(List.of(2L, 3L, 4L), inconsistent);
+    }
+
+    @Test
+    void recordTransfers_IgnoresEmptyList() {
+        // When
+        transactionFeedService.recordTransfers(List.of());
+
+        // Then
+        verifyNoInteractions(transactionRepository, transactionFeedRepository, userDataVersionRepository);
+    }
+
+    private TransactionFeedEntry entry(Long transactionId, Long userId, String amount) {
+        return new TransactionFeedEntry(userId, transactionId, NOW, 11L, "4000000000000001",
+                TransactionFeedEntry.Direction.OUT, new BigDecimal(amount), 12L, "4000000000000002",
+                Transaction.TransactionType.TRANSFER, Transaction.TransactionStatus.COMPLETED, null);
+    }
+}
@@ -1,25 +1,47 @@
 package com.bank.cards.service;
 
+import com.bank.cards.dto.BatchTransferResult;
+import com.bank.cards.dto.CursorPage;
+import com.bank.cards.dto.TransactionCursor;
+import com.bank.cards.dto.TransactionView;
 import com.bank.cards.dto.TransferRequest;
 import com.bank.cards.entity.Card;
 import com.bank.cards.entity.Transaction;
 import com.bank.cards.entity.User;
+import com.bank.cards.repository.CardBalanceShardRepository;
 import com.bank.cards.repository.CardRepository;
+import com.bank.cards.repository.TransactionFeedRepository;
+import com.bank.cards.repository.TransactionHistoryRepository;
 import com.bank.cards.repository.TransactionRepository;
+import com.bank.cards.service.balance.StripedBalances;
 import com.bank.cards.service.impl.TransactionServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.intThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,9 +50,26 @@ class TransactionServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private TransactionHistoryRepository transactionHistoryRepository;
+
+    @Mock
+    private TransactionFeedRepository transactionFeedRepository;
+
     @Mock
     private CardRepository cardRepository;
 
+    @Mock
+    private CardStatsService cardStatsService;
+
+    @Mock
+    private TransactionFeedService transactionFeedService;
+
+    private final CardBalanceShardRepository cardBalanceShardRepository = mock(CardBalanceShardRepository.class);
+
+    @Spy
+    private StripedBalances stripedBalances = new StripedBalances(cardBalanceShardRepository, 64);
+
     @InjectMocks
     private TransactionServiceImpl transactionService;
 
@@ -100,12 +139,36 @@ class TransactionServiceTest {
         // Verify balance changes
         assertEquals(BigDecimal.valueOf(900.00), fromCard.getBalance());
         assertEquals(BigDecimal.valueOf(600.00), toCard.getBalance());
+        verify(cardStatsService).recordTransfers(List.of(savedTransaction),
+                Map.of(1L, BigDecimal.valueOf(1000.00), 2L, BigDecimal.valueOf(500.00)));
+        verify(transactionFeedService).recordTransfers(List.of(savedTransaction));
         
         verify(cardRepository, times(1)).save(fromCard);
         verify(cardRepository, times(1)).save(toCard);
         verify(transactionRepository, times(1)).save(any(Transaction.class));
     }
 
+    @Test
+    void transferBetweenOwnCards_CreditsStripedCardThroughBalanceShard() {
+        // Given: 500 on the card row and 300 in its shards
+        toCard.setBalanceShards(4);
+        when(cardBalanceShardRepository.sum(2L)).thenReturn(BigDecimal.valueOf(300.00));
+        when(cardBalanceShardRepository.credit(eq(2L), anyInt(), eq(BigDecimal.valueOf(100.00)))).thenReturn(1);
+        when(cardRepository.findByIdAndOwner(1L, testUser)).thenReturn(Optional.of(fromCard));
+        when(cardRepository.findByIdAndOwner(2L, testUser)).thenReturn(Optional.of(toCard));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        transactionService.transferBetweenOwnCards(transferRequest, testUser);
+
+        // Then
+        assertEquals(BigDecimal.valueOf(900.00), fromCard.getBalance());
+        assertEquals(BigDecimal.valueOf(500.00), toCard.getBalance());
+        verify(cardBalanceShardRepository).credit(eq(2L), intThat(shard -> shard >= 0 && shard < 4), eq(BigDecimal.valueOf(100.00)));
+        verify(cardStatsService).recordTransfers(anyList(),
+                eq(Map.of(1L, BigDecimal.valueOf(1000.00), 2L, BigDecimal.valueOf(800.00))));
+    }
+
     @Test
     void transferBetweenOwnCards_InsufficientBalance() {
         // Given
@@ -217,4 +280,154 @@ class TransactionServiceTest {
         verify(cardRepository, never()).save(any());
         verify(transactionRepository, never()).save(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void transferBatch_AppliesInOrderAndReportsEachItem() {
+        // Given
+        ReflectionTestUtils.setField(transactionService, "maxBatchSize", 1000);
+        when(cardRepository.findByIdInAndOwner(anyCollection(), eq(testUser))).thenReturn(List.of(fromCard, toCard));
+        List<TransferRequest> requests = List.of(
+            new TransferRequest(1L, 2L, BigDecimal.valueOf(600.00), "first"),
+            new TransferRequest(1L, 2L, BigDecimal.valueOf(600.00), "second"),
+            new TransferRequest(2L, 1L, BigDecimal.valueOf(100.00), "third"),
+            new TransferRequest(1L, 3L, BigDecimal.valueOf(10.00), "fourth")
+        );
+
+        // When
+        List<BatchTransferResult> results = transactionService.transferBatch(requests, testUser);
+
+        // Then
+        assertEquals(4, results.size());
+        assertEquals(BatchTransferResult.Status.SUCCESS, results.get(0).getStatus());
+        assertEquals(BatchTransferResult.Status.FAILED, results.get(1).getStatus());
+        assertEquals("Insufficient balance", results.get(1).getMessage());
+        assertEquals(BatchTransferResult.Status.SUCCESS, results.get(2).getStatus());
+        assertEquals("To card not found", results.get(3).getMessage());
+
+        assertEquals(BigDecimal.valueOf(500.00), fromCard.getBalance());
+        assertEquals(BigDecimal.valueOf(1000.00), toCard.getBalance());
+
+        ArgumentCaptor<List<Transaction>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(cardRepository, times(1)).findByIdInAndOwner(anyCollection(), eq(testUser));
+        verify(cardRepository, never()).findByIdAndOwner(any(), any());
+        verify(transactionRepository, times(1)).saveAll(inserted.capture());
+        assertEquals(2, inserted.getValue().size());
+        assertEquals("first", inserted.getValue().get(0).getDescription());
+        verify(transactionFeedService).recordTransfers(inserted.getValue());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void transferBatch_FailsNullItemsAndSubCentAmountsOnTheirOwn() {
+        // Given
+        ReflectionTestUtils.setField(transactionService, "maxBatchSize", 1000);
+        when(cardRepository.findByIdInAndOwner(anyCollection(), eq(testUser))).thenReturn(List.of(fromCard, toCard));
+        List<TransferRequest> requests = Arrays.asList(
+            null,
+            new TransferRequest(1L, 2L, new BigDecimal("0.005"), "rounds to a cent"),
+            new TransferRequest(1L, 2L, new BigDecimal("10.50"), "valid")
+        );
+
+        // When
+        List<BatchTransferResult> results = transactionService.transferBatch(requests, testUser);
+
+        // Then
+        assertEquals(3, results.size());
+        assertEquals(BatchTransferResult.Status.FAILED, results.get(0).getStatus());
+        assertEquals("Transfer is required", results.get(0).getMessage());
+        assertEquals(BatchTransferResult.Status.FAILED, results.get(1).getStatus());
+        assertEquals("Transfer amount must not have more than 2 decimal places", results.get(1).getMessage());
+        assertEquals(BatchTransferResult.Status.SUCCESS, results.get(2).getStatus());
+        assertEquals(0, new BigDecimal("989.50").compareTo(fromCard.getBalance()));
+    }
+
+    @Test
+    void transferBatch_RejectsOversizedBatch() {
+        // Given
+        ReflectionTestUtils.setField(transactionService, "maxBatchSize", 1);
+        List<TransferRequest> requests = List.of(transferRequest, transferRequest);
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            transactionService.transferBatch(requests, testUser);
+        });
+
+        assertEquals("Batch must not contain more than 1 transfers", exception.getMessage());
+        verifyNoInteractions(cardRepository, transactionRepository);
+    }
+
+    @Test
+    void getUserTransactions_ReadsPageOfUserFeedWithTotal() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        TransactionView newest = historyTransaction(30L, now);
+        when(transactionFeedRepository.findPage(1L, 20, 10)).thenReturn(List.of(newest));
+        when(transactionFeedRepository.count(1L)).thenReturn(21L);
+
+        // When
+        Page<TransactionView> page = transactionService.getUserTransactions(testUser, PageRequest.of(2, 10));
+
+        // Then
+        assertEquals(List.of(newest), page.getContent());
+        assertEquals(21L, page.getTotalElements());
+        assertEquals(3, page.getTotalPages());
+        verifyNoInteractions(transactionHistoryRepository);
+    }
+
+    @Test
+    void scrollUserTransactions_ReturnsCursorForNextPage() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        TransactionView newest = historyTransaction(30L, now);
+        TransactionView middle = historyTransaction(20L, now);
+        TransactionView oldest = historyTransaction(10L, now.minusMinutes(1));
+        when(transactionFeedRepository.findPage(1L, 0, 3))
+                .thenReturn(List.of(newest, middle, oldest));
+
+        // When
+        CursorPage<TransactionView> page = transactionService.scrollUserTransactions(testUser, null, 2);
+
+        // Then
+        assertEquals(List.of(newest, middle), page.getContent());
+        assertEquals("** ** 3456", page.getContent().get(0).getFromCardNumber());
+        TransactionCursor next = TransactionCursor.decode(page.getNextCursor());
+        assertEquals(now, next.getCreatedAt());
+        assertEquals(20L, next.getId());
+    }
+
+    @Test
+    void scrollCardTransactions_SeeksPastCursorAndEndsOnLastPage() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        TransactionView oldest = historyTransaction(10L, now.minusMinutes(1));
+        String cursor = new TransactionCursor(now, 20L).encode();
+        when(cardRepository.findByIdAndOwner(1L, testUser)).thenReturn(Optional.of(fromCard));
+        when(transactionHistoryRepository.findPageAfter(List.of(1L), now, 20L, 3))
+                .thenReturn(List.of(oldest));
+
+        // When
+        CursorPage<TransactionView> page = transactionService.scrollCardTransactions(1L, testUser, cursor, 2);
+
+        // Then
+        assertEquals(List.of(oldest), page.getContent());
+        assertNull(page.getNextCursor());
+        assertTrue(page.isLast());
+    }
+
+    @Test
+    void scrollUserTransactions_RejectsMalformedCursor() {
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            transactionService.scrollUserTransactions(testUser, "not-a-cursor", 20);
+        });
+
+        assertEquals("Invalid cursor", exception.getMessage());
+        verifyNoInteractions(transactionFeedRepository);
+    }
+
+    private TransactionView historyTransaction(Long id, LocalDateTime createdAt) {
+        return new TransactionView(id, createdAt, Transaction.TransactionType.TRANSFER, Transaction.TransactionStatus.COMPLETED,
+                BigDecimal.TEN, null, fromCard.getId(), fromCard.getCardNumber(), toCard.getId(), toCard.getCardNumber());
+    }
+}
@@ -0,0 +1,96 @@
+package com.bank.cards.service;
+
+import com.bank.cards.service.impl.TransferRetryExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransferRetryExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TransferRetryExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new TransferRetryExecutor(meterRegistry, 3, 1, 2);
+    }
+
+    @Test
+    void execute_RetriesAfterConflict() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        String result = executor.execute(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Card", 1L);
+            }
+            return "done";
+        });
+
+        // Then
+        assertEquals("done", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2.0, meterRegistry.counter("transfers.conflicts").count());
+        assertEquals(2.0, meterRegistry.counter("transfers.retries").count());
+        assertEquals(0.0, meterRegistry.counter("transfers.retries.exhausted").count());
+    }
+
+    @Test
+    void execute_GivesUpAfterMaxAttempts() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When & Then
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> {
+            executor.execute(() -> {
+                attempts.incrementAndGet();
+                throw new ObjectOptimisticLockingFailureException("Card", 1L);
+            });
+        });
+
+        assertEquals(3, attempts.get());
+        assertEquals(1.0, meterRegistry.counter("transfers.retries.exhausted").count());
+    }
+
+    @Test
+    void execute_DoesNotRetryBusinessErrors() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            executor.execute(() -> {
+                attempts.incrementAndGet();
+                throw new RuntimeException("Insufficient balance");
+            });
+        });
+
+        assertEquals("Insufficient balance", exception.getMessage());
+        assertEquals(1, attempts.get());
+        assertEquals(0.0, meterRegistry.counter("transfers.conflicts").count());
+    }
+
+    @Test
+    void execute_RetriesWriteWithoutResult() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        executor.execute(() -> {
+            if (attempts.incrementAndGet() < 2) {
+                throw new ObjectOptimisticLockingFailureException("Card", 1L);
+            }
+        });
+
+        // Then
+        assertEquals(2, attempts.get());
+        assertEquals(1.0, meterRegistry.counter("transfers.retries").count());
+    }
+}